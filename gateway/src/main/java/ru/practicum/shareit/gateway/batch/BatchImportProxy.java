@@ -0,0 +1,186 @@
+package ru.practicum.shareit.gateway.batch;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.gateway.batch.BatchImportResult.RowError;
+import ru.practicum.shareit.gateway.client.ServerProxy;
+import ru.practicum.shareit.gateway.config.ShortCircuitCounter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Пакетный импорт через гейтвей: строки JSON-массива или NDJSON читаются потоком и проверяются
+ * теми же ограничениями, что и одиночные POST. Серверу уходит NDJSON, где на месте отклонённой
+ * строки стоит {@code null}, а X-Import-First-Row — номер первой строки части: номера строк у сервера
+ * совпадают с входными, и ошибки гейтвея и сервера просто объединяются.
+ * <p>
+ * Вход отправляется частями по shareit-gateway.batch.segment-rows строк, каждая отдельным вызовом:
+ * в памяти только текущая часть (RestTemplate с перехватчиками всё равно буферизует тело), и вызов
+ * укладывается в таймаут ответа при любом размере импорта. Части до сбоя уже сохранены сервером,
+ * поэтому повторять большой импорт стоит с X-Import-Key: сервер пропустит сохранённые пачки.
+ * Части, где все строки отклонены, серверу не отправляются.
+ */
+@Component
+@RequiredArgsConstructor
+public class BatchImportProxy {
+
+    public static final String IMPORT_KEY_HEADER = "X-Import-Key";
+    public static final String FIRST_ROW_HEADER = "X-Import-First-Row";
+
+    private static final byte[] REJECTED_ROW = "null\n".getBytes(StandardCharsets.UTF_8);
+
+    private final ServerProxy serverProxy;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ShortCircuitCounter shortCircuitCounter;
+
+    // Кратно shareit.batch.chunk-size сервера, чтобы части не дробили его пачки
+    @Value("${shareit-gateway.batch.segment-rows:10000}")
+    private int segmentRows;
+
+    public <T> ResponseEntity<BatchImportResult> forward(String url, HttpHeaders headers, InputStream input,
+                                                         Class<T> type) {
+        Upload upload = new Upload(url, headers);
+        read(input, type, upload);
+        upload.send();
+
+        if (upload.calls == 0) {
+            // Нечего сохранять: сервер не вызывается
+            shortCircuitCounter.increment("invalid_batch");
+        }
+        upload.errors.sort(Comparator.comparingInt(RowError::row));
+        return ResponseEntity.ok(new BatchImportResult(upload.received, upload.imported, upload.errors));
+    }
+
+    // Корректные строки записываются в текущую часть, вместо остальных — null
+    private <T> void read(InputStream input, Class<T> type, Upload upload) {
+        try (JsonParser parser = objectMapper.createParser(input)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            while (token != null && !(array && token == JsonToken.END_ARRAY)) {
+                JsonNode node = parser.readValueAsTree();
+                String error = validate(node, type);
+                if (error == null) {
+                    upload.accept(node);
+                } else {
+                    upload.reject(error);
+                }
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            // Дальше вход не разобрать; уже прочитанные строки всё равно импортируются
+            upload.reject("Malformed JSON: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> String validate(JsonNode node, Class<T> type) {
+        T value;
+        try {
+            value = node == null || node.isNull() ? null : objectMapper.treeToValue(node, type);
+        } catch (JsonProcessingException e) {
+            return e.getOriginalMessage();
+        }
+        if (value == null) {
+            return "Row is empty";
+        }
+        return validator.validate(value).stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.collectingAndThen(Collectors.joining("; "),
+                        message -> message.isEmpty() ? null : message));
+    }
+
+    // Состояние одного импорта: текущая часть и итог по уже отправленным
+    private class Upload {
+
+        private final String url;
+        private final HttpHeaders headers;
+        private final ByteArrayOutputStream segment = new ByteArrayOutputStream();
+        private final List<RowError> errors = new ArrayList<>();
+        private int received;
+        private int imported;
+        private int calls;
+        private int segmentStart;
+        private int segmentAccepted;
+
+        Upload(String url, HttpHeaders headers) {
+            this.url = url;
+            this.headers = headers;
+        }
+
+        void accept(JsonNode node) {
+            try {
+                objectMapper.writeValue(segment, node);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            segment.write('\n');
+            segmentAccepted++;
+            next();
+        }
+
+        void reject(String error) {
+            errors.add(new RowError(received, error));
+            segment.writeBytes(REJECTED_ROW);
+            next();
+        }
+
+        private void next() {
+            received++;
+            if (received - segmentStart == segmentRows) {
+                send();
+            }
+        }
+
+        void send() {
+            if (segmentAccepted > 0) {
+                HttpHeaders upstreamHeaders = new HttpHeaders();
+                upstreamHeaders.addAll(headers);
+                upstreamHeaders.setContentType(MediaType.APPLICATION_NDJSON);
+                upstreamHeaders.set(FIRST_ROW_HEADER, String.valueOf(segmentStart));
+                ResponseEntity<byte[]> response = serverProxy.exchangeForBytes(url, HttpMethod.POST,
+                        new HttpEntity<>(segment.toByteArray(), upstreamHeaders));
+                BatchImportResult server = parse(response.getBody());
+                imported += server.imported();
+                errors.addAll(server.errors());
+                calls++;
+            }
+            segment.reset();
+            segmentStart = received;
+            segmentAccepted = 0;
+        }
+    }
+
+    private BatchImportResult parse(byte[] body) {
+        try {
+            return objectMapper.readValue(body, BatchImportResult.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.gateway.batch;
+
+import java.util.List;
+
+/**
+ * Итог пакетного импорта: сколько строк прочитано, сколько сохранено и ошибки по номерам строк (с нуля).
+ */
+public record BatchImportResult(int received, int imported, List<RowError> errors) {
+
+    public record RowError(int row, String message) {
+    }
+}
@@ -1,16 +1,20 @@
 package ru.practicum.shareit.gateway.booking.client;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import ru.practicum.shareit.gateway.booking.dto.BookingDto;
+import ru.practicum.shareit.gateway.cache.ResponseCache;
+import ru.practicum.shareit.gateway.client.ServerProxy;
 
 @Service
 @RequiredArgsConstructor
 public class BookingClient {
-    private final RestTemplate restTemplate;
-    private final String serverUrl = "http://shareit-server:9090/bookings"; // URL `shareIt-server`
+    private final ServerProxy serverProxy;
+    private final ResponseCache responseCache;
+    @Value("${shareit-server.url}/bookings")
+    private String serverUrl;
 
     public ResponseEntity<Object> createBooking(Long userId, BookingDto bookingDto) {
         HttpHeaders headers = new HttpHeaders();
@@ -18,7 +22,7 @@ public class BookingClient {
         headers.setContentType(MediaType.APPLICATION_JSON);
 
         HttpEntity<BookingDto> requestEntity = new HttpEntity<>(bookingDto, headers);
-        return restTemplate.exchange(serverUrl, HttpMethod.POST, requestEntity, Object.class);
+        return serverProxy.exchange(serverUrl, HttpMethod.POST, requestEntity);
     }
 
     public ResponseEntity<Object> approveBooking(Long ownerId, Long bookingId, boolean approved) {
@@ -26,12 +30,12 @@ public class BookingClient {
         headers.set("X-Sharer-User-Id", ownerId.toString());
 
         HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
-        return restTemplate.exchange(
+        // Подтверждённое бронирование меняет last/nextBooking в карточке вещи у владельца
+        return responseCache.updatingBookings(() -> serverProxy.exchange(
                 serverUrl + "/" + bookingId + "?approved=" + approved,
                 HttpMethod.PATCH,
-                requestEntity,
-                Object.class
-        );
+                requestEntity
+        ));
     }
 
     public ResponseEntity<Object> getBooking(Long userId, Long bookingId) {
@@ -39,37 +43,39 @@ public class BookingClient {
         headers.set("X-Sharer-User-Id", userId.toString());
 
         HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
-        return restTemplate.exchange(
+        return serverProxy.exchange(
                 serverUrl + "/" + bookingId,
                 HttpMethod.GET,
-                requestEntity,
-                Object.class
+                requestEntity
         );
     }
 
-    public ResponseEntity<Object> getUserBookings(Long userId, String state) {
+    public ResponseEntity<Object> getUserBookings(Long userId, String state, int from, int size, String cursor) {
         HttpHeaders headers = new HttpHeaders();
         headers.set("X-Sharer-User-Id", userId.toString());
 
         HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
-        return restTemplate.exchange(
-                serverUrl + "?state=" + state,
+        return serverProxy.exchange(
+                serverUrl + "?state=" + state + pageParams(from, size, cursor),
                 HttpMethod.GET,
-                requestEntity,
-                Object.class
+                requestEntity
         );
     }
 
-    public ResponseEntity<Object> getOwnerBookings(Long ownerId, String state) {
+    public ResponseEntity<Object> getOwnerBookings(Long ownerId, String state, int from, int size, String cursor) {
         HttpHeaders headers = new HttpHeaders();
         headers.set("X-Sharer-User-Id", ownerId.toString());
 
         HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
-        return restTemplate.exchange(
-                serverUrl + "/owner?state=" + state,
+        return serverProxy.exchange(
+                serverUrl + "/owner?state=" + state + pageParams(from, size, cursor),
                 HttpMethod.GET,
-                requestEntity,
-                Object.class
+                requestEntity
         );
     }
+
+    private String pageParams(int from, int size, String cursor) {
+        String params = "&from=" + from + "&size=" + size;
+        return cursor != null ? params + "&cursor=" + cursor : params;
+    }
 }
\ No newline at end of file
@@ -1,15 +1,21 @@
 package ru.practicum.shareit.gateway.booking.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.gateway.booking.client.BookingClient;
 import ru.practicum.shareit.gateway.booking.dto.BookingDto;
+import ru.practicum.shareit.gateway.booking.dto.BookingState;
+import ru.practicum.shareit.gateway.booking.dto.UnknownStateException;
 
 @RestController
 @RequestMapping("/bookings")
 @RequiredArgsConstructor
+@Validated
 public class BookingController {
     private final BookingClient bookingClient;
 
@@ -38,19 +44,33 @@ public class BookingController {
         return bookingClient.getBooking(userId, bookingId);
     }
 
-    // Получение всех бронирований пользователя с фильтрацией по `state`.
+    // Получение бронирований пользователя с фильтрацией по `state`.
+    // Постранично: `from`/`size` или курсор из заголовка `X-Next-Cursor` предыдущего ответа.
     @GetMapping
     public ResponseEntity<Object> getUserBookings(
             @RequestHeader("X-Sharer-User-Id") Long userId,
-            @RequestParam(defaultValue = "ALL") String state) {
-        return bookingClient.getUserBookings(userId, state);
+            @RequestParam(defaultValue = "ALL") String state,
+            @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+            @Positive @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        return bookingClient.getUserBookings(userId, checkState(state), from, size, cursor);
     }
 
-    // Получение всех бронирований владельцем вещи с фильтрацией по `state`.
+    // Получение бронирований владельцем вещи с фильтрацией по `state`.
     @GetMapping("/owner")
     public ResponseEntity<Object> getOwnerBookings(
             @RequestHeader("X-Sharer-User-Id") Long ownerId,
-            @RequestParam(defaultValue = "ALL") String state) {
-        return bookingClient.getOwnerBookings(ownerId, state);
+            @RequestParam(defaultValue = "ALL") String state,
+            @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+            @Positive @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        return bookingClient.getOwnerBookings(ownerId, checkState(state), from, size, cursor);
+    }
+
+    // Неизвестное состояние отклоняется здесь с тем же сообщением, что и на сервере
+    private static String checkState(String state) {
+        return BookingState.from(state)
+                .map(BookingState::name)
+                .orElseThrow(() -> new UnknownStateException(state));
     }
 }
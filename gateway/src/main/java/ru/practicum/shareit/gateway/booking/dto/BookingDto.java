@@ -1,5 +1,7 @@
 package ru.practicum.shareit.gateway.booking.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
@@ -20,4 +22,11 @@ public class BookingDto {
     @NotNull(message = "Дата окончания бронирования не может быть пустой")
     @Future(message = "Дата окончания бронирования должна быть в будущем")
     private LocalDateTime end;
+
+    // Сервер отклоняет такие интервалы сам, но проверка здесь экономит вызов
+    @JsonIgnore
+    @AssertTrue(message = "Дата окончания бронирования должна быть позже даты начала")
+    public boolean isEndAfterStart() {
+        return start == null || end == null || end.isAfter(start);
+    }
 }
\ No newline at end of file
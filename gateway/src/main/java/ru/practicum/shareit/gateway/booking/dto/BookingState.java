@@ -0,0 +1,22 @@
+package ru.practicum.shareit.gateway.booking.dto;
+
+import java.util.Optional;
+
+// Допустимые значения параметра state; совпадают с BookingState сервера
+public enum BookingState {
+    ALL,
+    CURRENT,
+    PAST,
+    FUTURE,
+    WAITING,
+    REJECTED;
+
+    public static Optional<BookingState> from(String state) {
+        for (BookingState value : values()) {
+            if (value.name().equalsIgnoreCase(state)) {
+                return Optional.of(value);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.gateway.booking.dto;
+
+/**
+ * Параметр state не совпадает ни с одним значением BookingState; отдаётся клиенту как 400.
+ */
+public class UnknownStateException extends RuntimeException {
+
+    public UnknownStateException(String state) {
+        super("Unknown state: " + state);
+    }
+}
@@ -1,25 +1,32 @@
 package ru.practicum.shareit.gateway.error;
 
+// Тело ответа об ошибке в том же виде, что у ErrorHandler сервера
 public class ErrorResponse {
     private final String error;
-    private final String message;
+    private final Object message;
     private final int status;
+    private final long timestamp;
 
-    public ErrorResponse(String error, String message, int status) {
+    public ErrorResponse(String error, Object message, int status) {
         this.error = error;
         this.message = message;
         this.status = status;
+        this.timestamp = System.currentTimeMillis();
     }
 
     public String getError() {
         return error;
     }
 
-    public String getMessage() {
+    public Object getMessage() {
         return message;
     }
 
     public int getStatus() {
         return status;
     }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.gateway.cache;
+
+/**
+ * Ключ кэша ответов. Владелец в ответе GET /items/{id} видит бронирования, поэтому его ответ
+ * хранится под ключом с userId; ответ остальным пользователям одинаков и хранится под общим
+ * ключом без userId. Результат поиска от пользователя не зависит.
+ */
+public record CacheKey(Kind kind, Long itemId, String userId, String query) {
+
+    public enum Kind { ITEM, SEARCH }
+
+    public static CacheKey item(Long itemId, Long userId) {
+        return new CacheKey(Kind.ITEM, itemId, String.valueOf(userId), null);
+    }
+
+    public static CacheKey item(Long itemId) {
+        return new CacheKey(Kind.ITEM, itemId, null, null);
+    }
+
+    public static CacheKey search(String query) {
+        return new CacheKey(Kind.SEARCH, null, null, query);
+    }
+
+    public boolean isShared() {
+        return userId == null;
+    }
+}
@@ -0,0 +1,260 @@
+package ru.practicum.shareit.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.gateway.client.ServerProxy;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Кэш ответов сервера в гейтвее. Свежий ответ (моложе ttl) отдаётся без обращения к серверу;
+ * устаревший ответ с ETag перепроверяется запросом с If-None-Match, и при 304 снова считается свежим.
+ * Клиенту с совпадающим If-None-Match отдаётся 304. Метрики — cache.* с тегом cache=gateway-responses.
+ * Карточка вещи для всех, кроме владельца, хранится одной записью: владельца сервер сообщает
+ * заголовком X-Item-Owner, и гейтвей запоминает его по id вещи.
+ * Записи через гейтвей (ItemClient, BookingClient) только сдвигают счётчик записей — по вещи, поиску
+ * или карточкам владельцев — без обхода кэша: ответ, запрошенный до последней записи по его ключу,
+ * считается отсутствующим и вытесняется по размеру или сроку.
+ * Одновременные одинаковые запросы к серверу (по CacheKey) объединяются в один (SingleFlight),
+ * в том числе при выключенном кэше; число объединённых — счётчик gateway.requests.coalesced.
+ * Общий ответ читается целиком, поэтому при выключенном кэше объединение заменяет потоковую передачу;
+ * заголовки сервера клиент получает те же.
+ */
+@Component
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCache {
+
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    // Дольше любого запроса к серверу: метка записи не должна исчезнуть, пока идёт чтение
+    private static final Duration MIN_WRITE_MARK_RETENTION = Duration.ofMinutes(5);
+
+    private final ServerProxy serverProxy;
+    private final ResponseCacheProperties properties;
+    private final Cache<CacheKey, CachedResponse> cache;
+    private final Cache<Long, Long> itemOwners;
+    private final Cache<Long, Long> itemWrites;
+    private final AtomicLong writeSequence = new AtomicLong();
+    private final AtomicLong searchWrite = new AtomicLong();
+    private final AtomicLong ownerViewsWrite = new AtomicLong();
+    private final SingleFlight<Flight, ResponseEntity<byte[]>> singleFlight;
+    private final Clock clock;
+
+    public ResponseCache(ServerProxy serverProxy, ResponseCacheProperties properties, MeterRegistry meterRegistry,
+                         @Value("${shareit-gateway.coalescing.enabled:true}") boolean coalescing) {
+        this.serverProxy = serverProxy;
+        this.properties = properties;
+        this.singleFlight = coalescing
+                ? new SingleFlight<>(Counter.builder("gateway.requests.coalesced")
+                        .description("Запросы, дождавшиеся ответа на такой же одновременный запрос")
+                        .register(meterRegistry))
+                : null;
+        this.clock = Clock.systemUTC();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl().plus(properties.getMaxStale()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway-responses");
+        // Владелец вещи не меняется, поэтому запись живёт до вытеснения
+        this.itemOwners = Caffeine.newBuilder().maximumSize(properties.getMaxSize()).build();
+        // Метка записи переживает и любой ответ в кэше, иначе устаревшая карточка снова стала бы видна
+        Duration entryLifetime = properties.getTtl().plus(properties.getMaxStale());
+        this.itemWrites = Caffeine.newBuilder()
+                .expireAfterWrite(entryLifetime.compareTo(MIN_WRITE_MARK_RETENTION) > 0
+                        ? entryLifetime : MIN_WRITE_MARK_RETENTION)
+                .build();
+    }
+
+    // Карточка вещи: пока владелец неизвестен, ответ запрашивается под ключом пользователя
+    public ResponseEntity<Object> getItem(Long itemId, Long userId, String url, HttpHeaders headers) {
+        Long ownerId = itemOwners.getIfPresent(itemId);
+        CacheKey key = ownerId != null && !ownerId.equals(userId)
+                ? CacheKey.item(itemId)
+                : CacheKey.item(itemId, userId);
+        return get(key, url, headers);
+    }
+
+    public ResponseEntity<Object> get(CacheKey key, String url, HttpHeaders headers) {
+        if (!properties.isEnabled()) {
+            if (singleFlight == null) {
+                return serverProxy.exchange(url, HttpMethod.GET, new HttpEntity<>(headers));
+            }
+            ResponseEntity<byte[]> response = fetch(key, url, new HttpEntity<>(headers));
+            HttpHeaders responseHeaders = ServerProxy.forwardedHeaders(response.getHeaders());
+            responseHeaders.set(CACHE_STATUS_HEADER, "BYPASS");
+            String etag = response.getHeaders().getETag();
+            if (response.getStatusCode() == HttpStatus.OK && etag != null && etag.equals(clientIfNoneMatch())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(responseHeaders).build();
+            }
+            return ResponseEntity.status(response.getStatusCode()).headers(responseHeaders).body(response.getBody());
+        }
+
+        long started = writeSequence.get();
+        CachedResponse cached = current(key);
+        if (cached != null && cached.isFresh(clock.instant(), properties)) {
+            return respond(cached, "HIT");
+        }
+
+        HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.addAll(headers);
+        if (cached != null && cached.etag() != null) {
+            requestHeaders.setIfNoneMatch(cached.etag());
+        }
+        ResponseEntity<byte[]> response = fetch(key, url, new HttpEntity<>(requestHeaders));
+
+        if (cached != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            CachedResponse revalidated = cached.refreshed(clock.instant(), started);
+            cache.put(key, revalidated);
+            return respond(revalidated, "REVALIDATED");
+        }
+        if (response.getStatusCode() != HttpStatus.OK) {
+            return passThrough(response);
+        }
+
+        CachedResponse stored = new CachedResponse(response.getBody(), response.getHeaders().getContentType(),
+                response.getHeaders().getETag(), clock.instant(), started);
+        cache.put(storeKey(key, response), stored);
+        return respond(stored, "MISS");
+    }
+
+    // Изменение вещи: её карточки для всех пользователей и все результаты поиска
+    public <T> T updatingItem(Long itemId, Supplier<T> write) {
+        markItemWritten(itemId);
+        try {
+            return write.get();
+        } finally {
+            // Повторная метка отсекает и чтения, начатые во время записи
+            markItemWritten(itemId);
+        }
+    }
+
+    // Новые вещи: могли измениться любые результаты поиска
+    public <T> T addingItems(Supplier<T> write) {
+        searchWrite.set(writeSequence.incrementAndGet());
+        try {
+            return write.get();
+        } finally {
+            searchWrite.set(writeSequence.incrementAndGet());
+        }
+    }
+
+    // Решение по бронированию меняет last/nextBooking в карточках владельца; вещь гейтвей не знает
+    public <T> T updatingBookings(Supplier<T> write) {
+        ownerViewsWrite.set(writeSequence.incrementAndGet());
+        try {
+            return write.get();
+        } finally {
+            ownerViewsWrite.set(writeSequence.incrementAndGet());
+        }
+    }
+
+    private void markItemWritten(Long itemId) {
+        long sequence = writeSequence.incrementAndGet();
+        itemWrites.put(itemId, sequence);
+        searchWrite.set(sequence);
+    }
+
+    // Ответ годен, только если с начала его запроса к серверу не было записи по ключу.
+    // Метка ставится и до, и после записи, поэтому ответ, полученный во время записи, тоже отсекается
+    private CachedResponse current(CacheKey key) {
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached == null || cached.fetchedAt() >= lastWrite(key)) {
+            return cached;
+        }
+        cache.asMap().remove(key, cached);
+        return null;
+    }
+
+    private long lastWrite(CacheKey key) {
+        if (key.kind() == CacheKey.Kind.SEARCH) {
+            return searchWrite.get();
+        }
+        Long itemWrite = itemWrites.getIfPresent(key.itemId());
+        long ownerViews = key.isShared() ? 0 : ownerViewsWrite.get();
+        return Math.max(itemWrite != null ? itemWrite : 0, ownerViews);
+    }
+
+    // Ответ не владельцу хранится под общим ключом вещи
+    private CacheKey storeKey(CacheKey key, ResponseEntity<byte[]> response) {
+        String owner = response.getHeaders().getFirst(ServerProxy.ITEM_OWNER_HEADER);
+        if (key.kind() != CacheKey.Kind.ITEM || key.isShared() || owner == null) {
+            return key;
+        }
+        itemOwners.put(key.itemId(), Long.valueOf(owner));
+        return owner.equals(key.userId()) ? key : CacheKey.item(key.itemId());
+    }
+
+    private ResponseEntity<byte[]> fetch(CacheKey key, String url, HttpEntity<?> request) {
+        if (singleFlight == null) {
+            return serverProxy.exchangeForBytes(url, HttpMethod.GET, request);
+        }
+        // Перепроверка с If-None-Match и безусловный запрос дают разные ответы и не объединяются
+        Flight flight = new Flight(key, request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH));
+        return singleFlight.execute(flight, () -> serverProxy.exchangeForBytes(url, HttpMethod.GET, request));
+    }
+
+    private static ResponseEntity<Object> passThrough(ResponseEntity<byte[]> response) {
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(ServerProxy.forwardedHeaders(response.getHeaders()))
+                .body(response.getBody());
+    }
+
+    private ResponseEntity<Object> respond(CachedResponse cached, String cacheStatus) {
+        HttpHeaders headers = new HttpHeaders();
+        if (cached.contentType() != null) {
+            headers.setContentType(cached.contentType());
+        }
+        if (cached.etag() != null) {
+            headers.setETag(cached.etag());
+            if (cached.etag().equals(clientIfNoneMatch())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers)
+                        .header(CACHE_STATUS_HEADER, cacheStatus).build();
+            }
+        }
+        return ResponseEntity.ok().headers(headers).header(CACHE_STATUS_HEADER, cacheStatus).body(cached.body());
+    }
+
+    private static String clientIfNoneMatch() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            HttpServletRequest request = attributes.getRequest();
+            return request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        }
+        return null;
+    }
+
+    private record Flight(CacheKey key, String ifNoneMatch) {
+    }
+
+    // fetchedAt — значение счётчика записей в момент запроса к серверу
+    private record CachedResponse(byte[] body, MediaType contentType, String etag, Instant storedAt,
+                                  long fetchedAt) {
+
+        boolean isFresh(Instant now, ResponseCacheProperties properties) {
+            return storedAt.plus(properties.getTtl()).isAfter(now);
+        }
+
+        CachedResponse refreshed(Instant now, long revalidatedAt) {
+            return new CachedResponse(body, contentType, etag, now, revalidatedAt);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.gateway.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша ответов гейтвея для GET /items/{id} и /items/search.
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit-gateway.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = false;
+
+    // Сколько ответ отдаётся без обращения к серверу
+    private Duration ttl = Duration.ofSeconds(30);
+
+    // Сколько устаревший ответ с ETag хранится для перепроверки через If-None-Match
+    private Duration maxStale = Duration.ofMinutes(10);
+
+    // Максимум записей; при переполнении вытесняются редко используемые
+    private long maxSize = 10_000;
+}
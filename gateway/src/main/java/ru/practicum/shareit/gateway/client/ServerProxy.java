@@ -0,0 +1,121 @@
+package ru.practicum.shareit.gateway.client;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Set;
+
+/**
+ * Вызов shareit-server от имени клиентов гейтвея.
+ * В потоковом режиме (shareit-server.streaming=true) тело ответа сервера копируется в ответ
+ * гейтвея как есть, без разбора JSON в Map/List и повторной сериализации; метод при этом
+ * возвращает {@code null}, и Spring MVC считает запрос обработанным.
+ * Ответы 4xx/5xx в обоих режимах превращаются в исключения RestTemplate и обрабатываются
+ * GlobalExceptionHandler, как и раньше.
+ * If-None-Match клиента передаётся серверу в GET-запросах, так что ответ 304 доходит до клиента.
+ * Служебные заголовки сервера для гейтвея (X-Item-Owner) клиенту не передаются.
+ */
+@Component
+public class ServerProxy {
+
+    public static final String ITEM_OWNER_HEADER = "X-Item-Owner";
+
+    // Заголовки одного соединения (RFC 9110, 7.6.1): их контейнер сервлетов выставляет сам
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "te", "trailer", "upgrade",
+            "proxy-authenticate", "proxy-authorization");
+
+    private final RestTemplate restTemplate;
+    private final boolean streaming;
+
+    public ServerProxy(RestTemplate restTemplate, @Value("${shareit-server.streaming:false}") boolean streaming) {
+        this.restTemplate = restTemplate;
+        this.streaming = streaming;
+    }
+
+    public ResponseEntity<Object> exchange(String url, HttpMethod method, HttpEntity<?> entity) {
+        HttpEntity<?> request = method == HttpMethod.GET ? withIfNoneMatch(entity) : entity;
+        HttpServletResponse servletResponse = streaming ? currentResponse() : null;
+        if (servletResponse == null) {
+            return withoutItemOwner(restTemplate.exchange(url, method, request, Object.class));
+        }
+        return restTemplate.execute(url, method, restTemplate.httpEntityCallback(request), response -> {
+            servletResponse.setStatus(response.getStatusCode().value());
+            copyHeaders(response.getHeaders(), servletResponse);
+            StreamUtils.copy(response.getBody(), servletResponse.getOutputStream());
+            servletResponse.flushBuffer();
+            return null;
+        });
+    }
+
+    // Тело нужно самому гейтвею (кэш ответов): читается целиком в байты, без разбора JSON
+    public ResponseEntity<byte[]> exchangeForBytes(String url, HttpMethod method, HttpEntity<?> request) {
+        return restTemplate.exchange(url, method, request, byte[].class);
+    }
+
+    // Вызов, ответ на который клиенту гейтвея не передаётся: тело не читается
+    public void send(String url, HttpMethod method, HttpEntity<?> request) {
+        restTemplate.execute(url, method, restTemplate.httpEntityCallback(request), null);
+    }
+
+    // Заголовки ответа сервера, которые гейтвей передаёт клиенту вместе с уже прочитанным телом
+    public static HttpHeaders forwardedHeaders(HttpHeaders headers) {
+        HttpHeaders forwarded = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            if (isForwarded(name) && !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                forwarded.addAll(name, values);
+            }
+        });
+        return forwarded;
+    }
+
+    private static void copyHeaders(HttpHeaders headers, HttpServletResponse servletResponse) {
+        headers.forEach((name, values) -> {
+            if (isForwarded(name)) {
+                values.forEach(value -> servletResponse.addHeader(name, value));
+            }
+        });
+    }
+
+    private static boolean isForwarded(String name) {
+        return !HOP_BY_HOP_HEADERS.contains(name.toLowerCase()) && !ITEM_OWNER_HEADER.equalsIgnoreCase(name);
+    }
+
+    private static ResponseEntity<Object> withoutItemOwner(ResponseEntity<Object> response) {
+        if (!response.getHeaders().containsKey(ITEM_OWNER_HEADER)) {
+            return response;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(response.getHeaders());
+        headers.remove(ITEM_OWNER_HEADER);
+        return new ResponseEntity<>(response.getBody(), headers, response.getStatusCode());
+    }
+
+    private static HttpEntity<?> withIfNoneMatch(HttpEntity<?> entity) {
+        String ifNoneMatch = RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getRequest().getHeader(HttpHeaders.IF_NONE_MATCH)
+                : null;
+        if (ifNoneMatch == null || entity.getHeaders().containsKey(HttpHeaders.IF_NONE_MATCH)) {
+            return entity;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(entity.getHeaders());
+        headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        return new HttpEntity<>(entity.getBody(), headers);
+    }
+
+    private static HttpServletResponse currentResponse() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getResponse()
+                : null;
+    }
+}
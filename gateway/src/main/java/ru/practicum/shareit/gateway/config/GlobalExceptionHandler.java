@@ -1,17 +1,37 @@
 package ru.practicum.shareit.gateway.config;
 
+import jakarta.validation.ConstraintViolationException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.shareit.gateway.booking.dto.UnknownStateException;
 import ru.practicum.shareit.gateway.error.ErrorResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.shareit.gateway.resilience.UpstreamUnavailableException;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+@Slf4j
 @ControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    // Поле ошибки проверки BookingDto.isEndAfterStart
+    private static final String BOOKING_WINDOW_FIELD = "endAfterStart";
+
+    private static final String UPSTREAM_UNAVAILABLE = "Server is temporarily unavailable, retry later";
+
+    private final ShortCircuitCounter shortCircuitCounter;
+
     @ExceptionHandler(HttpClientErrorException.class)
     public ResponseEntity<ErrorResponse> handleHttpClientError(HttpClientErrorException e) {
         return buildErrorResponse(e.getStatusCode(), e.getResponseBodyAsString());
@@ -22,7 +42,39 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(e.getStatusCode(), e.getResponseBodyAsString());
     }
 
-    private ResponseEntity<ErrorResponse> buildErrorResponse(HttpStatusCode statusCode, String message) {
+    // Гейтвей отклонил вызов сам (автомат, bulkhead, предел) или сервер не ответил вовремя.
+    // Текст исключения с адресами и причинами сбоя остаётся в логе, клиент получает общее сообщение
+    @ExceptionHandler({UpstreamUnavailableException.class, ResourceAccessException.class})
+    public ResponseEntity<ErrorResponse> handleUpstreamUnavailable(RuntimeException e) {
+        log.warn("Upstream call failed: {}", e.getMessage());
+        return buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, UPSTREAM_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ErrorResponse> handleConstraintViolation(ConstraintViolationException e) {
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    // Сохранённым вызовом считается только запрос, который раньше дошёл бы до сервера:
+    // тело, в котором единственная ошибка — окончание бронирования не позже начала
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ErrorResponse> handleValidationException(MethodArgumentNotValidException e) {
+        Map<String, String> errors = new HashMap<>();
+        e.getBindingResult().getFieldErrors().forEach(error ->
+                errors.put(error.getField(), error.getDefaultMessage()));
+        if (errors.keySet().equals(Set.of(BOOKING_WINDOW_FIELD))) {
+            shortCircuitCounter.increment("invalid_booking_window");
+        }
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, errors);
+    }
+
+    @ExceptionHandler(UnknownStateException.class)
+    public ResponseEntity<ErrorResponse> handleUnknownState(UnknownStateException e) {
+        shortCircuitCounter.increment("unknown_state");
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    private ResponseEntity<ErrorResponse> buildErrorResponse(HttpStatusCode statusCode, Object message) {
         HttpStatus status = HttpStatus.valueOf(statusCode.value());
         ErrorResponse errorResponse = new ErrorResponse(
                 status.getReasonPhrase(),
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки пула HTTP-соединений гейтвея к shareit-server.
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit-server.http-client")
+public class HttpClientProperties {
+
+    public enum Protocol { HTTP1, H2C }
+
+    // HTTP1 — пул соединений Apache HttpClient; H2C — HTTP/2 без TLS через JDK HttpClient
+    // (настройки пула к нему не относятся, используются только таймауты)
+    private Protocol protocol = Protocol.HTTP1;
+
+    // Всего соединений в пуле
+    private int maxTotal = 200;
+
+    // Соединений к одному адресу сервера
+    private int maxPerRoute = 200;
+
+    // Установка TCP-соединения
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    // Ожидание ответа сервера (таймаут чтения сокета)
+    private Duration responseTimeout = Duration.ofSeconds(30);
+
+    // Ожидание свободного соединения из пула; при исчерпании пула запрос завершается ошибкой, а не висит
+    private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+
+    // Простаивающие дольше этого соединения закрываются фоновым потоком
+    private Duration idleEviction = Duration.ofSeconds(30);
+
+    // Сколько держать соединение, если сервер не прислал заголовок Keep-Alive
+    private Duration keepAlive = Duration.ofSeconds(30);
+
+    // Максимальный срок жизни соединения независимо от активности
+    private Duration timeToLive = Duration.ofMinutes(5);
+
+    // Соединение, простоявшее дольше, проверяется перед выдачей из пула
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+}
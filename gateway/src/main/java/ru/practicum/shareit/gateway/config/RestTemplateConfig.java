@@ -1,31 +1,122 @@
 package ru.practicum.shareit.gateway.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
-import org.springframework.boot.web.client.RestTemplateCustomizer;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
+import ru.practicum.shareit.gateway.resilience.ResilienceProperties;
+import ru.practicum.shareit.gateway.resilience.UpstreamGuard;
+import ru.practicum.shareit.gateway.upstream.LoadBalancingInterceptor;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
 
 @Configuration
+@EnableConfigurationProperties({HttpClientProperties.class, ResilienceProperties.class})
 public class RestTemplateConfig {
 
+    private static final String PROTOCOL_PROPERTY = "shareit-server.http-client.protocol";
+
+    @Bean
+    public RestTemplate restTemplate(ObjectProvider<CloseableHttpClient> httpClient, HttpClientProperties properties,
+                                     ObjectProvider<UpstreamGuard> upstreamGuard,
+                                     LoadBalancingInterceptor loadBalancing) {
+        boolean h2c = properties.getProtocol() == HttpClientProperties.Protocol.H2C;
+        RestTemplate restTemplate = new RestTemplate(h2c
+                ? h2cRequestFactory(properties)
+                : new HttpComponentsClientHttpRequestFactory(httpClient.getObject()));
+        // Сначала защита группы эндпоинтов, затем выбор экземпляра сервера
+        upstreamGuard.ifAvailable(restTemplate.getInterceptors()::add);
+        if (h2c) {
+            restTemplate.getInterceptors().add(new GzipDecodingInterceptor());
+        }
+        restTemplate.getInterceptors().add(loadBalancing);
+        return restTemplate;
+    }
+
+    // JDK HttpClient переходит на HTTP/2 через Upgrade: h2c и дальше держит по одному соединению
+    // на экземпляр сервера, запросы идут в нём параллельными потоками
+    private static JdkClientHttpRequestFactory h2cRequestFactory(HttpClientProperties properties) {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(client);
+        requestFactory.setReadTimeout(properties.getResponseTimeout());
+        return requestFactory;
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient()));
+    @ConditionalOnProperty(name = "shareit-server.resilience.enabled", havingValue = "true", matchIfMissing = true)
+    public UpstreamGuard upstreamGuard(ResilienceProperties properties, MeterRegistry meterRegistry) {
+        return new UpstreamGuard(properties, meterRegistry);
     }
 
+    // Размер пула ограничивает число одновременных вызовов сервера: на виртуальных потоках
+    // запросов в работе может быть намного больше, чем потоков Tomcat.
+    // Пул, клиент и его метрики создаются только для http1: h2c их не использует
     @Bean
-    public CloseableHttpClient httpClient() {
+    @ConditionalOnProperty(name = PROTOCOL_PROPERTY, havingValue = "http1", matchIfMissing = true)
+    public PoolingHttpClientConnectionManager connectionManager(HttpClientProperties properties) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxTotal())
+                .setMaxConnPerRoute(properties.getMaxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(timeout(properties.getConnectTimeout()))
+                        .setSocketTimeout(timeout(properties.getResponseTimeout()))
+                        .setTimeToLive(timeValue(properties.getTimeToLive()))
+                        .setValidateAfterInactivity(timeValue(properties.getValidateAfterInactivity()))
+                        .build())
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = PROTOCOL_PROPERTY, havingValue = "http1", matchIfMissing = true)
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager,
+                                          HttpClientProperties properties) {
         return HttpClients.custom()
-                .setConnectionManager(new PoolingHttpClientConnectionManager())
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(timeout(properties.getConnectionRequestTimeout()))
+                        .setResponseTimeout(timeout(properties.getResponseTimeout()))
+                        // Используется стратегией keep-alive, если сервер не указал срок сам
+                        .setConnectionKeepAlive(timeValue(properties.getKeepAlive()))
+                        .build())
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                .evictExpiredConnections()
+                .evictIdleConnections(timeValue(properties.getIdleEviction()))
                 .build();
     }
 
+    // Метрики пула в /actuator/metrics: httpcomponents.httpclient.pool.total.connections (leased/available),
+    // httpcomponents.httpclient.pool.total.pending, httpcomponents.httpclient.pool.total.max
     @Bean
-    public RestTemplateCustomizer restTemplateCustomizer() {
-        return restTemplate -> restTemplate.setRequestFactory(new HttpComponentsClientHttpRequestFactory(httpClient()));
+    @ConditionalOnProperty(name = PROTOCOL_PROPERTY, havingValue = "http1", matchIfMissing = true)
+    public MeterBinder connectionPoolMetrics(PoolingHttpClientConnectionManager connectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "shareit-server");
+    }
+
+    private static Timeout timeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
+    }
+
+    private static TimeValue timeValue(Duration duration) {
+        return TimeValue.ofMilliseconds(duration.toMillis());
     }
-}
\ No newline at end of file
+}
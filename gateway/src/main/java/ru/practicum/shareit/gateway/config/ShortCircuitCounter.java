@@ -0,0 +1,27 @@
+package ru.practicum.shareit.gateway.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Счётчик запросов, на которые гейтвей ответил сам, не обращаясь к серверу:
+ * gateway.upstream.calls.saved{reason}.
+ */
+@Component
+public class ShortCircuitCounter {
+
+    private final MeterRegistry meterRegistry;
+
+    public ShortCircuitCounter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void increment(String reason) {
+        Counter.builder("gateway.upstream.calls.saved")
+                .description("Запросы, отклонённые или обработанные гейтвеем без вызова сервера")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+}
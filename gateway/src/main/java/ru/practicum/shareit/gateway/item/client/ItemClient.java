@@ -1,17 +1,27 @@
 package ru.practicum.shareit.gateway.item.client;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import ru.practicum.shareit.gateway.batch.BatchImportProxy;
+import ru.practicum.shareit.gateway.batch.BatchImportResult;
+import ru.practicum.shareit.gateway.cache.CacheKey;
+import ru.practicum.shareit.gateway.cache.ResponseCache;
+import ru.practicum.shareit.gateway.client.ServerProxy;
 import ru.practicum.shareit.gateway.item.dto.CommentDto;
 import ru.practicum.shareit.gateway.item.dto.ItemDto;
 
+import java.io.InputStream;
+
 @Service
 @RequiredArgsConstructor
 public class ItemClient {
-    private final RestTemplate restTemplate;
-    private final String serverUrl = "http://shareit-server:9090/items"; // URL `shareIt-server`
+    private final ServerProxy serverProxy;
+    private final ResponseCache responseCache;
+    private final BatchImportProxy batchImportProxy;
+    @Value("${shareit-server.url}/items")
+    private String serverUrl;
 
     public ResponseEntity<Object> addItem(Long ownerId, ItemDto itemDto) {
         HttpHeaders headers = new HttpHeaders();
@@ -19,7 +29,18 @@ public class ItemClient {
         headers.setContentType(MediaType.APPLICATION_JSON);
 
         HttpEntity<ItemDto> requestEntity = new HttpEntity<>(itemDto, headers);
-        return restTemplate.exchange(serverUrl, HttpMethod.POST, requestEntity, Object.class);
+        return responseCache.addingItems(() -> serverProxy.exchange(serverUrl, HttpMethod.POST, requestEntity));
+    }
+
+    public ResponseEntity<BatchImportResult> importItems(Long ownerId, String importKey, InputStream body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", ownerId.toString());
+        if (importKey != null) {
+            headers.set(BatchImportProxy.IMPORT_KEY_HEADER, importKey);
+        }
+
+        return responseCache.addingItems(() -> batchImportProxy.forward(serverUrl + "/batch", headers, body,
+                ItemDto.class));
     }
 
     public ResponseEntity<Object> updateItem(Long ownerId, Long id, ItemDto itemDto) {
@@ -28,15 +49,15 @@ public class ItemClient {
         headers.setContentType(MediaType.APPLICATION_JSON);
 
         HttpEntity<ItemDto> requestEntity = new HttpEntity<>(itemDto, headers);
-        return restTemplate.exchange(serverUrl + "/" + id, HttpMethod.PATCH, requestEntity, Object.class);
+        return responseCache.updatingItem(id,
+                () -> serverProxy.exchange(serverUrl + "/" + id, HttpMethod.PATCH, requestEntity));
     }
 
     public ResponseEntity<Object> getItem(Long id, Long userId) {
         HttpHeaders headers = new HttpHeaders();
         headers.set("X-Sharer-User-Id", userId.toString());
 
-        HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
-        return restTemplate.exchange(serverUrl + "/" + id, HttpMethod.GET, requestEntity, Object.class);
+        return responseCache.getItem(id, userId, serverUrl + "/" + id, headers);
     }
 
     public ResponseEntity<Object> getUserItems(Long ownerId) {
@@ -44,11 +65,12 @@ public class ItemClient {
         headers.set("X-Sharer-User-Id", ownerId.toString());
 
         HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
-        return restTemplate.exchange(serverUrl, HttpMethod.GET, requestEntity, Object.class);
+        return serverProxy.exchange(serverUrl, HttpMethod.GET, requestEntity);
     }
 
-    public ResponseEntity<Object> searchItems(String text) {
-        return restTemplate.getForEntity(serverUrl + "/search?text=" + text, Object.class);
+    public ResponseEntity<Object> searchItems(String text, int from, int size) {
+        String query = "text=" + text + "&from=" + from + "&size=" + size;
+        return responseCache.get(CacheKey.search(query), serverUrl + "/search?" + query, HttpHeaders.EMPTY);
     }
 
     public ResponseEntity<Object> addComment(Long userId, Long itemId, CommentDto commentDto) {
@@ -57,6 +79,7 @@ public class ItemClient {
         headers.setContentType(MediaType.APPLICATION_JSON);
 
         HttpEntity<CommentDto> requestEntity = new HttpEntity<>(commentDto, headers);
-        return restTemplate.exchange(serverUrl + "/" + itemId + "/comment", HttpMethod.POST, requestEntity, Object.class);
+        return responseCache.updatingItem(itemId, () -> serverProxy.exchange(serverUrl + "/" + itemId + "/comment",
+                HttpMethod.POST, requestEntity));
     }
 }
@@ -1,18 +1,30 @@
 package ru.practicum.shareit.gateway.item.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.gateway.batch.BatchImportProxy;
+import ru.practicum.shareit.gateway.batch.BatchImportResult;
+import ru.practicum.shareit.gateway.config.ShortCircuitCounter;
 import ru.practicum.shareit.gateway.item.client.ItemClient;
 import ru.practicum.shareit.gateway.item.dto.CommentDto;
 import ru.practicum.shareit.gateway.item.dto.ItemDto;
 
+import java.io.InputStream;
+import java.util.List;
+
 @RestController
 @RequestMapping("/items")
 @RequiredArgsConstructor
+@Validated
 public class ItemController {
     private final ItemClient itemClient;
+    private final ShortCircuitCounter shortCircuitCounter;
 
     // Добавить новую вещь.
     // Если указан requestId, вещь будет связана с запросом.
@@ -22,6 +34,17 @@ public class ItemController {
         return itemClient.addItem(ownerId, itemDto);
     }
 
+    // Пакетное добавление вещей: JSON-массив или NDJSON.
+    // Строки проверяются по одной, ошибки возвращаются с номерами строк, остальные вещи сохраняются.
+    // С X-Import-Key импорт можно повторить после сбоя без дублей
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchImportResult> importItems(
+            @RequestHeader("X-Sharer-User-Id") Long ownerId,
+            @RequestHeader(name = BatchImportProxy.IMPORT_KEY_HEADER, required = false) String importKey,
+            InputStream body) {
+        return itemClient.importItems(ownerId, importKey, body);
+    }
+
     // Обновить существующую вещь.
     @PatchMapping("/{itemId}")
     public ResponseEntity<Object> updateItem(@RequestHeader("X-Sharer-User-Id") Long ownerId,
@@ -44,10 +67,16 @@ public class ItemController {
         return itemClient.getUserItems(ownerId);
     }
 
-    // Поиск вещей по названию и описанию.
+    // Поиск вещей по названию и описанию. Пустой запрос ничего не находит и на сервер не передаётся.
     @GetMapping("/search")
-    public ResponseEntity<Object> searchItems(@RequestParam String text) {
-        return itemClient.searchItems(text);
+    public ResponseEntity<Object> searchItems(@RequestParam String text,
+                                              @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                                              @Positive @RequestParam(defaultValue = "10") int size) {
+        if (text.isBlank()) {
+            shortCircuitCounter.increment("blank_search");
+            return ResponseEntity.ok(List.of());
+        }
+        return itemClient.searchItems(text, from, size);
     }
 
     // Оставить комментарий к вещи.
@@ -1,16 +1,18 @@
 package ru.practicum.shareit.gateway.request.client;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import ru.practicum.shareit.gateway.client.ServerProxy;
 import ru.practicum.shareit.gateway.request.dto.ItemRequestDto;
 
 @Service
 @RequiredArgsConstructor
 public class ItemRequestClient {
-    private final RestTemplate restTemplate;
-    private final String serverUrl = "http://shareit-server:9090/requests"; // URL `shareIt-server`
+    private final ServerProxy serverProxy;
+    @Value("${shareit-server.url}/requests")
+    private String serverUrl;
 
     public ResponseEntity<Object> createRequest(Long userId, ItemRequestDto itemRequestDto) {
         HttpHeaders headers = new HttpHeaders();
@@ -18,7 +20,7 @@ public class ItemRequestClient {
         headers.setContentType(MediaType.APPLICATION_JSON);
 
         HttpEntity<ItemRequestDto> requestEntity = new HttpEntity<>(itemRequestDto, headers);
-        return restTemplate.exchange(serverUrl, HttpMethod.POST, requestEntity, Object.class);
+        return serverProxy.exchange(serverUrl, HttpMethod.POST, requestEntity);
     }
 
     public ResponseEntity<Object> getUserRequests(Long userId) {
@@ -26,15 +28,16 @@ public class ItemRequestClient {
         headers.set("X-Sharer-User-Id", userId.toString());
 
         HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
-        return restTemplate.exchange(serverUrl, HttpMethod.GET, requestEntity, Object.class);
+        return serverProxy.exchange(serverUrl, HttpMethod.GET, requestEntity);
     }
 
-    public ResponseEntity<Object> getAllRequests(Long userId) {
+    public ResponseEntity<Object> getAllRequests(Long userId, int from, int size, String cursor) {
         HttpHeaders headers = new HttpHeaders();
         headers.set("X-Sharer-User-Id", userId.toString());
 
+        String params = "?from=" + from + "&size=" + size + (cursor != null ? "&cursor=" + cursor : "");
         HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
-        return restTemplate.exchange(serverUrl + "/all", HttpMethod.GET, requestEntity, Object.class);
+        return serverProxy.exchange(serverUrl + "/all" + params, HttpMethod.GET, requestEntity);
     }
 
     public ResponseEntity<Object> getRequestById(Long userId, Long requestId) {
@@ -42,6 +45,6 @@ public class ItemRequestClient {
         headers.set("X-Sharer-User-Id", userId.toString());
 
         HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
-        return restTemplate.exchange(serverUrl + "/" + requestId, HttpMethod.GET, requestEntity, Object.class);
+        return serverProxy.exchange(serverUrl + "/" + requestId, HttpMethod.GET, requestEntity);
     }
 }
@@ -1,8 +1,11 @@
 package ru.practicum.shareit.gateway.request.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.gateway.request.client.ItemRequestClient;
 import ru.practicum.shareit.gateway.request.dto.ItemRequestDto;
@@ -10,6 +13,7 @@ import ru.practicum.shareit.gateway.request.dto.ItemRequestDto;
 @RestController
 @RequestMapping("/requests")
 @RequiredArgsConstructor
+@Validated
 public class ItemRequestController {
     private final ItemRequestClient itemRequestClient;
 
@@ -28,8 +32,11 @@ public class ItemRequestController {
 
     // Получение всех запросов.
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        return itemRequestClient.getAllRequests(userId);
+    public ResponseEntity<Object> getAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                 @PositiveOrZero @RequestParam(defaultValue = "0") int from,
+                                                 @Positive @RequestParam(defaultValue = "10") int size,
+                                                 @RequestParam(required = false) String cursor) {
+        return itemRequestClient.getAllRequests(userId, from, size, cursor);
     }
 
     // Получение запроса по ID.
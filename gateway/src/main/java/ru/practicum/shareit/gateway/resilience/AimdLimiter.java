@@ -0,0 +1,43 @@
+package ru.practicum.shareit.gateway.resilience;
+
+/**
+ * Адаптивный предел одновременных вызовов сервера (AIMD): пока ответы быстрые и предел
+ * используется хотя бы наполовину, он растёт на единицу; после ошибки или медленного ответа
+ * умножается на backoffRatio. Вызовы сверх предела отклоняются сразу.
+ */
+public class AimdLimiter {
+
+    private final ResilienceProperties.Limiter settings;
+    private double limit;
+    private int inFlight;
+
+    public AimdLimiter(ResilienceProperties.Limiter settings) {
+        this.settings = settings;
+        this.limit = settings.getInitialLimit();
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    public synchronized void release(long latencyNanos, boolean failed) {
+        int used = inFlight--;
+        if (failed || latencyNanos > settings.getLatencyThreshold().toNanos()) {
+            limit = Math.max(settings.getMinLimit(), limit * settings.getBackoffRatio());
+        } else if (used * 2 >= limit) {
+            limit = Math.min(settings.getMaxLimit(), limit + 1);
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.gateway.resilience;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Автомат отключения по доле ошибок в последних вызовах.
+ * CLOSED — вызовы идут; OPEN — отклоняются сразу, пока не истечёт openDuration;
+ * HALF_OPEN — пропускается несколько пробных вызовов: все успешны — CLOSED, любая ошибка — снова OPEN.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final ResilienceProperties.CircuitBreaker settings;
+    private final Clock clock;
+
+    // Кольцевое окно исходов последних вызовов
+    private final boolean[] window;
+    private int position;
+    private int calls;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private Instant openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(ResilienceProperties.CircuitBreaker settings, Clock clock) {
+        this.settings = settings;
+        this.clock = clock;
+        this.window = new boolean[settings.getWindowSize()];
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (Duration.between(openedAt, clock.instant()).compareTo(settings.getOpenDuration()) < 0) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenPermits = settings.getHalfOpenCalls();
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    // Разрешение не использовано (вызов отклонён по другой причине): исход не записывается
+    public synchronized void release() {
+        if (state == State.HALF_OPEN && halfOpenPermits < settings.getHalfOpenCalls()) {
+            halfOpenPermits++;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses == settings.getHalfOpenCalls()) {
+                close();
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && calls >= settings.getMinimumCalls()
+                && failures * 100 >= settings.getFailureRateThreshold() * calls) {
+            open();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (calls == window.length) {
+            if (window[position]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        window[position] = failure;
+        if (failure) {
+            failures++;
+        }
+        position = (position + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = clock.instant();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        calls = 0;
+        failures = 0;
+        position = 0;
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.gateway.resilience;
+
+import java.net.URI;
+
+/**
+ * Группа эндпоинтов сервера; у каждой свой bulkhead и автомат отключения,
+ * чтобы медленные бронирования не занимали места, нужные, например, пользователям.
+ */
+public enum EndpointFamily {
+    BOOKINGS, ITEMS, USERS, REQUESTS, OTHER;
+
+    public static EndpointFamily of(URI uri) {
+        String path = uri.getPath();
+        int end = path.indexOf('/', 1);
+        String root = end < 0 ? path.substring(1) : path.substring(1, end);
+        return switch (root) {
+            case "bookings" -> BOOKINGS;
+            case "items" -> ITEMS;
+            case "users" -> USERS;
+            case "requests" -> REQUESTS;
+            default -> OTHER;
+        };
+    }
+
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
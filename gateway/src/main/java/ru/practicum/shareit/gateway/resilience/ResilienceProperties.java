@@ -0,0 +1,68 @@
+package ru.practicum.shareit.gateway.resilience;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Защита гейтвея от медленного или недоступного сервера: изоляция групп эндпоинтов,
+ * автомат отключения и адаптивный предел одновременных вызовов.
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit-server.resilience")
+public class ResilienceProperties {
+
+    private boolean enabled = true;
+
+    private Bulkhead bulkhead = new Bulkhead();
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    private Limiter limiter = new Limiter();
+
+    @Data
+    public static class Bulkhead {
+
+        // Одновременных вызовов сервера на группу (bookings, items, users, requests)
+        private int maxConcurrent = 100;
+
+        // Сколько ждать освобождения места, прежде чем ответить 503
+        private Duration maxWait = Duration.ofMillis(20);
+    }
+
+    @Data
+    public static class CircuitBreaker {
+
+        // Сколько последних вызовов учитывается в доле ошибок
+        private int windowSize = 50;
+
+        // Меньше вызовов в окне — автомат не срабатывает
+        private int minimumCalls = 20;
+
+        // Доля ошибок (5xx, таймауты, отказ соединения), при которой автомат размыкается, %
+        private int failureRateThreshold = 50;
+
+        // Сколько автомат остаётся разомкнутым до пробных вызовов
+        private Duration openDuration = Duration.ofSeconds(10);
+
+        // Пробных вызовов в полуоткрытом состоянии
+        private int halfOpenCalls = 5;
+    }
+
+    @Data
+    public static class Limiter {
+
+        private int initialLimit = 100;
+
+        private int minLimit = 10;
+
+        private int maxLimit = 500;
+
+        // Во сколько раз уменьшается предел после ошибки или медленного ответа
+        private double backoffRatio = 0.9;
+
+        // Ответ дольше этого считается признаком перегрузки сервера
+        private Duration latencyThreshold = Duration.ofSeconds(2);
+    }
+}
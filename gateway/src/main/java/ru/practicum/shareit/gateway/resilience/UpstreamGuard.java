@@ -0,0 +1,206 @@
+package ru.practicum.shareit.gateway.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Clock;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Перехватчик RestTemplate перед каждым вызовом сервера: автомат отключения группы,
+ * общий адаптивный предел и bulkhead группы. Если что-то из них не пускает вызов,
+ * сразу бросается UpstreamUnavailableException (503), а не ждёт сервер.
+ * Ошибкой для автомата и предела считаются 5xx и сбои соединения (таймауты, отказ);
+ * 4xx — нормальные ответы; ошибка чтения тела тоже считается сбоем.
+ * Разрешения держатся до закрытия ответа, то есть и пока тело передаётся клиенту в потоковом режиме;
+ * задержка для предела — время до заголовков ответа.
+ * Метрики: gateway.upstream.rejected{family, reason}, gateway.upstream.circuit.state{family}
+ * (0 — замкнут, 1 — разомкнут, 2 — полуоткрыт), gateway.upstream.limit, gateway.upstream.inflight.
+ */
+public class UpstreamGuard implements ClientHttpRequestInterceptor {
+
+    private final ResilienceProperties properties;
+    private final AimdLimiter limiter;
+    private final Map<EndpointFamily, Semaphore> bulkheads = new EnumMap<>(EndpointFamily.class);
+    private final Map<EndpointFamily, CircuitBreaker> breakers = new EnumMap<>(EndpointFamily.class);
+    private final MeterRegistry meterRegistry;
+
+    public UpstreamGuard(ResilienceProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.limiter = new AimdLimiter(properties.getLimiter());
+        for (EndpointFamily family : EndpointFamily.values()) {
+            bulkheads.put(family, new Semaphore(properties.getBulkhead().getMaxConcurrent()));
+            CircuitBreaker breaker = new CircuitBreaker(properties.getCircuitBreaker(), Clock.systemUTC());
+            breakers.put(family, breaker);
+            Gauge.builder("gateway.upstream.circuit.state", breaker, b -> b.getState().ordinal())
+                    .tag("family", family.tag())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("gateway.upstream.limit", limiter, AimdLimiter::getLimit).register(meterRegistry);
+        Gauge.builder("gateway.upstream.inflight", limiter, AimdLimiter::getInFlight).register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        EndpointFamily family = EndpointFamily.of(request.getURI());
+        CircuitBreaker breaker = breakers.get(family);
+        if (!breaker.tryAcquire()) {
+            throw reject(family, "circuit_open");
+        }
+        Semaphore bulkhead = bulkheads.get(family);
+        if (!acquire(bulkhead)) {
+            breaker.release();
+            throw reject(family, "bulkhead");
+        }
+        if (!limiter.tryAcquire()) {
+            bulkhead.release();
+            breaker.release();
+            throw reject(family, "limit");
+        }
+
+        long started = System.nanoTime();
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException | RuntimeException e) {
+            release(breaker, bulkhead, System.nanoTime() - started, true);
+            throw e;
+        }
+        long latency = System.nanoTime() - started;
+        return new GuardedResponse(response, failed -> release(breaker, bulkhead, latency, failed));
+    }
+
+    private void release(CircuitBreaker breaker, Semaphore bulkhead, long latencyNanos, boolean failed) {
+        limiter.release(latencyNanos, failed);
+        bulkhead.release();
+        if (failed) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess();
+        }
+    }
+
+    private boolean acquire(Semaphore bulkhead) {
+        try {
+            return bulkhead.tryAcquire(properties.getBulkhead().getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private UpstreamUnavailableException reject(EndpointFamily family, String reason) {
+        Counter.builder("gateway.upstream.rejected")
+                .tag("family", family.tag())
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        return new UpstreamUnavailableException(family, reason);
+    }
+
+    private interface Release {
+        void run(boolean failed);
+    }
+
+    // Ответ, закрытие которого возвращает разрешения; RestTemplate закрывает ответ после чтения тела
+    private static class GuardedResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final Release release;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean bodyFailed;
+        private InputStream body;
+
+        GuardedResponse(ClientHttpResponse delegate, Release release) {
+            this.delegate = delegate;
+            this.release = release;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FailureTrackingStream(delegate.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            boolean failed = bodyFailed || isServerError();
+            try {
+                delegate.close();
+            } finally {
+                release.run(failed);
+            }
+        }
+
+        private boolean isServerError() {
+            try {
+                return delegate.getStatusCode().is5xxServerError();
+            } catch (IOException e) {
+                return true;
+            }
+        }
+
+        private class FailureTrackingStream extends FilterInputStream {
+
+            FailureTrackingStream(InputStream in) {
+                super(in);
+            }
+
+            @Override
+            public int read() throws IOException {
+                try {
+                    return super.read();
+                } catch (IOException e) {
+                    bodyFailed = true;
+                    throw e;
+                }
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                try {
+                    return super.read(b, off, len);
+                } catch (IOException e) {
+                    bodyFailed = true;
+                    throw e;
+                }
+            }
+        }
+    }
+}
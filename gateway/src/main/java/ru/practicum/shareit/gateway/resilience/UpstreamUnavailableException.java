@@ -0,0 +1,11 @@
+package ru.practicum.shareit.gateway.resilience;
+
+/**
+ * Вызов сервера отклонён гейтвеем без обращения к серверу; отдаётся клиенту как 503.
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    public UpstreamUnavailableException(EndpointFamily family, String reason) {
+        super("Server is unavailable for " + family.tag() + " (" + reason + "), retry later");
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.gateway.upstream;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Выбор экземпляра для очередного запроса из доступных (список не пуст).
+ */
+public enum Balancer {
+
+    ROUND_ROBIN {
+        private final AtomicInteger next = new AtomicInteger();
+
+        @Override
+        Upstream choose(List<Upstream> upstreams) {
+            return upstreams.get(Math.floorMod(next.getAndIncrement(), upstreams.size()));
+        }
+    },
+
+    // Экземпляр с наименьшим числом запросов в работе; при равенстве — первый
+    LEAST_OUTSTANDING {
+        @Override
+        Upstream choose(List<Upstream> upstreams) {
+            Upstream best = upstreams.getFirst();
+            for (Upstream upstream : upstreams) {
+                if (upstream.getOutstanding() < best.getOutstanding()) {
+                    best = upstream;
+                }
+            }
+            return best;
+        }
+    },
+
+    // Из двух случайных экземпляров менее загруженный: почти как LEAST_OUTSTANDING,
+    // но без толпы запросов на один «самый свободный» экземпляр
+    POWER_OF_TWO_CHOICES {
+        @Override
+        Upstream choose(List<Upstream> upstreams) {
+            if (upstreams.size() == 1) {
+                return upstreams.getFirst();
+            }
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(upstreams.size());
+            int second = random.nextInt(upstreams.size() - 1);
+            if (second >= first) {
+                second++;
+            }
+            Upstream a = upstreams.get(first);
+            Upstream b = upstreams.get(second);
+            return a.getOutstanding() <= b.getOutstanding() ? a : b;
+        }
+    };
+
+    abstract Upstream choose(List<Upstream> upstreams);
+}
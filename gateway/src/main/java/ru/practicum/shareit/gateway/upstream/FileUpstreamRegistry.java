@@ -0,0 +1,66 @@
+package ru.practicum.shareit.gateway.upstream;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Список экземпляров из файла, по адресу на строку. Время изменения файла проверяется не чаще
+ * раза в секунду при обращении к списку; экземпляры, оставшиеся в файле, сохраняют своё состояние.
+ * Если файл не читается, используется последний прочитанный список.
+ */
+@Slf4j
+public class FileUpstreamRegistry implements UpstreamRegistry {
+
+    private static final long CHECK_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final Path file;
+    private volatile List<Upstream> upstreams = List.of();
+    private volatile FileTime loadedVersion;
+    private volatile long checkedAt;
+
+    public FileUpstreamRegistry(Path file) {
+        this.file = file;
+        reload();
+    }
+
+    @Override
+    public List<Upstream> getUpstreams() {
+        long now = System.nanoTime();
+        if (now - checkedAt > CHECK_INTERVAL_NANOS) {
+            checkedAt = now;
+            reload();
+        }
+        return upstreams;
+    }
+
+    private synchronized void reload() {
+        try {
+            FileTime modified = Files.getLastModifiedTime(file);
+            if (modified.equals(loadedVersion)) {
+                return;
+            }
+            Map<URI, Upstream> current = upstreams.stream()
+                    .collect(Collectors.toMap(Upstream::getUri, Function.identity()));
+            upstreams = Files.readAllLines(file).stream()
+                    .map(String::trim)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .map(URI::create)
+                    .distinct()
+                    .map(uri -> current.getOrDefault(uri, new Upstream(uri)))
+                    .toList();
+            loadedVersion = modified;
+            log.info("Loaded {} upstream(s) from {}", upstreams.size(), file);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Cannot read upstreams from {}: {}", file, e.getMessage());
+        }
+    }
+}
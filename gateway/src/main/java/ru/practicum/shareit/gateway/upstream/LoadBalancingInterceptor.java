@@ -0,0 +1,220 @@
+package ru.practicum.shareit.gateway.upstream;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.support.HttpRequestWrapper;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Перенаправляет запросы к shareit-server.url на выбранный Balancer экземпляр из реестра.
+ * В выборе участвуют экземпляры, прошедшие активную проверку и не исключённые по ошибкам;
+ * если таких нет, выбирается из всех — лучше попытаться, чем отказать сразу.
+ * Пассивное исключение: после consecutive-failures ошибок подряд экземпляр не получает
+ * запросов ejection-time, но исключённых не бывает больше max-ejected-percent.
+ * Если соединение с экземпляром не установилось, запрос один раз отправляется на другой:
+ * до сервера он не дошёл, поэтому повтор безопасен для любого метода.
+ * При sticky-users запросы пользователя из X-Sharer-User-Id или пути /users/{id} идут на один
+ * экземпляр (rendezvous hashing по адресам): у каждого гейтвея выбор тот же, а при выпадении
+ * экземпляра переезжают только его пользователи.
+ * Запрос считается незавершённым (outstanding) до закрытия ответа, то есть пока тело читается
+ * или передаётся клиенту потоком; ответ 5xx и сбой соединения завершают его сразу.
+ */
+@Slf4j
+public class LoadBalancingInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final Pattern USER_PATH = Pattern.compile(".*/users/(\\d+)");
+
+    private final URI serverUrl;
+    private final UpstreamRegistry registry;
+    private final UpstreamProperties properties;
+
+    public LoadBalancingInterceptor(URI serverUrl, UpstreamRegistry registry, UpstreamProperties properties) {
+        this.serverUrl = serverUrl;
+        this.registry = registry;
+        this.properties = properties;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        URI uri = request.getURI();
+        List<Upstream> upstreams = registry.getUpstreams();
+        if (!isServer(uri) || upstreams.isEmpty()) {
+            return execution.execute(request, body);
+        }
+
+        String user = properties.isStickyUsers() ? userKey(request) : null;
+        Upstream upstream = choose(upstreams, null, user);
+        try {
+            return execute(upstream, upstreams, request, body, execution);
+        } catch (ConnectException e) {
+            Upstream other = choose(upstreams, upstream, user);
+            if (other == upstream) {
+                throw e;
+            }
+            return execute(other, upstreams, request, body, execution);
+        }
+    }
+
+    private ClientHttpResponse execute(Upstream upstream, List<Upstream> upstreams, HttpRequest request,
+                                       byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        URI uri = request.getURI();
+        URI target = UriComponentsBuilder.fromUri(uri)
+                .scheme(upstream.getUri().getScheme())
+                .host(upstream.getUri().getHost())
+                .port(upstream.getUri().getPort())
+                .build(true)
+                .toUri();
+
+        upstream.begin();
+        ClientHttpResponse response;
+        boolean failed;
+        try {
+            response = execution.execute(new HttpRequestWrapper(request) {
+                @Override
+                public URI getURI() {
+                    return target;
+                }
+            }, body);
+            failed = response.getStatusCode().is5xxServerError();
+        } catch (IOException | RuntimeException e) {
+            upstream.end();
+            onFailure(upstream, upstreams);
+            throw e;
+        }
+        if (failed) {
+            upstream.end();
+            onFailure(upstream, upstreams);
+            return response;
+        }
+        upstream.onSuccess();
+        return new EndingResponse(response, upstream);
+    }
+
+    // Ответ, закрытие которого завершает запрос к экземпляру; RestTemplate закрывает ответ после чтения тела
+    private static class EndingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final Upstream upstream;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        EndingResponse(ClientHttpResponse delegate, Upstream upstream) {
+            this.delegate = delegate;
+            this.upstream = upstream;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                delegate.close();
+            } finally {
+                upstream.end();
+            }
+        }
+    }
+
+    private boolean isServer(URI uri) {
+        return serverUrl.getHost().equalsIgnoreCase(uri.getHost()) && serverUrl.getPort() == uri.getPort();
+    }
+
+    private static String userKey(HttpRequest request) {
+        String header = request.getHeaders().getFirst(USER_HEADER);
+        if (header != null && !header.isBlank()) {
+            return header.trim();
+        }
+        Matcher path = USER_PATH.matcher(request.getURI().getRawPath());
+        return path.matches() ? path.group(1) : null;
+    }
+
+    private Upstream choose(List<Upstream> upstreams, Upstream excluded, String user) {
+        long now = System.nanoTime();
+        List<Upstream> candidates = upstreams.stream()
+                .filter(upstream -> upstream != excluded)
+                .toList();
+        if (candidates.isEmpty()) {
+            return excluded;
+        }
+        List<Upstream> available = candidates.stream()
+                .filter(upstream -> upstream.isAvailable(now))
+                .toList();
+        List<Upstream> eligible = available.isEmpty() ? candidates : available;
+        return user != null ? rendezvous(eligible, user) : properties.getBalancer().choose(eligible);
+    }
+
+    // Экземпляр с наибольшим весом для пары (пользователь, адрес экземпляра)
+    private static Upstream rendezvous(List<Upstream> upstreams, String user) {
+        Upstream best = upstreams.getFirst();
+        long bestWeight = Long.MIN_VALUE;
+        for (Upstream upstream : upstreams) {
+            long weight = mix(user.hashCode() * 31L + upstream.getUri().toString().hashCode());
+            if (weight > bestWeight) {
+                best = upstream;
+                bestWeight = weight;
+            }
+        }
+        return best;
+    }
+
+    // Финальное перемешивание MurmurHash3: близкие ключи дают независимые веса
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private void onFailure(Upstream upstream, List<Upstream> upstreams) {
+        UpstreamProperties.OutlierEjection settings = properties.getOutlierEjection();
+        if (upstream.onFailure() < settings.getConsecutiveFailures()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long ejected = upstreams.stream().filter(u -> u.isEjected(now)).count();
+        if ((ejected + 1) * 100 > (long) settings.getMaxEjectedPercent() * upstreams.size()) {
+            return;
+        }
+        upstream.eject(now + settings.getEjectionTime().toNanos());
+        log.warn("Upstream {} ejected for {} after {} consecutive failures", upstream.getUri(),
+                settings.getEjectionTime(), settings.getConsecutiveFailures());
+    }
+}
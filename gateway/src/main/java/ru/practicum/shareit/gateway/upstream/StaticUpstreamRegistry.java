@@ -0,0 +1,23 @@
+package ru.practicum.shareit.gateway.upstream;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Неизменный список экземпляров из shareit-server.upstreams.instances.
+ */
+public class StaticUpstreamRegistry implements UpstreamRegistry {
+
+    private final List<Upstream> upstreams;
+
+    public StaticUpstreamRegistry(List<String> instances) {
+        this.upstreams = instances.stream()
+                .map(instance -> new Upstream(URI.create(instance)))
+                .toList();
+    }
+
+    @Override
+    public List<Upstream> getUpstreams() {
+        return upstreams;
+    }
+}
@@ -0,0 +1,67 @@
+package ru.practicum.shareit.gateway.upstream;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Экземпляр сервера: адрес, число запросов в работе, результат активной проверки
+ * и срок исключения по ошибкам.
+ */
+public class Upstream {
+
+    private final URI uri;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile boolean healthy = true;
+    private volatile long ejectedUntil;
+
+    public Upstream(URI uri) {
+        this.uri = uri;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public boolean isAvailable(long nowNanos) {
+        return healthy && !isEjected(nowNanos);
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public boolean isEjected(long nowNanos) {
+        return ejectedUntil - nowNanos > 0;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    void begin() {
+        outstanding.incrementAndGet();
+    }
+
+    void end() {
+        outstanding.decrementAndGet();
+    }
+
+    void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+    }
+
+    void onSuccess() {
+        consecutiveFailures.set(0);
+    }
+
+    // Возвращает число ошибок подряд с учётом этой
+    int onFailure() {
+        return consecutiveFailures.incrementAndGet();
+    }
+
+    void eject(long untilNanos) {
+        consecutiveFailures.set(0);
+        ejectedUntil = untilNanos;
+    }
+}
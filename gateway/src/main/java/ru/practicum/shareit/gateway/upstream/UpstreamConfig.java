@@ -0,0 +1,59 @@
+package ru.practicum.shareit.gateway.upstream;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(UpstreamProperties.class)
+public class UpstreamConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "shareit-server.upstreams.registry", havingValue = "static", matchIfMissing = true)
+    public UpstreamRegistry staticUpstreamRegistry(UpstreamProperties properties,
+                                                   @Value("${shareit-server.url}") String serverUrl) {
+        return new StaticUpstreamRegistry(properties.getInstances().isEmpty()
+                ? List.of(serverUrl)
+                : properties.getInstances());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "shareit-server.upstreams.registry", havingValue = "file")
+    public UpstreamRegistry fileUpstreamRegistry(UpstreamProperties properties) {
+        if (properties.getFile() == null) {
+            throw new IllegalStateException(
+                    "shareit-server.upstreams.file must be set when shareit-server.upstreams.registry=file");
+        }
+        return new FileUpstreamRegistry(properties.getFile());
+    }
+
+    @Bean
+    public LoadBalancingInterceptor loadBalancingInterceptor(UpstreamRegistry registry,
+                                                             UpstreamProperties properties,
+                                                             @Value("${shareit-server.url}") String serverUrl,
+                                                             MeterRegistry meterRegistry) {
+        // Экземпляры, которые сейчас получают запросы
+        Gauge.builder("gateway.upstream.instances", registry, r -> {
+            long now = System.nanoTime();
+            return r.getUpstreams().stream().filter(upstream -> upstream.isAvailable(now)).count();
+        }).tag("state", "available").register(meterRegistry);
+        Gauge.builder("gateway.upstream.instances", registry, r -> r.getUpstreams().size())
+                .tag("state", "total")
+                .register(meterRegistry);
+        return new LoadBalancingInterceptor(URI.create(serverUrl), registry, properties);
+    }
+
+    @Bean(initMethod = "start")
+    @ConditionalOnProperty(name = "shareit-server.upstreams.health-check.enabled", havingValue = "true",
+            matchIfMissing = true)
+    public UpstreamHealthChecker upstreamHealthChecker(UpstreamRegistry registry, UpstreamProperties properties) {
+        return new UpstreamHealthChecker(registry, properties.getHealthCheck());
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.gateway.upstream;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Активная проверка экземпляров через actuator сервера: экземпляр, ответивший не 200
+ * или не ответивший за timeout, не получает запросов до следующей успешной проверки.
+ * Проверки идут в отдельном потоке каждые interval.
+ */
+@Slf4j
+public class UpstreamHealthChecker implements AutoCloseable {
+
+    private final UpstreamRegistry registry;
+    private final UpstreamProperties.HealthCheck settings;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("upstream-health").daemon().factory());
+
+    public UpstreamHealthChecker(UpstreamRegistry registry, UpstreamProperties.HealthCheck settings) {
+        this.registry = registry;
+        this.settings = settings;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(settings.getTimeout())
+                .build();
+    }
+
+    public void start() {
+        long interval = settings.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::checkAll, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void checkAll() {
+        registry.getUpstreams().forEach(this::check);
+    }
+
+    private void check(Upstream upstream) {
+        boolean healthy;
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(upstream.getUri() + settings.getPath()))
+                    .timeout(settings.getTimeout())
+                    .GET()
+                    .build();
+            healthy = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            healthy = false;
+        }
+        if (healthy != upstream.isHealthy()) {
+            log.info("Upstream {} is {}", upstream.getUri(), healthy ? "UP" : "DOWN");
+        }
+        upstream.setHealthy(healthy);
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.gateway.upstream;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Экземпляры shareit-server за гейтвеем и распределение запросов между ними.
+ * Клиенты гейтвея обращаются по shareit-server.url; запрос уходит на один из экземпляров.
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit-server.upstreams")
+public class UpstreamProperties {
+
+    // static — список instances (пустой: единственный экземпляр shareit-server.url); file — файл со списком
+    private String registry = "static";
+
+    private List<String> instances = new ArrayList<>();
+
+    // Один адрес на строку, строки с # пропускаются; файл перечитывается после изменения
+    private Path file;
+
+    private Balancer balancer = Balancer.ROUND_ROBIN;
+
+    // Запросы одного пользователя (X-Sharer-User-Id или /users/{id}) идут на один экземпляр, а balancer
+    // выбирает только для остальных. Окно read-your-writes сервера хранится в памяти экземпляра
+    private boolean stickyUsers = true;
+
+    private HealthCheck healthCheck = new HealthCheck();
+
+    private OutlierEjection outlierEjection = new OutlierEjection();
+
+    @Data
+    public static class HealthCheck {
+
+        private boolean enabled = true;
+
+        private String path = "/actuator/health";
+
+        private Duration interval = Duration.ofSeconds(5);
+
+        private Duration timeout = Duration.ofSeconds(1);
+    }
+
+    @Data
+    public static class OutlierEjection {
+
+        // Столько ошибок подряд (5xx, сбой соединения) — и экземпляр исключается из балансировки
+        private int consecutiveFailures = 5;
+
+        private Duration ejectionTime = Duration.ofSeconds(30);
+
+        // Больше этой доли экземпляров одновременно не исключается, %
+        private int maxEjectedPercent = 50;
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.gateway.upstream;
+
+import java.util.List;
+
+/**
+ * Источник списка экземпляров сервера.
+ */
+public interface UpstreamRegistry {
+
+    List<Upstream> getUpstreams();
+}
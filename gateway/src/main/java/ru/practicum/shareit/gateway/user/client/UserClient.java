@@ -1,27 +1,44 @@
 package ru.practicum.shareit.gateway.user.client;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import ru.practicum.shareit.gateway.batch.BatchImportProxy;
+import ru.practicum.shareit.gateway.batch.BatchImportResult;
+import ru.practicum.shareit.gateway.client.ServerProxy;
 import ru.practicum.shareit.gateway.user.dto.UserDto;
 
+import java.io.InputStream;
+
 @Service
 @RequiredArgsConstructor
 public class UserClient {
-    private final RestTemplate restTemplate;
-    private final String serverUrl = "http://shareit-server:9090/users"; // URL `shareIt-server`
+    private final ServerProxy serverProxy;
+    private final BatchImportProxy batchImportProxy;
+    @Value("${shareit-server.url}/users")
+    private String serverUrl;
 
     public ResponseEntity<Object> createUser(UserDto userDto) {
-        return restTemplate.postForEntity(serverUrl, userDto, Object.class);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return serverProxy.exchange(serverUrl, HttpMethod.POST, new HttpEntity<>(userDto, headers));
+    }
+
+    public ResponseEntity<BatchImportResult> importUsers(String importKey, InputStream body) {
+        HttpHeaders headers = new HttpHeaders();
+        if (importKey != null) {
+            headers.set(BatchImportProxy.IMPORT_KEY_HEADER, importKey);
+        }
+        return batchImportProxy.forward(serverUrl + "/batch", headers, body, UserDto.class);
     }
 
     public ResponseEntity<Object> getUser(Long id) {
-        return restTemplate.getForEntity(serverUrl + "/" + id, Object.class);
+        return serverProxy.exchange(serverUrl + "/" + id, HttpMethod.GET, HttpEntity.EMPTY);
     }
 
     public ResponseEntity<Object> updateUser(Long userId, UserDto userDto) {
@@ -29,21 +46,20 @@ public class UserClient {
         headers.setContentType(MediaType.APPLICATION_JSON);
         HttpEntity<UserDto> requestEntity = new HttpEntity<>(userDto, headers);
 
-        return restTemplate.exchange(
+        return serverProxy.exchange(
                 serverUrl + "/" + userId,
                 HttpMethod.PATCH,
-                requestEntity,
-                Object.class
+                requestEntity
         );
     }
 
 
     public ResponseEntity<Void> deleteUser(Long id) {
-        restTemplate.delete(serverUrl + "/" + id);
+        serverProxy.send(serverUrl + "/" + id, HttpMethod.DELETE, HttpEntity.EMPTY);
         return ResponseEntity.ok().build();
     }
 
     public ResponseEntity<Object> getAllUsers() {
-        return restTemplate.getForEntity(serverUrl, Object.class);
+        return serverProxy.exchange(serverUrl, HttpMethod.GET, HttpEntity.EMPTY);
     }
 }
\ No newline at end of file
@@ -2,11 +2,16 @@ package ru.practicum.shareit.gateway.user.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.gateway.batch.BatchImportProxy;
+import ru.practicum.shareit.gateway.batch.BatchImportResult;
 import ru.practicum.shareit.gateway.user.client.UserClient;
 import ru.practicum.shareit.gateway.user.dto.UserDto;
 
+import java.io.InputStream;
+
 @RestController
 @RequestMapping("/users")
 @RequiredArgsConstructor
@@ -18,6 +23,14 @@ public class UserController {
         return userClient.createUser(userDto);
     }
 
+    // Пакетное создание пользователей из JSON-массива или NDJSON с ошибками по номерам строк
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchImportResult> importUsers(
+            @RequestHeader(name = BatchImportProxy.IMPORT_KEY_HEADER, required = false) String importKey,
+            InputStream body) {
+        return userClient.importUsers(importKey, body);
+    }
+
     @GetMapping("/{userId}")
     public ResponseEntity<Object> getUser(@PathVariable("userId") Long userId) {
         return userClient.getUser(userId);
@@ -0,0 +1,138 @@
+package ru.practicum.shareit.gateway.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.gateway.batch.BatchImportResult.RowError;
+import ru.practicum.shareit.gateway.client.ServerProxy;
+import ru.practicum.shareit.gateway.config.ShortCircuitCounter;
+import ru.practicum.shareit.gateway.user.dto.UserDto;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchImportProxyTest {
+
+    private static final String URL = "http://server/users/batch";
+    private static final String VALID = "{\"name\": \"User\", \"email\": \"user@mail.com\"}";
+    private static final String INVALID = "{\"name\": \"\", \"email\": \"user@mail.com\"}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ServerProxy serverProxy;
+    private SimpleMeterRegistry meterRegistry;
+    private BatchImportProxy proxy;
+
+    @BeforeEach
+    void setUp() {
+        serverProxy = mock(ServerProxy.class);
+        meterRegistry = new SimpleMeterRegistry();
+        proxy = new BatchImportProxy(serverProxy, objectMapper,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ShortCircuitCounter(meterRegistry));
+        ReflectionTestUtils.setField(proxy, "segmentRows", 2);
+    }
+
+    @Test
+    void forward_shouldSendSegmentsWithNullPlaceholdersAndFirstRow() throws Exception {
+        // Сервер отвечает по номеру первой строки части
+        Map<String, BatchImportResult> results = Map.of(
+                "0", new BatchImportResult(2, 1, List.of()),
+                "4", new BatchImportResult(1, 0, List.of(new RowError(4, "Email is already in use"))));
+        when(serverProxy.exchangeForBytes(eq(URL), eq(HttpMethod.POST), any())).thenAnswer(invocation -> {
+            HttpEntity<?> entity = invocation.getArgument(2);
+            String firstRow = entity.getHeaders().getFirst(BatchImportProxy.FIRST_ROW_HEADER);
+            return ResponseEntity.ok(objectMapper.writeValueAsBytes(results.get(firstRow)));
+        });
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(BatchImportProxy.IMPORT_KEY_HEADER, "import-1");
+
+        ResponseEntity<BatchImportResult> response = proxy.forward(URL, headers,
+                input(VALID, INVALID, "null", INVALID, VALID), UserDto.class);
+
+        BatchImportResult result = response.getBody();
+        assertThat(result.received()).isEqualTo(5);
+        assertThat(result.imported()).isEqualTo(1);
+        assertThat(result.errors()).extracting(RowError::row).containsExactly(1, 2, 3, 4);
+        assertThat(result.errors().get(1).message()).isEqualTo("Row is empty");
+
+        // Часть из строк 2-3 отклонена целиком и на сервер не уходит
+        ArgumentCaptor<HttpEntity<byte[]>> captor = entityCaptor();
+        verify(serverProxy, times(2)).exchangeForBytes(eq(URL), eq(HttpMethod.POST), captor.capture());
+        List<HttpEntity<byte[]>> calls = captor.getAllValues();
+        assertThat(calls).extracting(call -> call.getHeaders().getFirst(BatchImportProxy.FIRST_ROW_HEADER))
+                .containsExactly("0", "4");
+        assertThat(calls).extracting(call -> call.getHeaders().getFirst(BatchImportProxy.IMPORT_KEY_HEADER))
+                .containsOnly("import-1");
+        assertThat(body(calls.get(0))).isEqualTo(compact(VALID) + "\nnull\n");
+        assertThat(body(calls.get(1))).isEqualTo(compact(VALID) + "\n");
+    }
+
+    @Test
+    void forward_shouldNumberRowsUpToMalformedJson() throws Exception {
+        when(serverProxy.exchangeForBytes(eq(URL), eq(HttpMethod.POST), any()))
+                .thenReturn(ResponseEntity.ok(objectMapper.writeValueAsBytes(new BatchImportResult(2, 1, List.of()))));
+
+        ResponseEntity<BatchImportResult> response = proxy.forward(URL, HttpHeaders.EMPTY,
+                input("[" + VALID + ",", "null,", VALID + ",", "{\"name\":"), UserDto.class);
+
+        BatchImportResult result = response.getBody();
+        assertThat(result.received()).isEqualTo(4);
+        assertThat(result.imported()).isEqualTo(2);
+        assertThat(result.errors()).extracting(RowError::row).containsExactly(1, 3);
+        assertThat(result.errors().get(1).message()).startsWith("Malformed JSON");
+
+        ArgumentCaptor<HttpEntity<byte[]>> captor = entityCaptor();
+        verify(serverProxy, times(2)).exchangeForBytes(eq(URL), eq(HttpMethod.POST), captor.capture());
+        assertThat(body(captor.getAllValues().get(1))).isEqualTo(compact(VALID) + "\nnull\n");
+        assertThat(captor.getAllValues().get(1).getHeaders().getFirst(BatchImportProxy.FIRST_ROW_HEADER))
+                .isEqualTo("2");
+    }
+
+    @Test
+    void forward_shouldNotCallServerWhenEveryRowIsRejected() {
+        ResponseEntity<BatchImportResult> response = proxy.forward(URL, HttpHeaders.EMPTY,
+                input(INVALID, "null", INVALID), UserDto.class);
+
+        assertThat(response.getBody().received()).isEqualTo(3);
+        assertThat(response.getBody().errors()).extracting(RowError::row).containsExactly(0, 1, 2);
+        verify(serverProxy, never()).exchangeForBytes(any(), any(), any());
+        assertThat(meterRegistry.get("gateway.upstream.calls.saved").tag("reason", "invalid_batch")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<HttpEntity<byte[]>> entityCaptor() {
+        return ArgumentCaptor.forClass(HttpEntity.class);
+    }
+
+    private String compact(String json) throws Exception {
+        return objectMapper.writeValueAsString(objectMapper.readTree(json));
+    }
+
+    private static String body(HttpEntity<byte[]> entity) {
+        return new String(entity.getBody(), StandardCharsets.UTF_8);
+    }
+
+    private static InputStream input(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,181 @@
+package ru.practicum.shareit.gateway.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сколько медленных вызовов сервера гейтвей держит одновременно: с виртуальными потоками
+ * и с пулом платформенных потоков Tomcat (server.tomcat.threads.max = 50).
+ * Вместо сервера — заглушка, которая держит каждый запрос, пока не придут все CALLS запросов
+ * (но не дольше HOLD), и считает наибольшее число одновременных. Перед замером один раз проходят
+ * PLATFORM_THREADS вызовов — прогрев гейтвея и его пула соединений. UpstreamGuard выключен,
+ * чтобы предел задавали только потоки гейтвея.
+ * Запуск: SHAREIT_BENCHMARK=true mvn -pl gateway test -Dgroups=benchmark
+ */
+@Slf4j
+@Tag("benchmark")
+@EnabledIfEnvironmentVariable(named = "SHAREIT_BENCHMARK", matches = "true")
+class VirtualThreadsBenchmarkTest {
+
+    private static final int CALLS = 400;
+    private static final int PLATFORM_THREADS = 50;
+    private static final Duration HOLD = Duration.ofSeconds(3);
+
+    private static final SlowUpstream upstream = new SlowUpstream();
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop();
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "spring.threads.virtual.enabled=true",
+            "server.tomcat.threads.max=" + PLATFORM_THREADS
+    })
+    class VirtualThreads extends Measurement {
+
+        @Test
+        void holdsEveryCallInFlight() {
+            int peak = measure("virtual threads");
+            assertThat(peak).isEqualTo(CALLS);
+        }
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "spring.threads.virtual.enabled=false",
+            "server.tomcat.threads.max=" + PLATFORM_THREADS
+    })
+    class PlatformThreads extends Measurement {
+
+        @Test
+        void capsCallsAtTomcatThreads() {
+            int peak = measure("platform threads");
+            assertThat(peak).isLessThanOrEqualTo(PLATFORM_THREADS);
+        }
+    }
+
+    abstract static class Measurement {
+
+        @LocalServerPort
+        private int port;
+
+        @DynamicPropertySource
+        static void upstreamProperties(DynamicPropertyRegistry registry) {
+            registry.add("shareit-server.url", upstream::url);
+            registry.add("shareit-server.upstreams.health-check.enabled", () -> "false");
+            registry.add("shareit-server.resilience.enabled", () -> "false");
+        }
+
+        int measure(String name) {
+            try (HttpClient client = HttpClient.newBuilder()
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build()) {
+                call(client, PLATFORM_THREADS);
+
+                long started = System.nanoTime();
+                call(client, CALLS);
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                log.info("{}: {} calls, peak {} in flight, {} ms", name, CALLS, upstream.peak(), elapsedMillis);
+            }
+            return upstream.peak();
+        }
+
+        private void call(HttpClient client, int calls) {
+            upstream.reset(calls);
+            List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+            for (int i = 1; i <= calls; i++) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users/" + i))
+                        .timeout(Duration.ofMinutes(1))
+                        .build();
+                responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            responses.forEach(response -> assertThat(response.join().statusCode()).isEqualTo(200));
+        }
+    }
+
+    private static class SlowUpstream {
+
+        private final HttpServer server;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger peak = new AtomicInteger();
+        private volatile CountDownLatch arrived = new CountDownLatch(0);
+
+        SlowUpstream() {
+            try {
+                server = HttpServer.create(new InetSocketAddress("localhost", 0), CALLS * 2);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.createContext("/users/", exchange -> {
+                peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    CountDownLatch latch = arrived;
+                    latch.countDown();
+                    latch.await(HOLD.toMillis(), TimeUnit.MILLISECONDS);
+                    String id = exchange.getRequestURI().getPath().substring("/users/".length());
+                    byte[] body = ("{\"id\":" + id + ",\"name\":\"User\",\"email\":\"user" + id + "@mail.com\"}")
+                            .getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().set("Content-Type", "application/json");
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(body);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+            server.start();
+        }
+
+        String url() {
+            return "http://localhost:" + server.getAddress().getPort();
+        }
+
+        void reset(int calls) {
+            peak.set(0);
+            arrived = new CountDownLatch(calls);
+        }
+
+        int peak() {
+            return peak.get();
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+    }
+}
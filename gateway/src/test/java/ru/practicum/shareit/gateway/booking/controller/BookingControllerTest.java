@@ -0,0 +1,107 @@
+package ru.practicum.shareit.gateway.booking.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.gateway.booking.client.BookingClient;
+import ru.practicum.shareit.gateway.config.ShortCircuitCounter;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(BookingController.class)
+@Import({ShortCircuitCounter.class, BookingControllerTest.Metrics.class})
+class BookingControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private BookingClient bookingClient;
+
+    @Test
+    void getUserBookings_shouldRejectUnknownStateWithoutCallingServer() throws Exception {
+        mvc.perform(get("/bookings?state=SOMETIMES").header("X-Sharer-User-Id", 1))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unknown state: SOMETIMES"));
+
+        verifyNoInteractions(bookingClient);
+        assertThat(saved("unknown_state")).isEqualTo(1);
+    }
+
+    @Test
+    void getOwnerBookings_shouldPassNormalizedState() throws Exception {
+        when(bookingClient.getOwnerBookings(anyLong(), any(), anyInt(), anyInt(), any()))
+                .thenReturn(ResponseEntity.ok().build());
+
+        mvc.perform(get("/bookings/owner?state=waiting").header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk());
+
+        verify(bookingClient).getOwnerBookings(eq(1L), eq("WAITING"), eq(0), eq(10), any());
+    }
+
+    @Test
+    void createBooking_shouldCountOnlyRejectedBookingWindow() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(2);
+        mvc.perform(post("/bookings")
+                        .header("X-Sharer-User-Id", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(booking(start, start.minusDays(1))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message.endAfterStart").exists());
+
+        // Пустая вещь отклонялась и до проверки интервала: это не новый сэкономленный вызов
+        mvc.perform(post("/bookings")
+                        .header("X-Sharer-User-Id", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"start\":\"" + start + "\",\"end\":\"" + start.plusDays(1) + "\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message.itemId").exists());
+
+        verifyNoInteractions(bookingClient);
+        assertThat(saved("invalid_booking_window")).isEqualTo(1);
+        assertThat(meterRegistry.find("gateway.upstream.calls.saved").tag("reason", "invalid_body").counter())
+                .isNull();
+    }
+
+    private double saved(String reason) {
+        return meterRegistry.get("gateway.upstream.calls.saved").tag("reason", reason).counter().count();
+    }
+
+    private static String booking(LocalDateTime start, LocalDateTime end) {
+        return "{\"itemId\":1,\"start\":\"" + start + "\",\"end\":\"" + end + "\"}";
+    }
+
+    @TestConfiguration
+    static class Metrics {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package ru.practicum.shareit.gateway.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.gateway.client.ServerProxy;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ResponseCacheTest {
+
+    private static final String ITEM_URL = "http://server/items/10";
+
+    private ServerProxy serverProxy;
+    private ResponseCache responseCache;
+
+    @BeforeEach
+    void setUp() {
+        serverProxy = mock(ServerProxy.class);
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setEnabled(true);
+        responseCache = new ResponseCache(serverProxy, properties, new SimpleMeterRegistry(), true);
+    }
+
+    @Test
+    void getItem_shouldShareResponseBetweenNonOwners() {
+        when(serverProxy.exchangeForBytes(eq(ITEM_URL), eq(HttpMethod.GET), any()))
+                .thenReturn(itemResponse("public", 1L));
+
+        assertThat(cacheStatus(getItem(2L))).isEqualTo("MISS");
+        assertThat(cacheStatus(getItem(3L))).isEqualTo("HIT");
+        verify(serverProxy, times(1)).exchangeForBytes(eq(ITEM_URL), eq(HttpMethod.GET), any());
+
+        // Ответ владельцу с бронированиями хранится отдельно и другим не отдаётся
+        when(serverProxy.exchangeForBytes(eq(ITEM_URL), eq(HttpMethod.GET), any()))
+                .thenReturn(itemResponse("owner", 1L));
+        assertThat(body(getItem(1L))).isEqualTo("owner");
+        assertThat(body(getItem(1L))).isEqualTo("owner");
+        assertThat(body(getItem(4L))).isEqualTo("public");
+        verify(serverProxy, times(2)).exchangeForBytes(eq(ITEM_URL), eq(HttpMethod.GET), any());
+    }
+
+    @Test
+    void getItem_shouldNotPassItemOwnerToClient() {
+        when(serverProxy.exchangeForBytes(eq(ITEM_URL), eq(HttpMethod.GET), any()))
+                .thenReturn(itemResponse("public", 1L));
+
+        ResponseEntity<Object> response = getItem(2L);
+
+        assertThat(response.getHeaders().containsKey(ServerProxy.ITEM_OWNER_HEADER)).isFalse();
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"1\"");
+    }
+
+    @Test
+    void updatingItem_shouldNotStoreResponseFetchedDuringWrite() {
+        // Запись проходит, пока запрос к серверу ещё выполняется: полученный ответ уже устарел
+        when(serverProxy.exchangeForBytes(eq(ITEM_URL), eq(HttpMethod.GET), any())).thenAnswer(invocation -> {
+            responseCache.updatingItem(10L, () -> null);
+            return itemResponse("stale", 1L);
+        }).thenReturn(itemResponse("fresh", 1L));
+
+        assertThat(body(getItem(2L))).isEqualTo("stale");
+        assertThat(body(getItem(2L))).isEqualTo("fresh");
+        assertThat(cacheStatus(getItem(2L))).isEqualTo("HIT");
+    }
+
+    @Test
+    void updatingItem_shouldDropCachedItemAndSearch() {
+        when(serverProxy.exchangeForBytes(any(), eq(HttpMethod.GET), any()))
+                .thenReturn(itemResponse("item", 1L));
+        getItem(2L);
+        responseCache.get(CacheKey.search("text=drill"), "http://server/items/search?text=drill", HttpHeaders.EMPTY);
+
+        responseCache.updatingItem(10L, () -> null);
+
+        assertThat(cacheStatus(getItem(2L))).isEqualTo("MISS");
+        assertThat(cacheStatus(responseCache.get(CacheKey.search("text=drill"),
+                "http://server/items/search?text=drill", HttpHeaders.EMPTY))).isEqualTo("MISS");
+    }
+
+    @Test
+    void updatingItem_shouldKeepOtherItemsAndDropOwnerCard() {
+        when(serverProxy.exchangeForBytes(any(), eq(HttpMethod.GET), any()))
+                .thenReturn(itemResponse("item", 1L));
+        getItem(1L);
+        getItem(2L);
+        responseCache.getItem(11L, 2L, "http://server/items/11", HttpHeaders.EMPTY);
+
+        responseCache.updatingItem(10L, () -> null);
+
+        // Карточка владельца хранится под своим ключом и тоже устаревает
+        assertThat(cacheStatus(getItem(1L))).isEqualTo("MISS");
+        assertThat(cacheStatus(responseCache.getItem(11L, 2L, "http://server/items/11", HttpHeaders.EMPTY)))
+                .isEqualTo("HIT");
+    }
+
+    @Test
+    void addingItems_shouldDropOnlySearchResults() {
+        when(serverProxy.exchangeForBytes(any(), eq(HttpMethod.GET), any()))
+                .thenReturn(itemResponse("item", 1L));
+        getItem(2L);
+        responseCache.get(CacheKey.search("text=drill"), "http://server/items/search?text=drill", HttpHeaders.EMPTY);
+
+        responseCache.addingItems(() -> null);
+
+        assertThat(cacheStatus(getItem(2L))).isEqualTo("HIT");
+        assertThat(cacheStatus(responseCache.get(CacheKey.search("text=drill"),
+                "http://server/items/search?text=drill", HttpHeaders.EMPTY))).isEqualTo("MISS");
+        assertThat(cacheStatus(responseCache.get(CacheKey.search("text=drill"),
+                "http://server/items/search?text=drill", HttpHeaders.EMPTY))).isEqualTo("HIT");
+    }
+
+    @Test
+    void updatingBookings_shouldDropOnlyOwnerResponses() {
+        when(serverProxy.exchangeForBytes(eq(ITEM_URL), eq(HttpMethod.GET), any()))
+                .thenReturn(itemResponse("item", 1L));
+        getItem(1L);
+        getItem(2L);
+
+        responseCache.updatingBookings(() -> null);
+
+        assertThat(cacheStatus(getItem(2L))).isEqualTo("HIT");
+        assertThat(cacheStatus(getItem(1L))).isEqualTo("MISS");
+    }
+
+    @Test
+    void get_shouldPassServerHeadersWhenCoalescingWithCacheDisabled() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        ResponseCache bypass = new ResponseCache(serverProxy, properties, new SimpleMeterRegistry(), true);
+        ResponseEntity<byte[]> upstream = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag("1")
+                .header(ServerProxy.ITEM_OWNER_HEADER, "1")
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .header(HttpHeaders.TRANSFER_ENCODING, "chunked")
+                .body("item".getBytes(StandardCharsets.UTF_8));
+        when(serverProxy.exchangeForBytes(eq(ITEM_URL), eq(HttpMethod.GET), any())).thenReturn(upstream);
+
+        ResponseEntity<Object> response = bypass.getItem(10L, 2L, ITEM_URL, HttpHeaders.EMPTY);
+
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("no-cache");
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"1\"");
+        assertThat(cacheStatus(response)).isEqualTo("BYPASS");
+        assertThat(response.getHeaders().containsKey(ServerProxy.ITEM_OWNER_HEADER)).isFalse();
+        assertThat(response.getHeaders().containsKey(HttpHeaders.TRANSFER_ENCODING)).isFalse();
+        assertThat(body(response)).isEqualTo("item");
+    }
+
+    private ResponseEntity<Object> getItem(Long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", userId.toString());
+        return responseCache.getItem(10L, userId, ITEM_URL, headers);
+    }
+
+    private static ResponseEntity<byte[]> itemResponse(String body, Long ownerId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag("1")
+                .header(ServerProxy.ITEM_OWNER_HEADER, ownerId.toString())
+                .body(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String cacheStatus(ResponseEntity<Object> response) {
+        return response.getHeaders().getFirst(ResponseCache.CACHE_STATUS_HEADER);
+    }
+
+    private static String body(ResponseEntity<Object> response) {
+        return new String((byte[]) response.getBody(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,153 @@
+package ru.practicum.shareit.gateway.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    private static final int WAITERS = 7;
+
+    private Counter coalesced;
+    private SingleFlight<String, String> singleFlight;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        coalesced = new SimpleMeterRegistry().counter("coalesced");
+        singleFlight = new SingleFlight<>(coalesced);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_shouldShareOneCallBetweenConcurrentWaiters() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> first = executor.submit(() -> singleFlight.execute("item-1", () -> {
+            calls.incrementAndGet();
+            await(release);
+            return "body";
+        }));
+        awaitCalls(calls);
+
+        List<Future<String>> waiters = new ArrayList<>();
+        for (int i = 0; i < WAITERS; i++) {
+            waiters.add(executor.submit(() -> singleFlight.execute("item-1", () -> {
+                calls.incrementAndGet();
+                return "own";
+            })));
+        }
+        awaitCoalesced(WAITERS);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("body");
+        for (Future<String> waiter : waiters) {
+            assertThat(waiter.get(5, TimeUnit.SECONDS)).isEqualTo("body");
+        }
+        assertThat(calls.get()).isEqualTo(1);
+
+        // Завершённый вызов не запоминается: следующий снова идёт на сервер
+        assertThat(singleFlight.execute("item-1", () -> "next")).isEqualTo("next");
+    }
+
+    @Test
+    void execute_shouldPassFirstCallExceptionToWaiters() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("upstream failed");
+        Future<String> first = executor.submit(() -> singleFlight.execute("item-1", () -> {
+            calls.incrementAndGet();
+            await(release);
+            throw failure;
+        }));
+        awaitCalls(calls);
+        Future<String> waiter = executor.submit(() -> singleFlight.execute("item-1", () -> "own"));
+        awaitCoalesced(1);
+        release.countDown();
+
+        // Ожидающий получает то же исключение, а не CompletionException
+        Exception firstError = assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+        Exception waiterError = assertThrows(Exception.class, () -> waiter.get(5, TimeUnit.SECONDS));
+        assertThat(firstError.getCause()).isSameAs(failure);
+        assertThat(waiterError.getCause()).isSameAs(failure);
+
+        // После ошибки ключ освобождается
+        assertThat(singleFlight.execute("item-1", () -> "retry")).isEqualTo("retry");
+    }
+
+    @Test
+    void execute_shouldPassFirstCallErrorToWaiters() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        StackOverflowError failure = new StackOverflowError("too deep");
+        Future<String> first = executor.submit(() -> singleFlight.execute("item-1", () -> {
+            calls.incrementAndGet();
+            await(release);
+            throw failure;
+        }));
+        awaitCalls(calls);
+        Future<String> waiter = executor.submit(() -> singleFlight.execute("item-1", () -> "own"));
+        awaitCoalesced(1);
+        release.countDown();
+
+        // Ожидающий не зависает, а получает ту же ошибку
+        Exception firstError = assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+        Exception waiterError = assertThrows(Exception.class, () -> waiter.get(5, TimeUnit.SECONDS));
+        assertThat(firstError.getCause()).isSameAs(failure);
+        assertThat(waiterError.getCause()).isSameAs(failure);
+        assertThat(singleFlight.execute("item-1", () -> "retry")).isEqualTo("retry");
+    }
+
+    @Test
+    void execute_shouldNotCoalesceDifferentKeys() {
+        assertThat(singleFlight.execute("item-1", () -> "one")).isEqualTo("one");
+        assertThat(singleFlight.execute("item-2", () -> "two")).isEqualTo("two");
+        assertThatThrownBy(() -> singleFlight.execute("item-3", () -> {
+            throw new IllegalArgumentException("bad");
+        })).isInstanceOf(IllegalArgumentException.class);
+        assertThat(coalesced.count()).isZero();
+    }
+
+    private void awaitCalls(AtomicInteger calls) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (calls.get() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    // Счётчик увеличивается до ожидания, поэтому после него все ждут результат первого вызова
+    private void awaitCoalesced(int waiters) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalesced.count() < waiters && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
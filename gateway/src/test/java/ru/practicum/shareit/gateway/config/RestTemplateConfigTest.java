@@ -0,0 +1,43 @@
+package ru.practicum.shareit.gateway.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.web.client.RestTemplate;
+import ru.practicum.shareit.gateway.upstream.UpstreamConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RestTemplateConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(RestTemplateConfig.class, UpstreamConfig.class)
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withPropertyValues(
+                    "shareit-server.url=http://localhost:9090",
+                    "shareit-server.upstreams.health-check.enabled=false");
+
+    @Test
+    void restTemplate_shouldUseConnectionPoolByDefault() {
+        contextRunner.run(context -> {
+            assertThat(context).hasSingleBean(PoolingHttpClientConnectionManager.class);
+            assertThat(context).hasSingleBean(CloseableHttpClient.class);
+            assertThat(context).hasBean("connectionPoolMetrics");
+            assertThat(context).hasSingleBean(RestTemplate.class);
+        });
+    }
+
+    @Test
+    void restTemplate_shouldNotCreateConnectionPoolForH2c() {
+        contextRunner.withPropertyValues("shareit-server.http-client.protocol=h2c").run(context -> {
+            assertThat(context).hasNotFailed();
+            assertThat(context).doesNotHaveBean(PoolingHttpClientConnectionManager.class);
+            assertThat(context).doesNotHaveBean(CloseableHttpClient.class);
+            assertThat(context).doesNotHaveBean("connectionPoolMetrics");
+            assertThat(context).hasSingleBean(RestTemplate.class);
+        });
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.gateway.resilience;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AimdLimiterTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(3).toNanos();
+
+    private AimdLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        ResilienceProperties.Limiter settings = new ResilienceProperties.Limiter();
+        settings.setInitialLimit(20);
+        settings.setMinLimit(5);
+        settings.setMaxLimit(22);
+        settings.setBackoffRatio(0.5);
+        settings.setLatencyThreshold(Duration.ofSeconds(2));
+        limiter = new AimdLimiter(settings);
+    }
+
+    @Test
+    void release_shouldBackOffMultiplicativelyDownToMinLimit() {
+        call(true, FAST);
+        assertThat(limiter.getLimit()).isEqualTo(10);
+
+        // Медленный ответ без ошибки тоже признак перегрузки
+        call(false, SLOW);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+
+        call(true, FAST);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    void release_shouldGrowByOneOnlyWhenLimitIsWellUsed() {
+        // Один вызов из 20 — предел не используется и не растёт
+        call(false, FAST);
+        assertThat(limiter.getLimit()).isEqualTo(20);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+        limiter.release(FAST, false);
+        assertThat(limiter.getLimit()).isEqualTo(21);
+        for (int i = 0; i < 9; i++) {
+            limiter.release(FAST, false);
+        }
+
+        for (int i = 0; i < 21; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+        limiter.release(FAST, false);
+        limiter.release(FAST, false);
+        // Не выше maxLimit
+        assertThat(limiter.getLimit()).isEqualTo(22);
+    }
+
+    @Test
+    void tryAcquire_shouldRejectCallsAboveLimit() {
+        for (int i = 0; i < 20; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(20);
+    }
+
+    private void call(boolean failed, long latencyNanos) {
+        assertThat(limiter.tryAcquire()).isTrue();
+        limiter.release(latencyNanos, failed);
+    }
+}
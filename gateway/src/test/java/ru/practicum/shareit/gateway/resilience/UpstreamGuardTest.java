@@ -0,0 +1,100 @@
+package ru.practicum.shareit.gateway.resilience;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UpstreamGuardTest {
+
+    private MeterRegistry meterRegistry;
+    private UpstreamGuard guard;
+    private ClientHttpRequestExecution execution;
+
+    @BeforeEach
+    void setUp() {
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.getBulkhead().setMaxConcurrent(1);
+        properties.getBulkhead().setMaxWait(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        guard = new UpstreamGuard(properties, meterRegistry);
+        execution = mock(ClientHttpRequestExecution.class);
+    }
+
+    @Test
+    void intercept_shouldHoldPermitsUntilResponseIsClosed() throws IOException {
+        when(execution.execute(any(), any())).thenReturn(new MockClientHttpResponse(new byte[]{1, 2}, HttpStatus.OK));
+
+        ClientHttpResponse response = guard.intercept(request(), new byte[0], execution);
+
+        // Тело ещё передаётся: место в bulkhead и пределе занято
+        assertThat(inFlight()).isEqualTo(1);
+        assertThatThrownBy(() -> guard.intercept(request(), new byte[0], execution))
+                .isInstanceOf(UpstreamUnavailableException.class);
+
+        response.getBody().readAllBytes();
+        response.close();
+        response.close();
+
+        assertThat(inFlight()).isZero();
+        guard.intercept(request(), new byte[0], execution).close();
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void intercept_shouldCountBodyReadFailureAsFailure() throws IOException {
+        MockClientHttpResponse broken = new MockClientHttpResponse(new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        }, HttpStatus.OK);
+        when(execution.execute(any(), any())).thenReturn(broken);
+        int limit = limit();
+
+        ClientHttpResponse response = guard.intercept(request(), new byte[0], execution);
+        assertThatThrownBy(() -> response.getBody().read()).isInstanceOf(IOException.class);
+        response.close();
+
+        assertThat(inFlight()).isZero();
+        assertThat(limit()).isLessThan(limit);
+    }
+
+    @Test
+    void intercept_shouldReleasePermitsWhenCallFails() throws IOException {
+        when(execution.execute(any(), any())).thenThrow(new IOException("connection refused"));
+
+        assertThatThrownBy(() -> guard.intercept(request(), new byte[0], execution)).isInstanceOf(IOException.class);
+
+        assertThat(inFlight()).isZero();
+    }
+
+    private static MockClientHttpRequest request() {
+        return new MockClientHttpRequest(HttpMethod.GET, URI.create("http://server/items/1"));
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("gateway.upstream.inflight").gauge().value();
+    }
+
+    private int limit() {
+        return (int) meterRegistry.get("gateway.upstream.limit").gauge().value();
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.gateway.upstream;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BalancerTest {
+
+    private final Upstream first = upstream("http://server-1:9090");
+    private final Upstream second = upstream("http://server-2:9090");
+    private final Upstream third = upstream("http://server-3:9090");
+
+    @Test
+    void roundRobin_shouldSpreadRequestsEvenly() {
+        List<Upstream> upstreams = List.of(first, second, third);
+        Map<Upstream, Integer> chosen = new HashMap<>();
+
+        for (int i = 0; i < 30; i++) {
+            chosen.merge(Balancer.ROUND_ROBIN.choose(upstreams), 1, Integer::sum);
+        }
+
+        assertThat(chosen).containsEntry(first, 10).containsEntry(second, 10).containsEntry(third, 10);
+    }
+
+    @Test
+    void leastOutstanding_shouldChooseLeastLoadedUpstream() {
+        load(first, 3);
+        load(second, 1);
+        load(third, 2);
+
+        assertThat(Balancer.LEAST_OUTSTANDING.choose(List.of(first, second, third))).isSameAs(second);
+    }
+
+    @Test
+    void powerOfTwoChoices_shouldNeverChooseBusiestOfDistinctPair() {
+        load(first, 5);
+        List<Upstream> upstreams = List.of(first, second, third);
+        Map<Upstream, Integer> chosen = new HashMap<>();
+
+        // Из двух разных экземпляров загруженный проигрывает всегда
+        for (int i = 0; i < 1000; i++) {
+            chosen.merge(Balancer.POWER_OF_TWO_CHOICES.choose(upstreams), 1, Integer::sum);
+        }
+
+        assertThat(chosen).doesNotContainKey(first).containsKeys(second, third);
+        assertThat(Balancer.POWER_OF_TWO_CHOICES.choose(List.of(first, second))).isSameAs(second);
+        assertThat(Balancer.POWER_OF_TWO_CHOICES.choose(List.of(first))).isSameAs(first);
+    }
+
+    private static void load(Upstream upstream, int requests) {
+        for (int i = 0; i < requests; i++) {
+            upstream.begin();
+        }
+    }
+
+    private static Upstream upstream(String uri) {
+        return new Upstream(URI.create(uri));
+    }
+}
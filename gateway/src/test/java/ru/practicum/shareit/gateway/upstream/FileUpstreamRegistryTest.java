@@ -0,0 +1,81 @@
+package ru.practicum.shareit.gateway.upstream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileUpstreamRegistryTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void getUpstreams_shouldSkipCommentsBlankLinesAndDuplicates() throws IOException {
+        Path file = write(dir.resolve("upstreams"), """
+                # основной кластер
+                http://server-1:9090
+
+                  http://server-2:9090
+                http://server-1:9090
+                """);
+
+        FileUpstreamRegistry registry = new FileUpstreamRegistry(file);
+
+        assertThat(registry.getUpstreams()).extracting(Upstream::getUri).containsExactly(
+                URI.create("http://server-1:9090"), URI.create("http://server-2:9090"));
+    }
+
+    @Test
+    void getUpstreams_shouldReloadChangedFileAndKeepStateOfRemainingUpstreams() throws Exception {
+        Path file = write(dir.resolve("upstreams"), "http://server-1:9090\nhttp://server-2:9090\n");
+        FileUpstreamRegistry registry = new FileUpstreamRegistry(file);
+        Upstream kept = registry.getUpstreams().getFirst();
+        kept.setHealthy(false);
+
+        write(file, "http://server-1:9090\nhttp://server-3:9090\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(60)));
+        Thread.sleep(1_100);
+
+        List<Upstream> upstreams = registry.getUpstreams();
+        assertThat(upstreams).extracting(Upstream::getUri).containsExactly(
+                URI.create("http://server-1:9090"), URI.create("http://server-3:9090"));
+        assertThat(upstreams.getFirst()).isSameAs(kept);
+        assertThat(upstreams.getFirst().isHealthy()).isFalse();
+    }
+
+    @Test
+    void getUpstreams_shouldKeepLastListWhenFileIsUnreadable() throws Exception {
+        Path file = write(dir.resolve("upstreams"), "http://server-1:9090\n");
+        FileUpstreamRegistry registry = new FileUpstreamRegistry(file);
+
+        Files.delete(file);
+        Thread.sleep(1_100);
+
+        assertThat(registry.getUpstreams()).extracting(Upstream::getUri)
+                .containsExactly(URI.create("http://server-1:9090"));
+    }
+
+    @Test
+    void fileUpstreamRegistry_shouldFailWithoutFileProperty() {
+        UpstreamProperties properties = new UpstreamProperties();
+        properties.setRegistry("file");
+
+        assertThatThrownBy(() -> new UpstreamConfig().fileUpstreamRegistry(properties))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("shareit-server.upstreams.file");
+    }
+
+    private static Path write(Path file, String content) throws IOException {
+        return Files.writeString(file, content);
+    }
+}
@@ -0,0 +1,173 @@
+package ru.practicum.shareit.gateway.upstream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoadBalancingInterceptorTest {
+
+    private static final URI SERVER_URL = URI.create("http://server:9090");
+
+    private final List<URI> targets = new ArrayList<>();
+    private UpstreamProperties properties;
+    private StaticUpstreamRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new UpstreamProperties();
+        properties.getOutlierEjection().setConsecutiveFailures(1);
+        properties.getOutlierEjection().setMaxEjectedPercent(50);
+        registry = new StaticUpstreamRegistry(List.of("http://server-1:9091", "http://server-2:9092"));
+    }
+
+    @Test
+    void intercept_shouldRetryOnAnotherUpstreamWhenConnectionRefused() throws IOException {
+        LoadBalancingInterceptor interceptor = new LoadBalancingInterceptor(SERVER_URL, registry, properties);
+        ClientHttpRequestExecution execution = (request, body) -> {
+            targets.add(request.getURI());
+            if (targets.size() == 1) {
+                throw new ConnectException("Connection refused");
+            }
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        };
+
+        ClientHttpResponse response = interceptor.intercept(request("/items/1?from=0"), new byte[0], execution);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(targets).hasSize(2);
+        assertThat(targets.get(0).getHost()).isNotEqualTo(targets.get(1).getHost());
+        assertThat(targets).allSatisfy(uri -> assertThat(uri.getRawPath() + "?" + uri.getRawQuery())
+                .isEqualTo("/items/1?from=0"));
+        // Отказавший экземпляр исключён после первой ошибки
+        assertThat(registry.getUpstreams()).filteredOn(u -> u.isEjected(System.nanoTime())).hasSize(1);
+    }
+
+    @Test
+    void intercept_shouldNotRetryAfterRequestReachedServer() {
+        LoadBalancingInterceptor interceptor = new LoadBalancingInterceptor(SERVER_URL, registry, properties);
+        ClientHttpRequestExecution execution = (request, body) -> {
+            targets.add(request.getURI());
+            throw new SocketTimeoutException("Read timed out");
+        };
+
+        assertThatThrownBy(() -> interceptor.intercept(request("/bookings"), new byte[0], execution))
+                .isInstanceOf(SocketTimeoutException.class);
+        assertThat(targets).hasSize(1);
+    }
+
+    @Test
+    void intercept_shouldNotEjectMoreThanMaxEjectedPercent() throws IOException {
+        LoadBalancingInterceptor interceptor = new LoadBalancingInterceptor(SERVER_URL, registry, properties);
+        ClientHttpRequestExecution execution = (request, body) -> {
+            targets.add(request.getURI());
+            return new MockClientHttpResponse(new byte[0], HttpStatus.INTERNAL_SERVER_ERROR);
+        };
+
+        interceptor.intercept(request("/items"), new byte[0], execution);
+        interceptor.intercept(request("/items"), new byte[0], execution);
+
+        // Второй запрос ушёл на оставшийся экземпляр, но его исключение превысило бы 50 %
+        assertThat(targets.get(0).getHost()).isNotEqualTo(targets.get(1).getHost());
+        long now = System.nanoTime();
+        assertThat(registry.getUpstreams()).filteredOn(u -> u.isEjected(now)).hasSize(1);
+        assertThat(registry.getUpstreams()).allSatisfy(u -> assertThat(u.getOutstanding()).isZero());
+    }
+
+    @Test
+    void intercept_shouldCountRequestOutstandingUntilResponseIsClosed() throws IOException {
+        LoadBalancingInterceptor interceptor = new LoadBalancingInterceptor(SERVER_URL, registry, properties);
+        ClientHttpRequestExecution execution = (request, body) ->
+                new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+
+        ClientHttpResponse response = interceptor.intercept(request("/items"), new byte[0], execution);
+
+        // Заголовки получены, тело ещё передаётся: запрос к экземпляру не завершён
+        assertThat(registry.getUpstreams()).extracting(Upstream::getOutstanding).containsExactlyInAnyOrder(0, 1);
+        response.close();
+        response.close();
+        assertThat(registry.getUpstreams()).allSatisfy(u -> assertThat(u.getOutstanding()).isZero());
+    }
+
+    @Test
+    void intercept_shouldSendRequestsOfOneUserToOneUpstream() throws IOException {
+        LoadBalancingInterceptor interceptor = new LoadBalancingInterceptor(SERVER_URL, registry, properties);
+        ClientHttpRequestExecution execution = (request, body) -> {
+            targets.add(request.getURI());
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        };
+
+        // Запись и следующие чтения пользователя попадают на экземпляр, который помнит его запись
+        interceptor.intercept(request(HttpMethod.PATCH, "/users/7", null), new byte[0], execution);
+        interceptor.intercept(request(HttpMethod.GET, "/users/7", null), new byte[0], execution);
+        interceptor.intercept(request(HttpMethod.GET, "/items", "7"), new byte[0], execution);
+        interceptor.intercept(request(HttpMethod.GET, "/bookings/owner", "7"), new byte[0], execution);
+        assertThat(targets).extracting(URI::getHost).containsOnly(targets.getFirst().getHost());
+
+        // Разные пользователи распределяются по обоим экземплярам
+        targets.clear();
+        for (int user = 1; user <= 20; user++) {
+            interceptor.intercept(request(HttpMethod.GET, "/items", String.valueOf(user)), new byte[0], execution);
+        }
+        assertThat(targets).extracting(URI::getHost).containsOnly("server-1", "server-2")
+                .contains("server-1", "server-2");
+    }
+
+    @Test
+    void intercept_shouldMoveUserOnlyWhenUpstreamIsEjected() throws IOException {
+        LoadBalancingInterceptor interceptor = new LoadBalancingInterceptor(SERVER_URL, registry, properties);
+        ClientHttpRequestExecution execution = (request, body) -> {
+            targets.add(request.getURI());
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        };
+        interceptor.intercept(request(HttpMethod.GET, "/items", "7"), new byte[0], execution);
+        String home = targets.getFirst().getHost();
+        registry.getUpstreams().stream()
+                .filter(upstream -> upstream.getUri().getHost().equals(home))
+                .forEach(upstream -> upstream.eject(System.nanoTime() + 60_000_000_000L));
+
+        interceptor.intercept(request(HttpMethod.GET, "/items", "7"), new byte[0], execution);
+
+        assertThat(targets.get(1).getHost()).isNotEqualTo(home);
+    }
+
+    @Test
+    void intercept_shouldPassThroughRequestsToOtherHosts() throws IOException {
+        LoadBalancingInterceptor interceptor = new LoadBalancingInterceptor(SERVER_URL, registry, properties);
+        ClientHttpRequestExecution execution = (request, body) -> {
+            targets.add(request.getURI());
+            return new MockClientHttpResponse(new byte[0], HttpStatus.OK);
+        };
+        URI external = URI.create("http://other:9090/items");
+
+        interceptor.intercept(new MockClientHttpRequest(HttpMethod.GET, external), new byte[0], execution);
+
+        assertThat(targets).containsExactly(external);
+    }
+
+    private static MockClientHttpRequest request(String pathAndQuery) {
+        return new MockClientHttpRequest(HttpMethod.GET, SERVER_URL.resolve(pathAndQuery));
+    }
+
+    private static MockClientHttpRequest request(HttpMethod method, String path, String userId) {
+        MockClientHttpRequest request = new MockClientHttpRequest(method, SERVER_URL.resolve(path));
+        if (userId != null) {
+            request.getHeaders().set("X-Sharer-User-Id", userId);
+        }
+        return request;
+    }
+}
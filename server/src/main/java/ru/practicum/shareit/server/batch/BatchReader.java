@@ -0,0 +1,94 @@
+package ru.practicum.shareit.server.batch;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Потоковое чтение строк импорта из JSON-массива или NDJSON (значения подряд, по одному в строке).
+ * В памяти одновременно только текущая пачка. Строка неподходящего вида становится ошибкой этой строки,
+ * а синтаксическая ошибка JSON завершает чтение: дальше разобрать вход уже нельзя.
+ */
+public class BatchReader<T> {
+
+    private final ObjectMapper objectMapper;
+    private final InputStream input;
+    private final Class<T> type;
+
+    private JsonParser parser;
+    private JsonToken current;
+    private boolean array;
+    private boolean finished;
+    private int index;
+
+    public BatchReader(ObjectMapper objectMapper, InputStream input, Class<T> type) {
+        this(objectMapper, input, type, 0);
+    }
+
+    // firstRow — номер первой строки входа: гейтвей присылает большой импорт частями
+    public BatchReader(ObjectMapper objectMapper, InputStream input, Class<T> type, int firstRow) {
+        this.objectMapper = objectMapper;
+        this.input = input;
+        this.type = type;
+        this.index = firstRow;
+    }
+
+    // Следующие строки, не больше size; пустой список — вход закончился
+    public List<BatchRow<T>> nextChunk(int size) {
+        List<BatchRow<T>> rows = new ArrayList<>();
+        while (rows.size() < size && !finished) {
+            BatchRow<T> row = readRow();
+            if (row != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private BatchRow<T> readRow() {
+        JsonNode node;
+        try {
+            if (parser == null) {
+                open();
+            }
+            if (current == null || current == JsonToken.END_ARRAY && array) {
+                finished = true;
+                return null;
+            }
+            node = parser.readValueAsTree();
+            current = parser.nextToken();
+        } catch (JsonProcessingException e) {
+            finished = true;
+            return new BatchRow<>(index++, null, "Malformed JSON: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int row = index++;
+        if (node == null || node.isNull()) {
+            return new BatchRow<>(row, null, null);
+        }
+        try {
+            return new BatchRow<>(row, objectMapper.treeToValue(node, type), null);
+        } catch (JsonProcessingException e) {
+            return new BatchRow<>(row, null, e.getOriginalMessage());
+        }
+    }
+
+    private void open() throws IOException {
+        parser = objectMapper.createParser(input);
+        current = parser.nextToken();
+        if (current == JsonToken.START_ARRAY) {
+            array = true;
+            current = parser.nextToken();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.server.batch;
+
+/**
+ * Строка пакетного импорта: номер во входных данных (с нуля) и значение либо ошибка разбора.
+ * Строка {@code null} без ошибки — отклонённая гейтвеем при проверке; она только занимает номер.
+ */
+public record BatchRow<T>(int index, T value, String error) {
+
+    public boolean isSkipped() {
+        return value == null && error == null;
+    }
+}
@@ -0,0 +1,137 @@
+package ru.practicum.shareit.server.batch;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.server.batch.BatchImportResult.RowError;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сохраняет строки импорта пачками по shareit.batch.chunk-size, каждую пачку в своей транзакции.
+ * Ошибка базы откатывает только свою пачку: её строки попадают в ошибки, импорт продолжается.
+ * После пачки контекст персистентности очищается, чтобы сохранённые сущности не копились до конца запроса.
+ * <p>
+ * С ключом импорта (заголовок X-Import-Key) каждая сохранённая пачка записывается в batch_import_chunks
+ * в той же транзакции. Повтор с тем же ключом — после таймаута или обрыва соединения — пропускает
+ * записанные пачки и учитывает их в imported, поэтому строки не дублируются. Ошибки строк пропущенных
+ * пачек при повторе не возвращаются. Записи старше shareit.batch.import-key-retention удаляются
+ * в начале следующего импорта с ключом. Пачки с другим размером делят вход иначе и не совпали бы
+ * с сохранёнными, поэтому повтор после изменения shareit.batch.chunk-size отклоняется целиком.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChunkedImporter {
+
+    public static final String IMPORT_KEY_HEADER = "X-Import-Key";
+    // Номер первой строки тела: гейтвей делит большой импорт на части, и номера ошибок остаются сквозными
+    public static final String FIRST_ROW_HEADER = "X-Import-First-Row";
+
+    private static final int MAX_IMPORT_KEY_LENGTH = 255;
+
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManager entityManager;
+    private final ImportChunkRepository importChunkRepository;
+
+    @Value("${shareit.batch.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${shareit.batch.import-key-retention:24h}")
+    private Duration importKeyRetention;
+
+    public <T> BatchImportResult run(BatchReader<T> reader, ChunkWriter<T> writer) {
+        return run(reader, null, writer);
+    }
+
+    // importKey — ключ импорта вместе с областью (владелец, сущность); null — импорт без повторов
+    public <T> BatchImportResult run(BatchReader<T> reader, String importKey, ChunkWriter<T> writer) {
+        if (importKey != null) {
+            if (importKey.length() > MAX_IMPORT_KEY_LENGTH) {
+                throw new IllegalArgumentException("Import key is too long");
+            }
+            importChunkRepository.deleteCreatedBefore(LocalDateTime.now().minus(importKeyRetention));
+            if (importChunkRepository.existsByImportKeyAndChunkSizeNot(importKey, chunkSize)) {
+                throw new IllegalStateException("Import key was used with a different chunk size");
+            }
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<RowError> errors = new ArrayList<>();
+        int received = 0;
+        int imported = 0;
+
+        for (List<BatchRow<T>> chunk = reader.nextChunk(chunkSize); !chunk.isEmpty();
+             chunk = reader.nextChunk(chunkSize)) {
+            received += chunk.size();
+            List<BatchRow<T>> rows = new ArrayList<>();
+            for (BatchRow<T> row : chunk) {
+                if (row.error() != null) {
+                    errors.add(new RowError(row.index(), row.error()));
+                } else if (!row.isSkipped()) {
+                    rows.add(row);
+                }
+            }
+            if (rows.isEmpty()) {
+                continue;
+            }
+
+            // Пачка определяется номером своей первой строки: при повторе вход делится на те же пачки
+            int firstRow = chunk.get(0).index();
+            Integer committed = committedRows(importKey, firstRow);
+            if (committed != null) {
+                imported += committed;
+                continue;
+            }
+
+            List<RowError> chunkErrors = new ArrayList<>();
+            try {
+                Integer saved = transaction.execute(status -> {
+                    int written = writer.write(rows, chunkErrors);
+                    if (importKey != null) {
+                        importChunkRepository.insert(importKey, firstRow, chunkSize, written, LocalDateTime.now());
+                    }
+                    return written;
+                });
+                imported += saved != null ? saved : 0;
+                errors.addAll(chunkErrors);
+            } catch (DataAccessException | TransactionException e) {
+                // Параллельный повтор с тем же ключом мог сохранить пачку раньше: тогда наша вставка
+                // записи пачки нарушила первичный ключ, а строки уже в базе
+                committed = committedRows(importKey, firstRow);
+                if (committed != null) {
+                    imported += committed;
+                    continue;
+                }
+                String message = "Chunk rolled back: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+                rows.forEach(row -> errors.add(new RowError(row.index(), message)));
+            } finally {
+                entityManager.clear();
+            }
+        }
+        return new BatchImportResult(received, imported, errors);
+    }
+
+    private Integer committedRows(String importKey, int firstRow) {
+        if (importKey == null) {
+            return null;
+        }
+        return importChunkRepository.findById(new ImportChunk.Key(importKey, firstRow))
+                .map(ImportChunk::getImported)
+                .orElse(null);
+    }
+
+    @FunctionalInterface
+    public interface ChunkWriter<T> {
+
+        // Сохраняет строки пачки в текущей транзакции, отклонённые добавляет в errors; возвращает число сохранённых
+        int write(List<BatchRow<T>> rows, List<RowError> errors);
+    }
+}
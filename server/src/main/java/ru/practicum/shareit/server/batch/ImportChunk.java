@@ -0,0 +1,57 @@
+package ru.practicum.shareit.server.batch;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Зафиксированная пачка импорта с ключом X-Import-Key: пачка определяется ключом и номером
+ * своей первой строки при размере пачки chunkSize. Запись сохраняется в транзакции пачки, поэтому
+ * повтор импорта с тем же ключом пропускает ровно те пачки, что уже сохранены.
+ */
+@Entity
+@Table(name = "batch_import_chunks")
+@IdClass(ImportChunk.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportChunk {
+
+    @Id
+    @Column(name = "import_key")
+    private String importKey;
+
+    @Id
+    @Column(name = "first_row")
+    private Integer firstRow;
+
+    @Column(name = "chunk_size", nullable = false)
+    private Integer chunkSize;
+
+    @Column(nullable = false)
+    private Integer imported;
+
+    @Column(nullable = false)
+    private LocalDateTime created;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private String importKey;
+
+        private Integer firstRow;
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.server.batch;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface ImportChunkRepository extends JpaRepository<ImportChunk, ImportChunk.Key> {
+
+    // Вставка без предварительного SELECT, который save сделал бы для сущности с заданным id.
+    // Параллельная попытка с тем же ключом ждёт на первичном ключе и получает ошибку уникальности
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO batch_import_chunks (import_key, first_row, chunk_size, imported, created) " +
+            "VALUES (:importKey, :firstRow, :chunkSize, :imported, :created)", nativeQuery = true)
+    void insert(@Param("importKey") String importKey,
+                @Param("firstRow") int firstRow,
+                @Param("chunkSize") int chunkSize,
+                @Param("imported") int imported,
+                @Param("created") LocalDateTime created);
+
+    boolean existsByImportKeyAndChunkSizeNot(String importKey, Integer chunkSize);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ImportChunk c WHERE c.created < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.server.booking.availability;
+
+import ru.practicum.shareit.server.booking.model.Booking;
+import ru.practicum.shareit.server.booking.status.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+
+/**
+ * Интервал бронирования вещи в {@link ItemAvailabilityIndex}.
+ */
+public record BookingSlot(Long id, Long itemId, Long bookerId, LocalDateTime start, LocalDateTime end,
+                          BookingStatus status) {
+
+    static final Comparator<BookingSlot> BY_START = Comparator.comparing(BookingSlot::start)
+            .thenComparing(BookingSlot::id);
+
+    public BookingSlot {
+        // База хранит время с точностью до микросекунд и округляет при записи
+        start = roundToMicros(start);
+        end = roundToMicros(end);
+    }
+
+    public static BookingSlot of(Booking booking) {
+        return new BookingSlot(booking.getId(), booking.getItem().getId(), booking.getBooker().getId(),
+                booking.getStart(), booking.getEnd(), booking.getStatus());
+    }
+
+    static LocalDateTime roundToMicros(LocalDateTime time) {
+        return time.plusNanos(500).truncatedTo(ChronoUnit.MICROS);
+    }
+
+    boolean isActive() {
+        return status == BookingStatus.WAITING || status == BookingStatus.APPROVED;
+    }
+
+    boolean isApproved() {
+        return status == BookingStatus.APPROVED;
+    }
+}
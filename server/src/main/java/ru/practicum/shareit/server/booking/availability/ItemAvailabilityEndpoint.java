@@ -0,0 +1,24 @@
+package ru.practicum.shareit.server.booking.availability;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * GET /actuator/availability — сверка {@link ItemAvailabilityIndex} с таблицей bookings.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.booking.availability-index", havingValue = "true")
+@Endpoint(id = "availability")
+public class ItemAvailabilityEndpoint {
+
+    private final ItemAvailabilityIndex availabilityIndex;
+
+    @ReadOperation
+    public ItemAvailabilityIndex.ConsistencyReport verify() {
+        return availabilityIndex.verify();
+    }
+}
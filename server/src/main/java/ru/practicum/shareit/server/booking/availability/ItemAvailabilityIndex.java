@@ -0,0 +1,245 @@
+package ru.practicum.shareit.server.booking.availability;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.server.booking.model.Booking;
+import ru.practicum.shareit.server.booking.repository.BookingRepository;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Расписание активных бронирований (WAITING/APPROVED) каждой вещи в памяти сервера.
+ * Отвечает на вопросы «последнее/следующее бронирование» и «свободна ли вещь в интервале»
+ * за O(log n) без обращения к базе.
+ * Активные бронирования одной вещи не пересекаются (см. excl_bookings_item_period), поэтому
+ * интервалы упорядочены по началу и по концу одновременно, и дерева по началу интервала достаточно.
+ * Индекс заполняется из базы при создании контекста — до того, как сервер начинает принимать
+ * запросы, поэтому обновления не могут прийти во время заполнения, — и обновляется после фиксации
+ * транзакций бронирования и удаления пользователей.
+ * Закончившиеся бронирования удаляются при следующем изменении расписания вещи: остаётся только
+ * последнее одобренное (его показывает lastBooking).
+ * BookingServiceImpl по isFree отклоняет бронирование занятых дат без блокировки вещи и запроса к базе.
+ * Изменения, сделанные другими экземплярами сервера, сюда не попадают: индекс рассчитан на один
+ * экземпляр и при нескольких (shareit-server.upstreams.* в гейтвее) должен быть выключен.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.booking.availability-index", havingValue = "true")
+public class ItemAvailabilityIndex implements SmartInitializingSingleton {
+
+    private final BookingRepository bookingRepository;
+    // Часы, по которым бронирование считается закончившимся
+    private final Clock clock;
+
+    private final Map<Long, ItemTimeline> timelines = new ConcurrentHashMap<>();
+
+    // Где сейчас лежит бронирование: нужно, чтобы убрать старый интервал при смене статуса
+    private final Map<Long, BookingSlot> slots = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ItemAvailabilityIndex(BookingRepository bookingRepository) {
+        this(bookingRepository, Clock.systemDefaultZone());
+    }
+
+    public ItemAvailabilityIndex(BookingRepository bookingRepository, Clock clock) {
+        this.bookingRepository = bookingRepository;
+        this.clock = clock;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        warmUp();
+    }
+
+    // Первичное заполнение индекса из базы
+    public synchronized void warmUp() {
+        bookingRepository.findActiveSlots().forEach(this::put);
+        prune(LocalDateTime.now(clock));
+    }
+
+    public Optional<BookingSlot> lastBooking(Long itemId, LocalDateTime now) {
+        ItemTimeline timeline = timelines.get(itemId);
+        return timeline == null ? Optional.empty() : timeline.lastApproved(now);
+    }
+
+    public Optional<BookingSlot> nextBooking(Long itemId, LocalDateTime now) {
+        ItemTimeline timeline = timelines.get(itemId);
+        return timeline == null ? Optional.empty() : timeline.nextApproved(now);
+    }
+
+    // Нет активных бронирований, пересекающих [start, end); границы округляются так же, как в индексе
+    public boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        ItemTimeline timeline = timelines.get(itemId);
+        return timeline == null
+                || timeline.isFree(BookingSlot.roundToMicros(start), BookingSlot.roundToMicros(end));
+    }
+
+    public void update(Booking booking) {
+        BookingSlot slot = BookingSlot.of(booking);
+        afterCommit(() -> put(slot));
+    }
+
+    // С пользователем база каскадом удаляет его бронирования и его вещи вместе с их бронированиями
+    public void removeUser(Long userId, Collection<Long> ownedItemIds) {
+        Set<Long> itemIds = Set.copyOf(ownedItemIds);
+        afterCommit(() -> removeIf(slot -> slot.bookerId().equals(userId) || itemIds.contains(slot.itemId())));
+    }
+
+    // Изменения попадают в индекс только после фиксации транзакции
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Сверка индекса с базой: бронирования, которых нет в индексе, и записи индекса, расходящиеся с базой
+    // Сравнение идёт после удаления закончившихся бронирований из обеих сторон на один момент времени
+    public ConsistencyReport verify() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        Map<Long, ItemTimeline> database = new HashMap<>();
+        bookingRepository.findActiveSlots().forEach(slot ->
+                database.computeIfAbsent(slot.itemId(), id -> new ItemTimeline()).add(slot));
+        database.values().forEach(timeline -> timeline.prune(now));
+        Map<Long, BookingSlot> expected = database.values().stream()
+                .flatMap(timeline -> timeline.slots().stream())
+                .collect(Collectors.toMap(BookingSlot::id, Function.identity()));
+        Map<Long, BookingSlot> actual;
+        synchronized (this) {
+            prune(now);
+            actual = new HashMap<>(slots);
+        }
+
+        List<Long> missing = new ArrayList<>();
+        List<Long> stale = new ArrayList<>();
+        expected.forEach((id, slot) -> {
+            BookingSlot indexed = actual.remove(id);
+            if (indexed == null) {
+                missing.add(id);
+            } else if (!indexed.equals(slot)) {
+                stale.add(id);
+            }
+        });
+        stale.addAll(actual.keySet());
+
+        return new ConsistencyReport(missing.isEmpty() && stale.isEmpty(), expected.size(), slots.size(),
+                missing, stale);
+    }
+
+    private synchronized void put(BookingSlot slot) {
+        BookingSlot previous = slot.isActive() ? slots.put(slot.id(), slot) : slots.remove(slot.id());
+        if (previous != null) {
+            timelines.get(previous.itemId()).remove(previous);
+        }
+        if (slot.isActive()) {
+            ItemTimeline timeline = timelines.computeIfAbsent(slot.itemId(), id -> new ItemTimeline());
+            timeline.add(slot);
+            timeline.prune(LocalDateTime.now(clock)).forEach(ended -> slots.remove(ended.id()));
+        }
+    }
+
+    private synchronized void prune(LocalDateTime now) {
+        timelines.values().forEach(timeline -> timeline.prune(now).forEach(ended -> slots.remove(ended.id())));
+        timelines.values().removeIf(ItemTimeline::isEmpty);
+    }
+
+    private synchronized void removeIf(Predicate<BookingSlot> condition) {
+        slots.values().removeIf(slot -> {
+            if (!condition.test(slot)) {
+                return false;
+            }
+            timelines.get(slot.itemId()).remove(slot);
+            return true;
+        });
+        timelines.values().removeIf(ItemTimeline::isEmpty);
+    }
+
+    public record ConsistencyReport(boolean consistent, int databaseBookings, int indexedBookings,
+                                    List<Long> missing, List<Long> stale) {
+    }
+
+    private static class ItemTimeline {
+
+        private final NavigableSet<BookingSlot> active = new TreeSet<>(BookingSlot.BY_START);
+        private final NavigableSet<BookingSlot> approved = new TreeSet<>(BookingSlot.BY_START);
+
+        synchronized void add(BookingSlot slot) {
+            active.add(slot);
+            if (slot.isApproved()) {
+                approved.add(slot);
+            }
+        }
+
+        synchronized void remove(BookingSlot slot) {
+            active.remove(slot);
+            approved.remove(slot);
+        }
+
+        synchronized boolean isEmpty() {
+            return active.isEmpty();
+        }
+
+        synchronized List<BookingSlot> slots() {
+            return List.copyOf(active);
+        }
+
+        // Убирает закончившиеся к now бронирования, кроме последнего одобренного; возвращает убранные
+        synchronized List<BookingSlot> prune(LocalDateTime now) {
+            BookingSlot last = approved.lower(probe(now, Long.MIN_VALUE));
+            List<BookingSlot> ended = new ArrayList<>();
+            for (BookingSlot slot : active) {
+                if (!slot.start().isBefore(now)) {
+                    break;
+                }
+                if (!slot.end().isAfter(now) && slot != last) {
+                    ended.add(slot);
+                }
+            }
+            ended.forEach(this::remove);
+            return ended;
+        }
+
+        // Начавшееся до now бронирование с самым поздним окончанием
+        synchronized Optional<BookingSlot> lastApproved(LocalDateTime now) {
+            return Optional.ofNullable(approved.lower(probe(now, Long.MIN_VALUE)));
+        }
+
+        // Ближайшее бронирование, начинающееся после now
+        synchronized Optional<BookingSlot> nextApproved(LocalDateTime now) {
+            return Optional.ofNullable(approved.higher(probe(now, Long.MAX_VALUE)));
+        }
+
+        // Интервалы не пересекаются: достаточно проверить последний, начавшийся до end
+        synchronized boolean isFree(LocalDateTime start, LocalDateTime end) {
+            BookingSlot before = active.lower(probe(end, Long.MIN_VALUE));
+            return before == null || !before.end().isAfter(start);
+        }
+
+        private static BookingSlot probe(LocalDateTime start, long id) {
+            return new BookingSlot(id, null, null, start, start, null);
+        }
+    }
+}
@@ -3,8 +3,11 @@ package ru.practicum.shareit.server.booking.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.server.booking.dto.BookingDto;
 import ru.practicum.shareit.server.booking.service.BookingService;
+import ru.practicum.shareit.server.etag.Tagged;
+import ru.practicum.shareit.server.pagination.KeysetCursor;
 
 import java.util.List;
 
@@ -29,24 +32,47 @@ public class BookingController {
         return ResponseEntity.ok(bookingService.approveBooking(ownerId, bookingId, approved));
     }
 
+    // Клиенты опрашивают статус бронирования с If-None-Match и получают 304, пока оно не изменилось
     @GetMapping("/{bookingId}")
     public ResponseEntity<BookingDto> getBooking(
             @RequestHeader("X-Sharer-User-Id") Long userId,
-            @PathVariable("bookingId") Long bookingId) {
-        return ResponseEntity.ok(bookingService.getBooking(userId, bookingId));
+            @PathVariable("bookingId") Long bookingId,
+            WebRequest request) {
+        Tagged<BookingDto> booking = bookingService.getTaggedBooking(userId, bookingId);
+        if (request.checkNotModified(booking.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(booking.etag()).body(booking.body());
     }
 
     @GetMapping
     public ResponseEntity<List<BookingDto>> getUserBookings(
             @RequestHeader("X-Sharer-User-Id") Long userId,
-            @RequestParam(defaultValue = "ALL") String state) {
-        return ResponseEntity.ok(bookingService.getUserBookings(userId, state));
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(defaultValue = "0") int from,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        return withNextCursor(bookingService.getUserBookings(userId, state, from, size, cursor), size);
     }
 
     @GetMapping("/owner")
     public ResponseEntity<List<BookingDto>> getOwnerBookings(
             @RequestHeader("X-Sharer-User-Id") Long ownerId,
-            @RequestParam(defaultValue = "ALL") String state) {
-        return ResponseEntity.ok(bookingService.getOwnerBookings(ownerId, state));
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(defaultValue = "0") int from,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        return withNextCursor(bookingService.getOwnerBookings(ownerId, state, from, size, cursor), size);
+    }
+
+    // Если страница заполнена целиком, клиент получает курсор для запроса следующей
+    private ResponseEntity<List<BookingDto>> withNextCursor(List<BookingDto> bookings, int size) {
+        if (bookings.size() < size) {
+            return ResponseEntity.ok(bookings);
+        }
+        BookingDto last = bookings.getLast();
+        return ResponseEntity.ok()
+                .header(KeysetCursor.NEXT_CURSOR_HEADER, new KeysetCursor(last.getStart(), last.getId()).encode())
+                .body(bookings);
     }
 }
\ No newline at end of file
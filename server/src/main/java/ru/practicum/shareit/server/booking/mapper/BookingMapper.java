@@ -1,8 +1,12 @@
 package ru.practicum.shareit.server.booking.mapper;
 
+import ru.practicum.shareit.server.booking.availability.BookingSlot;
+import ru.practicum.shareit.server.booking.dto.BookingShortDto;
 import ru.practicum.shareit.server.booking.model.Booking;
+import ru.practicum.shareit.server.booking.repository.BookingView;
 import ru.practicum.shareit.server.booking.status.BookingStatus;
 import ru.practicum.shareit.server.booking.dto.BookingDto;
+import ru.practicum.shareit.server.item.dto.ItemDto;
 import ru.practicum.shareit.server.item.mapper.ItemMapper;
 import ru.practicum.shareit.server.item.model.Item;
 import ru.practicum.shareit.server.user.dto.UserDto;
@@ -25,6 +29,39 @@ public class BookingMapper {
                 .build();
     }
 
+    public static BookingDto toBookingDto(BookingView view) {
+        return BookingDto.builder()
+                .id(view.id())
+                .start(view.start())
+                .end(view.end())
+                .itemId(view.itemId())
+                .item(ItemDto.builder()
+                        .id(view.itemId())
+                        .name(view.itemName())
+                        .description(view.itemDescription())
+                        .available(view.itemAvailable())
+                        .requestId(view.itemRequestId())
+                        .build())
+                .bookerId(view.bookerId())
+                .booker(new UserDto(view.bookerId(), view.bookerName(), view.bookerEmail()))
+                .status(view.status())
+                .build();
+    }
+
+    public static BookingShortDto toBookingShortDto(Booking booking) {
+        return BookingShortDto.builder()
+                .id(booking.getId())
+                .bookerId(booking.getBooker().getId())
+                .build();
+    }
+
+    public static BookingShortDto toBookingShortDto(BookingSlot slot) {
+        return BookingShortDto.builder()
+                .id(slot.id())
+                .bookerId(slot.bookerId())
+                .build();
+    }
+
     public static Booking toBooking(BookingDto bookingDto, Item item, User booker) {
         return Booking.builder()
                 .start(bookingDto.getStart())
@@ -1,38 +1,105 @@
 package ru.practicum.shareit.server.booking.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.server.booking.availability.BookingSlot;
 import ru.practicum.shareit.server.booking.model.Booking;
 import ru.practicum.shareit.server.booking.status.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
-    List<Booking> findByBookerIdOrderByStartDesc(Long bookerId);
-
-    List<Booking> findByItem_Owner_IdOrderByStartDesc(Long ownerId);
-
-    List<Booking> findByBookerIdAndStatusOrderByStartDesc(Long bookerId, BookingStatus status);
-
-    List<Booking> findByItem_Owner_IdAndStatusOrderByStartDesc(Long ownerId, BookingStatus status);
-
-    List<Booking> findByBookerIdAndEndBeforeOrderByStartDesc(Long bookerId, LocalDateTime now);
-
-    List<Booking> findByBookerIdAndStartAfterOrderByStartDesc(Long bookerId, LocalDateTime now);
-
-    @Query("SELECT b FROM Booking b WHERE b.booker.id = :bookerId AND b.start <= :now AND b.end >= :now ORDER BY b.start DESC")
-    List<Booking> findCurrentBookingsForUser(@Param("bookerId") Long bookerId, @Param("now") LocalDateTime now);
-
-    @Query("SELECT b FROM Booking b WHERE b.item.owner.id = :ownerId AND b.start <= :now AND b.end >= :now ORDER BY b.start DESC")
-    List<Booking> findCurrentBookingsForOwner(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
-
-    List<Booking> findByItem_Owner_IdAndEndBeforeOrderByStartDesc(Long ownerId, LocalDateTime now);
-
-    List<Booking> findByItem_Owner_IdAndStartAfterOrderByStartDesc(Long ownerId, LocalDateTime now);
+    // Условие keyset-пагинации: записи строго после курсора в порядке (start DESC, id DESC).
+    // Сравнение строк без IS NULL: параметры всегда типизированы, а условие остаётся диапазоном по индексу
+    String AFTER_CURSOR = " AND (b.start, b.id) < (:cursorStart, :cursorId) " +
+            "ORDER BY b.start DESC, b.id DESC";
+
+    // Списки бронирований выбираются сразу в BookingView: без сущностей, снимков и проверки изменений
+    String VIEW = "SELECT new ru.practicum.shareit.server.booking.repository.BookingView(" +
+            "b.id, b.start, b.end, b.status, i.id, i.name, i.description, i.available, i.request.id, " +
+            "u.id, u.name, u.email) FROM Booking b JOIN b.item i JOIN b.booker u ";
+
+    // Одно бронирование вместе с вещью и арендатором для getBooking/approveBooking
+    @Override
+    @EntityGraph("Booking.withItemAndBooker")
+    Optional<Booking> findById(Long id);
+
+    @Query(VIEW + "WHERE b.booker.id = :bookerId" + AFTER_CURSOR)
+    List<BookingView> findByBookerId(@Param("bookerId") Long bookerId,
+                                     @Param("cursorStart") LocalDateTime cursorStart,
+                                     @Param("cursorId") Long cursorId,
+                                     Pageable page);
+
+    @Query(VIEW + "WHERE b.ownerId = :ownerId" + AFTER_CURSOR)
+    List<BookingView> findByOwnerId(@Param("ownerId") Long ownerId,
+                                    @Param("cursorStart") LocalDateTime cursorStart,
+                                    @Param("cursorId") Long cursorId,
+                                    Pageable page);
+
+    @Query(VIEW + "WHERE b.booker.id = :bookerId AND b.status = :status" + AFTER_CURSOR)
+    List<BookingView> findByBookerIdAndStatus(@Param("bookerId") Long bookerId,
+                                              @Param("status") BookingStatus status,
+                                              @Param("cursorStart") LocalDateTime cursorStart,
+                                              @Param("cursorId") Long cursorId,
+                                              Pageable page);
+
+    @Query(VIEW + "WHERE b.ownerId = :ownerId AND b.status = :status" + AFTER_CURSOR)
+    List<BookingView> findByOwnerIdAndStatus(@Param("ownerId") Long ownerId,
+                                             @Param("status") BookingStatus status,
+                                             @Param("cursorStart") LocalDateTime cursorStart,
+                                             @Param("cursorId") Long cursorId,
+                                             Pageable page);
+
+    @Query(VIEW + "WHERE b.booker.id = :bookerId AND b.end < :now" + AFTER_CURSOR)
+    List<BookingView> findPastBookingsForUser(@Param("bookerId") Long bookerId,
+                                              @Param("now") LocalDateTime now,
+                                              @Param("cursorStart") LocalDateTime cursorStart,
+                                              @Param("cursorId") Long cursorId,
+                                              Pageable page);
+
+    @Query(VIEW + "WHERE b.booker.id = :bookerId AND b.start > :now" + AFTER_CURSOR)
+    List<BookingView> findFutureBookingsForUser(@Param("bookerId") Long bookerId,
+                                                @Param("now") LocalDateTime now,
+                                                @Param("cursorStart") LocalDateTime cursorStart,
+                                                @Param("cursorId") Long cursorId,
+                                                Pageable page);
+
+    @Query(VIEW + "WHERE b.booker.id = :bookerId AND b.start <= :now AND b.end >= :now" +
+            AFTER_CURSOR)
+    List<BookingView> findCurrentBookingsForUser(@Param("bookerId") Long bookerId,
+                                                 @Param("now") LocalDateTime now,
+                                                 @Param("cursorStart") LocalDateTime cursorStart,
+                                                 @Param("cursorId") Long cursorId,
+                                                 Pageable page);
+
+    @Query(VIEW + "WHERE b.ownerId = :ownerId AND b.end < :now" + AFTER_CURSOR)
+    List<BookingView> findPastBookingsForOwner(@Param("ownerId") Long ownerId,
+                                               @Param("now") LocalDateTime now,
+                                               @Param("cursorStart") LocalDateTime cursorStart,
+                                               @Param("cursorId") Long cursorId,
+                                               Pageable page);
+
+    @Query(VIEW + "WHERE b.ownerId = :ownerId AND b.start > :now" + AFTER_CURSOR)
+    List<BookingView> findFutureBookingsForOwner(@Param("ownerId") Long ownerId,
+                                                 @Param("now") LocalDateTime now,
+                                                 @Param("cursorStart") LocalDateTime cursorStart,
+                                                 @Param("cursorId") Long cursorId,
+                                                 Pageable page);
+
+    @Query(VIEW + "WHERE b.ownerId = :ownerId AND b.start <= :now AND b.end >= :now" +
+            AFTER_CURSOR)
+    List<BookingView> findCurrentBookingsForOwner(@Param("ownerId") Long ownerId,
+                                                  @Param("now") LocalDateTime now,
+                                                  @Param("cursorStart") LocalDateTime cursorStart,
+                                                  @Param("cursorId") Long cursorId,
+                                                  Pageable page);
 
     @Query("SELECT COUNT(b) > 0 FROM Booking b " +
             "WHERE b.booker.id = :bookerId " +
@@ -43,9 +110,43 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                                                   @Param("itemId") Long itemId,
                                                   @Param("currentTime") LocalDateTime currentTime);
 
+    // Есть ли у вещи активное бронирование (WAITING/APPROVED), пересекающее интервал [start, end)
+    @Query("SELECT COUNT(b) > 0 FROM Booking b " +
+            "WHERE b.item.id = :itemId " +
+            "AND b.status IN ('WAITING', 'APPROVED') " +
+            "AND b.start < :end " +
+            "AND b.end > :start")
+    boolean existsOverlapping(@Param("itemId") Long itemId,
+                              @Param("start") LocalDateTime start,
+                              @Param("end") LocalDateTime end);
+
     // Поиск  последнего бронирования вещи
     Optional<Booking> findTopByItem_IdAndStartBeforeAndStatusOrderByEndDesc(Long itemId, LocalDateTime now, BookingStatus status);
 
     // Поиск следующего бронирование вещи
     Optional<Booking> findTopByItem_IdAndStartAfterAndStatusOrderByStartAsc(Long itemId, LocalDateTime now, BookingStatus status);
-}
\ No newline at end of file
+
+    // Последние бронирования сразу для набора вещей (по одному на вещь)
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.id IN :itemIds AND b.status = :status AND b.start < :now " +
+            "AND b.end = (SELECT MAX(l.end) FROM Booking l " +
+            "WHERE l.item.id = b.item.id AND l.status = :status AND l.start < :now)")
+    List<Booking> findLastBookingsForItems(@Param("itemIds") Collection<Long> itemIds,
+                                           @Param("now") LocalDateTime now,
+                                           @Param("status") BookingStatus status);
+
+    // Следующие бронирования сразу для набора вещей (по одному на вещь)
+    @Query("SELECT b FROM Booking b " +
+            "WHERE b.item.id IN :itemIds AND b.status = :status AND b.start > :now " +
+            "AND b.start = (SELECT MIN(n.start) FROM Booking n " +
+            "WHERE n.item.id = b.item.id AND n.status = :status AND n.start > :now)")
+    List<Booking> findNextBookingsForItems(@Param("itemIds") Collection<Long> itemIds,
+                                           @Param("now") LocalDateTime now,
+                                           @Param("status") BookingStatus status);
+
+    // Активные бронирования всех вещей для индекса доступности
+    @Query("SELECT new ru.practicum.shareit.server.booking.availability.BookingSlot(" +
+            "b.id, b.item.id, b.booker.id, b.start, b.end, b.status) " +
+            "FROM Booking b WHERE b.status IN ('WAITING', 'APPROVED')")
+    List<BookingSlot> findActiveSlots();
+}
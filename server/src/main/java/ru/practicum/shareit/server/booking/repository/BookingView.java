@@ -0,0 +1,14 @@
+package ru.practicum.shareit.server.booking.repository;
+
+import ru.practicum.shareit.server.booking.status.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка списка бронирований: поля бронирования, вещи и арендатора, которые попадают в ответ.
+ * Выбирается конструктором в JPQL, поэтому сущности не загружаются в контекст персистентности.
+ */
+public record BookingView(Long id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                          Long itemId, String itemName, String itemDescription, Boolean itemAvailable,
+                          Long itemRequestId, Long bookerId, String bookerName, String bookerEmail) {
+}
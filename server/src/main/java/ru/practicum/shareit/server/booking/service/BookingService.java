@@ -1,6 +1,7 @@
 package ru.practicum.shareit.server.booking.service;
 
 import ru.practicum.shareit.server.booking.dto.BookingDto;
+import ru.practicum.shareit.server.etag.Tagged;
 
 import java.util.List;
 
@@ -11,7 +12,10 @@ public interface BookingService {
 
     BookingDto getBooking(Long userId, Long bookingId);
 
-    List<BookingDto> getUserBookings(Long userId, String state);
+    // Ответ getBooking вместе с ETag из версий бронирования, вещи и арендатора
+    Tagged<BookingDto> getTaggedBooking(Long userId, Long bookingId);
 
-    List<BookingDto> getOwnerBookings(Long ownerId, String state);
+    List<BookingDto> getUserBookings(Long userId, String state, int from, int size, String cursor);
+
+    List<BookingDto> getOwnerBookings(Long ownerId, String state, int from, int size, String cursor);
 }
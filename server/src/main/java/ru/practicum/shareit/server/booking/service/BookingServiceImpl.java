@@ -1,23 +1,33 @@
 package ru.practicum.shareit.server.booking.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.server.booking.availability.ItemAvailabilityIndex;
 import ru.practicum.shareit.server.booking.model.Booking;
 import ru.practicum.shareit.server.booking.repository.BookingRepository;
+import ru.practicum.shareit.server.booking.repository.BookingView;
 import ru.practicum.shareit.server.booking.status.BookingStatus;
 import ru.practicum.shareit.server.booking.status.BookingState;
 import ru.practicum.shareit.server.booking.dto.BookingDto;
 import ru.practicum.shareit.server.booking.mapper.BookingMapper;
+import ru.practicum.shareit.server.etag.Tagged;
 import ru.practicum.shareit.server.exception.ForbiddenException;
 import ru.practicum.shareit.server.item.model.Item;
 import ru.practicum.shareit.server.item.repository.ItemRepository;
+import ru.practicum.shareit.server.pagination.KeysetCursor;
+import ru.practicum.shareit.server.pagination.OffsetPageRequest;
 import ru.practicum.shareit.server.user.model.User;
 import ru.practicum.shareit.server.user.repository.UserRepository;
+import ru.practicum.shareit.server.user.service.UserService;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,7 +37,16 @@ public class BookingServiceImpl implements BookingService {
 
     private final BookingRepository bookingRepository;
     private final UserRepository userRepository;
+    private final UserService userService;
     private final ItemRepository itemRepository;
+    private final Optional<ItemAvailabilityIndex> availabilityIndex;
+
+    // Имя exclusion-ограничения из schema-postgres.sql
+    static final String OVERLAP_CONSTRAINT = "excl_bookings_item_period";
+
+    // Для баз без exclusion-ограничения (H2): блокировать строку вещи на время создания бронирования
+    @Value("${shareit.booking.lock-item-on-create:false}")
+    private boolean lockItemOnCreate;
 
     @Override
     public BookingDto createBooking(Long userId, BookingDto bookingDto) {
@@ -39,7 +58,15 @@ public class BookingServiceImpl implements BookingService {
         User booker = userRepository.findById(userId)
                 .orElseThrow(() -> new NoSuchElementException("User not found"));
 
-        Item item = itemRepository.findById(bookingDto.getItemId())
+        // Занятые по индексу даты отклоняются без блокировки вещи и запроса к базе. Ответ «свободно»
+        // окончательным не считается: бронирование, зафиксированное только что, в индекс ещё могло не попасть
+        if (isBookedInIndex(bookingDto)) {
+            throw new IllegalStateException("Item is already booked for these dates");
+        }
+
+        Item item = (lockItemOnCreate
+                ? itemRepository.findByIdForUpdate(bookingDto.getItemId())
+                : itemRepository.findById(bookingDto.getItemId()))
                 .orElseThrow(() -> new NoSuchElementException("Item not found"));
 
         // Вещь недоступна
@@ -47,10 +74,47 @@ public class BookingServiceImpl implements BookingService {
             throw new IllegalArgumentException("Item is not available for booking");
         }
 
+        if (bookingDto.getStart() != null && bookingDto.getEnd() != null
+                && !bookingDto.getStart().isBefore(bookingDto.getEnd())) {
+            throw new IllegalArgumentException("Booking end must be after start");
+        }
+
+        // Без exclusion-ограничения пересечения проверяются здесь, под блокировкой строки вещи
+        if (lockItemOnCreate
+                && bookingRepository.existsOverlapping(item.getId(), bookingDto.getStart(), bookingDto.getEnd())) {
+            throw new IllegalStateException("Item is already booked for these dates");
+        }
+
         Booking booking = BookingMapper.toBooking(bookingDto, item, booker);
         booking.setStatus(BookingStatus.WAITING);
 
-        return BookingMapper.toBookingDto(bookingRepository.save(booking));
+        Booking savedBooking = saveChecked(booking);
+        availabilityIndex.ifPresent(index -> index.update(savedBooking));
+        return BookingMapper.toBookingDto(savedBooking);
+    }
+
+    private boolean isBookedInIndex(BookingDto bookingDto) {
+        LocalDateTime start = bookingDto.getStart();
+        LocalDateTime end = bookingDto.getEnd();
+        return availabilityIndex.isPresent() && start != null && end != null && start.isBefore(end)
+                && !availabilityIndex.get().isFree(bookingDto.getItemId(), start, end);
+    }
+
+    // Запись сразу уходит в базу: нарушение excl_bookings_item_period становится 409, а не ошибкой при commit
+    private Booking saveChecked(Booking booking) {
+        try {
+            return bookingRepository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            if (isOverlapViolation(e)) {
+                throw new IllegalStateException("Item is already booked for these dates");
+            }
+            throw e;
+        }
+    }
+
+    private boolean isOverlapViolation(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.contains(OVERLAP_CONSTRAINT);
     }
 
     @Override
@@ -62,12 +126,31 @@ public class BookingServiceImpl implements BookingService {
             throw new ForbiddenException("Only owner can approve bookings");
         }
 
+        // Отклонённое бронирование снова становится активным: интервал мог быть уже занят
+        boolean reactivated = approved && (booking.getStatus() == BookingStatus.REJECTED
+                || booking.getStatus() == BookingStatus.CANCELED);
+        if (reactivated && lockItemOnCreate) {
+            itemRepository.findByIdForUpdate(booking.getItem().getId());
+            if (bookingRepository.existsOverlapping(booking.getItem().getId(), booking.getStart(), booking.getEnd())) {
+                throw new IllegalStateException("Item is already booked for these dates");
+            }
+        }
+
         booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        return BookingMapper.toBookingDto(bookingRepository.save(booking));
+        Booking savedBooking = saveChecked(booking);
+        availabilityIndex.ifPresent(index -> index.update(savedBooking));
+        return BookingMapper.toBookingDto(savedBooking);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BookingDto getBooking(Long userId, Long bookingId) {
+        return getTaggedBooking(userId, bookingId).body();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Tagged<BookingDto> getTaggedBooking(Long userId, Long bookingId) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new NoSuchElementException("Booking not found"));
 
@@ -75,23 +158,35 @@ public class BookingServiceImpl implements BookingService {
             throw new NoSuchElementException("Access denied");
         }
 
-        return BookingMapper.toBookingDto(booking);
+        // Вещь и арендатор входят в ответ и загружены тем же запросом
+        String etag = booking.getVersion() + "-" + booking.getItem().getVersion() + "-"
+                + booking.getBooker().getVersion();
+        return new Tagged<>(BookingMapper.toBookingDto(booking), etag);
     }
 
     @Override
-    public List<BookingDto> getUserBookings(Long userId, String state) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NoSuchElementException("User not found"));
+    @Transactional(readOnly = true)
+    public List<BookingDto> getUserBookings(Long userId, String state, int from, int size, String cursor) {
+        if (!userService.existsById(userId)) {
+            throw new NoSuchElementException("User not found");
+        }
 
         BookingState bookingState = parseState(state);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable page = OffsetPageRequest.of(after != null ? 0 : from, size);
+        KeysetCursor position = after != null ? after : KeysetCursor.FIRST;
+        LocalDateTime cursorStart = position.timestamp();
+        Long cursorId = position.id();
         LocalDateTime now = LocalDateTime.now();
-        List<Booking> bookings = switch (bookingState) {
-            case PAST -> bookingRepository.findByBookerIdAndEndBeforeOrderByStartDesc(userId, now);
-            case FUTURE -> bookingRepository.findByBookerIdAndStartAfterOrderByStartDesc(userId, now);
-            case CURRENT -> bookingRepository.findCurrentBookingsForUser(userId, now);
-            case WAITING -> bookingRepository.findByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.WAITING);
-            case REJECTED -> bookingRepository.findByBookerIdAndStatusOrderByStartDesc(userId, BookingStatus.REJECTED);
-            default -> bookingRepository.findByBookerIdOrderByStartDesc(userId);
+        List<BookingView> bookings = switch (bookingState) {
+            case PAST -> bookingRepository.findPastBookingsForUser(userId, now, cursorStart, cursorId, page);
+            case FUTURE -> bookingRepository.findFutureBookingsForUser(userId, now, cursorStart, cursorId, page);
+            case CURRENT -> bookingRepository.findCurrentBookingsForUser(userId, now, cursorStart, cursorId, page);
+            case WAITING -> bookingRepository.findByBookerIdAndStatus(userId, BookingStatus.WAITING,
+                    cursorStart, cursorId, page);
+            case REJECTED -> bookingRepository.findByBookerIdAndStatus(userId, BookingStatus.REJECTED,
+                    cursorStart, cursorId, page);
+            default -> bookingRepository.findByBookerId(userId, cursorStart, cursorId, page);
         };
 
         return bookings.stream()
@@ -100,21 +195,28 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> getOwnerBookings(Long ownerId, String state) {
-        userRepository.findById(ownerId)
-                .orElseThrow(() -> new NoSuchElementException("User not found"));
+    @Transactional(readOnly = true)
+    public List<BookingDto> getOwnerBookings(Long ownerId, String state, int from, int size, String cursor) {
+        if (!userService.existsById(ownerId)) {
+            throw new NoSuchElementException("User not found");
+        }
 
         BookingState bookingState = parseState(state);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable page = OffsetPageRequest.of(after != null ? 0 : from, size);
+        KeysetCursor position = after != null ? after : KeysetCursor.FIRST;
+        LocalDateTime cursorStart = position.timestamp();
+        Long cursorId = position.id();
         LocalDateTime now = LocalDateTime.now();
-        List<Booking> bookings = switch (bookingState) {
-            case PAST -> bookingRepository.findByItem_Owner_IdAndEndBeforeOrderByStartDesc(ownerId, now);
-            case FUTURE -> bookingRepository.findByItem_Owner_IdAndStartAfterOrderByStartDesc(ownerId, now);
-            case CURRENT -> bookingRepository.findCurrentBookingsForOwner(ownerId, now);
-            case WAITING ->
-                    bookingRepository.findByItem_Owner_IdAndStatusOrderByStartDesc(ownerId, BookingStatus.WAITING);
-            case REJECTED ->
-                    bookingRepository.findByItem_Owner_IdAndStatusOrderByStartDesc(ownerId, BookingStatus.REJECTED);
-            default -> bookingRepository.findByItem_Owner_IdOrderByStartDesc(ownerId);
+        List<BookingView> bookings = switch (bookingState) {
+            case PAST -> bookingRepository.findPastBookingsForOwner(ownerId, now, cursorStart, cursorId, page);
+            case FUTURE -> bookingRepository.findFutureBookingsForOwner(ownerId, now, cursorStart, cursorId, page);
+            case CURRENT -> bookingRepository.findCurrentBookingsForOwner(ownerId, now, cursorStart, cursorId, page);
+            case WAITING -> bookingRepository.findByOwnerIdAndStatus(ownerId, BookingStatus.WAITING,
+                    cursorStart, cursorId, page);
+            case REJECTED -> bookingRepository.findByOwnerIdAndStatus(ownerId, BookingStatus.REJECTED,
+                    cursorStart, cursorId, page);
+            default -> bookingRepository.findByOwnerId(ownerId, cursorStart, cursorId, page);
         };
 
         return bookings.stream()
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.server.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Кладёт в MDC идентификатор пользователя и запроса, чтобы строки лога
+ * одного HTTP-вызова можно было связать между собой.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MdcLoggingFilter extends OncePerRequestFilter {
+
+    public static final String USER_HEADER = "X-Sharer-User-Id";
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    public static final String USER_ID_KEY = "userId";
+    public static final String REQUEST_ID_KEY = "requestId";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (requestId == null || requestId.isBlank()) {
+            requestId = UUID.randomUUID().toString();
+        }
+        String userId = request.getHeader(USER_HEADER);
+
+        MDC.put(REQUEST_ID_KEY, requestId);
+        if (userId != null) {
+            MDC.put(USER_ID_KEY, userId);
+        }
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(REQUEST_ID_KEY);
+            MDC.remove(USER_ID_KEY);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.server.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.server.user.dto.UserDto;
+
+import java.time.Duration;
+
+/**
+ * Кэш пользователей по id для UserServiceImpl: ограничен по размеру (вытесняются редко используемые)
+ * и по времени жизни записи. Попадания, промахи и вытеснения публикуются в /actuator/metrics
+ * как cache.gets, cache.evictions и т. д. с тегом cache=users.
+ */
+@Configuration
+public class UserCacheConfig {
+
+    @Bean
+    public Cache<Long, UserDto> userCache(@Value("${shareit.users.cache.maximum-size:10000}") long maximumSize,
+                                          @Value("${shareit.users.cache.ttl:10m}") Duration ttl,
+                                          MeterRegistry meterRegistry) {
+        Cache<Long, UserDto> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.server.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.server.config.MdcLoggingFilter;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Запоминает пользователей, недавно изменивших данные. Пока окно не истекло, их чтения идут
+ * на основную базу: реплика могла ещё не получить их запись.
+ * Пользователи запроса — из заголовка X-Sharer-User-Id и из пути /users/{id}: эндпоинты /users
+ * заголовок не получают, а изменённый пользователь указан в пути.
+ * Окно хранится в памяти экземпляра и другим экземплярам не видно: гарантию между экземплярами
+ * даёт гейтвей, отправляя запросы одного пользователя на один экземпляр
+ * (shareit-server.upstreams.sticky-users).
+ */
+public class ReadYourWritesGuard {
+
+    private static final Pattern USER_PATH = Pattern.compile("/users/(\\d+)");
+
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReadYourWritesGuard(Duration window) {
+        this.recentWriters = window.isZero() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    public boolean mustReadPrimary() {
+        return recentWriters != null && currentUserIds().stream()
+                .anyMatch(userId -> recentWriters.getIfPresent(userId) != null);
+    }
+
+    public void recordWrite() {
+        if (recentWriters != null) {
+            currentUserIds().forEach(userId -> recentWriters.put(userId, Boolean.TRUE));
+        }
+    }
+
+    private static Set<Long> currentUserIds() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return Set.of();
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        Set<Long> userIds = new HashSet<>(2);
+        String header = request.getHeader(MdcLoggingFilter.USER_HEADER);
+        if (header != null) {
+            parse(header.trim()).ifPresent(userIds::add);
+        }
+        Matcher path = USER_PATH.matcher(request.getRequestURI().substring(request.getContextPath().length()));
+        if (path.matches()) {
+            parse(path.group(1)).ifPresent(userIds::add);
+        }
+        return userIds;
+    }
+
+    private static Optional<Long> parse(String value) {
+        try {
+            return Optional.of(Long.valueOf(value));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
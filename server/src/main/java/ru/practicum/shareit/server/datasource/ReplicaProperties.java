@@ -0,0 +1,30 @@
+package ru.practicum.shareit.server.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Подключение к реплике для чтения. Основная база по-прежнему настраивается через spring.datasource.*.
+ */
+@Data
+@ConfigurationProperties(prefix = "shareit.datasource.replica")
+public class ReplicaProperties {
+
+    private boolean enabled = false;
+
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    // Если не задан, берётся драйвер основной базы
+    private String driverClassName;
+
+    private int maximumPoolSize = 10;
+
+    // Сколько после записи пользователь читает с основной базы, чтобы не увидеть отставшую реплику; 0 — не следить
+    private Duration readYourWrites = Duration.ofSeconds(5);
+}
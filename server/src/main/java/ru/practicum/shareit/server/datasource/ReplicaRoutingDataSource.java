@@ -0,0 +1,68 @@
+package ru.practicum.shareit.server.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Направляет соединения транзакций {@code readOnly = true} на реплику, остальные — на основную базу.
+ * Решение принимается при получении соединения, поэтому источник должен стоять за
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: иначе соединение
+ * берётся раньше, чем менеджер транзакций отметит транзакцию как только для чтения.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    // Отметка транзакции, получившей соединение с репликой
+    private static final Object REPLICA_READ = new Object();
+
+    private final ReadYourWritesGuard readYourWritesGuard;
+
+    public ReplicaRoutingDataSource(ReadYourWritesGuard readYourWritesGuard) {
+        this.readYourWritesGuard = readYourWritesGuard;
+    }
+
+    /**
+     * Текущая транзакция читает с реплики, которая может отставать от основной базы:
+     * прочитанное нельзя класть в кэши, которые потом отдадут его и после записи.
+     */
+    public static boolean isReadingReplica() {
+        return TransactionSynchronizationManager.hasResource(REPLICA_READ);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (readYourWritesGuard.mustReadPrimary()) {
+                return Target.PRIMARY;
+            }
+            markReplicaRead();
+            return Target.REPLICA;
+        }
+        // Пишущая транзакция: после фиксации чтения этого пользователя на время уходят на основную базу
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    readYourWritesGuard.recordWrite();
+                }
+            });
+        }
+        return Target.PRIMARY;
+    }
+
+    private static void markReplicaRead() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(REPLICA_READ)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(REPLICA_READ, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(REPLICA_READ);
+            }
+        });
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.server.etag;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+public class ETags {
+
+    private static final int DIGEST_BYTES = 8;
+
+    // Хэш отсортированных пар "id:version" дочерних сущностей. Число и сумма версий совпадают,
+    // когда одна дочерняя сущность заменена другой, а набор пар при этом меняется
+    public static String digest(Stream<String> pairs) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        pairs.sorted().forEach(pair -> {
+            digest.update(pair.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ',');
+        });
+        byte[] hash = digest.digest();
+        return HexFormat.of().formatHex(hash, 0, DIGEST_BYTES);
+    }
+}
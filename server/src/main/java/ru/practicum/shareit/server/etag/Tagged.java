@@ -0,0 +1,17 @@
+package ru.practicum.shareit.server.etag;
+
+/**
+ * Ответ вместе с его ETag. Тег собирается из версий тех же загруженных сущностей, что и тело,
+ * поэтому на запрос с If-None-Match и на обычный GET приходится одна загрузка.
+ * Сервис проверяет тег до сборки DTO: если копия клиента актуальна, тело не строится и равно null.
+ */
+public record Tagged<T>(T body, String etag) {
+
+    public static <T> Tagged<T> notModified(String etag) {
+        return new Tagged<>(null, etag);
+    }
+
+    public boolean isNotModified() {
+        return body == null;
+    }
+}
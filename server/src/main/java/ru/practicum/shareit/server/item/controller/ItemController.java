@@ -1,13 +1,20 @@
 package ru.practicum.shareit.server.item.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.server.batch.BatchImportResult;
+import ru.practicum.shareit.server.batch.ChunkedImporter;
+import ru.practicum.shareit.server.etag.Tagged;
 import ru.practicum.shareit.server.item.dto.ItemDto;
 import ru.practicum.shareit.server.item.dto.CommentDto;
 import ru.practicum.shareit.server.item.service.ItemService;
 import ru.practicum.shareit.server.item.service.CommentService;
+import ru.practicum.shareit.server.item.service.ItemImportService;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -15,8 +22,12 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemController {
 
+    // Владелец вещи: ответ без бронирований одинаков для всех остальных, и гейтвей кэширует его общим
+    public static final String ITEM_OWNER_HEADER = "X-Item-Owner";
+
     private final ItemService itemService;
     private final CommentService commentService;
+    private final ItemImportService itemImportService;
 
     // Добавить новую вещь
     @PostMapping
@@ -25,6 +36,20 @@ public class ItemController {
         return ResponseEntity.ok(itemService.addItem(ownerId, itemDto));
     }
 
+    // Пакетное добавление вещей: JSON-массив или NDJSON, ошибки возвращаются по номерам строк.
+    // Повтор с тем же X-Import-Key не добавляет уже сохранённые пачки второй раз
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchImportResult> importItems(
+            @RequestHeader(name = "X-Sharer-User-Id") Long ownerId,
+            @RequestHeader(name = ChunkedImporter.IMPORT_KEY_HEADER, required = false) String importKey,
+            @RequestHeader(name = ChunkedImporter.FIRST_ROW_HEADER, defaultValue = "0") int firstRow,
+            InputStream body) {
+        if (firstRow < 0) {
+            throw new IllegalArgumentException("First row must not be negative");
+        }
+        return ResponseEntity.ok(itemImportService.importItems(ownerId, importKey, firstRow, body));
+    }
+
     // Обновить существующую
     @PatchMapping("/{itemId}")
     public ResponseEntity<ItemDto> updateItem(@RequestHeader(name = "X-Sharer-User-Id") Long ownerId,
@@ -33,11 +58,20 @@ public class ItemController {
         return ResponseEntity.ok(itemService.updateItem(ownerId, itemId, itemDto));
     }
 
-    // Если информацию запрашивает владелец, добавляются данные о бронированиях
+    // Если информацию запрашивает владелец, добавляются данные о бронированиях.
+    // При совпадении ETag с If-None-Match отдаётся 304 без тела
     @GetMapping("/{itemId}")
     public ResponseEntity<ItemDto> getItem(@RequestHeader(name = "X-Sharer-User-Id", required = false) Long userId,
-                                           @PathVariable("itemId") Long itemId) {
-        return ResponseEntity.ok(itemService.getItem(itemId, userId));
+                                           @PathVariable("itemId") Long itemId,
+                                           WebRequest request) {
+        Tagged<ItemDto> item = itemService.getTaggedItem(itemId, userId, request::checkNotModified);
+        if (item.isNotModified()) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(item.etag())
+                .header(ITEM_OWNER_HEADER, String.valueOf(item.body().getOwnerId()))
+                .body(item.body());
     }
 
     // Получить список вещей пользователя
@@ -48,8 +82,10 @@ public class ItemController {
 
     // Поиск вещей по названию и описанию
     @GetMapping("/search")
-    public ResponseEntity<List<ItemDto>> searchItems(@RequestParam(name = "text") String text) {
-        return ResponseEntity.ok(itemService.searchItems(text));
+    public ResponseEntity<List<ItemDto>> searchItems(@RequestParam(name = "text") String text,
+                                                     @RequestParam(name = "from", defaultValue = "0") int from,
+                                                     @RequestParam(name = "size", defaultValue = "10") int size) {
+        return ResponseEntity.ok(itemService.searchItems(text, from, size));
     }
 
     // Оставить комментарий к вещи
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.server.item.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 import ru.practicum.shareit.server.booking.dto.BookingShortDto;
@@ -28,4 +29,8 @@ public class ItemDto {
     private BookingShortDto nextBooking;
 
     private List<CommentDto> comments;
+
+    // Не сериализуется: контроллер передаёт владельца гейтвею в заголовке X-Item-Owner
+    @JsonIgnore
+    private Long ownerId;
 }
\ No newline at end of file
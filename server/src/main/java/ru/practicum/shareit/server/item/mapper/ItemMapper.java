@@ -2,10 +2,10 @@ package ru.practicum.shareit.server.item.mapper;
 
 import ru.practicum.shareit.server.booking.dto.BookingShortDto;
 import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.item.repository.ItemView;
 import ru.practicum.shareit.server.item.dto.ItemDto;
 import ru.practicum.shareit.server.item.dto.CommentDto;
 import ru.practicum.shareit.server.user.model.User;
-import ru.practicum.shareit.server.booking.model.Booking;
 import ru.practicum.shareit.server.request.model.ItemRequest;
 
 import java.util.List;
@@ -13,40 +13,37 @@ import java.util.List;
 public class ItemMapper {
 
     public static ItemDto toItemDto(Item item) {
-        ItemDto itemDto = ItemDto.builder()
+        return ItemDto.builder()
                 .id(item.getId())
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
                 .requestId(item.getRequest() != null ? item.getRequest().getId() : null)
                 .build();
+    }
 
-        System.out.println("[toItemDto] Преобразовали item в itemDto: " + itemDto +
-                ", requestId=" + itemDto.getRequestId());
-
-        return itemDto;
+    public static ItemDto toItemDto(ItemView item) {
+        return ItemDto.builder()
+                .id(item.id())
+                .name(item.name())
+                .description(item.description())
+                .available(item.available())
+                .requestId(item.requestId())
+                .build();
     }
 
-    public static ItemDto toItemDto(Item item, Booking lastBooking, Booking nextBooking, List<CommentDto> comments) {
+    public static ItemDto toItemDto(Item item, BookingShortDto lastBooking, BookingShortDto nextBooking,
+                                    List<CommentDto> comments) {
         return ItemDto.builder()
                 .id(item.getId())
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
                 .requestId(item.getRequest() != null ? item.getRequest().getId() : null)
-                .lastBooking(lastBooking != null
-                        ? BookingShortDto.builder()
-                        .id(lastBooking.getId())
-                        .bookerId(lastBooking.getBooker().getId())
-                        .build()
-                        : null)
-                .nextBooking(nextBooking != null
-                        ? BookingShortDto.builder()
-                        .id(nextBooking.getId())
-                        .bookerId(nextBooking.getBooker().getId())
-                        .build()
-                        : null)
+                .lastBooking(lastBooking)
+                .nextBooking(nextBooking)
                 .comments(comments)
+                .ownerId(item.getOwner().getId())
                 .build();
     }
 
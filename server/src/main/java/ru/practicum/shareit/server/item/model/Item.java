@@ -14,8 +14,10 @@ import ru.practicum.shareit.server.user.model.User;
 @Builder
 public class Item {
 
+    // Hibernate берёт из последовательности блок из 50 id за один запрос, поэтому вставки можно слать пачками
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -27,11 +29,16 @@ public class Item {
     @Column(name = "is_available", nullable = false)
     private Boolean available;
 
-    @ManyToOne
+    // Маппер читает только id владельца и запроса, их Hibernate берёт из внешнего ключа без загрузки
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id", nullable = false)
     private User owner;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "request_id", nullable = true)
     private ItemRequest request;
+
+    // Растёт при каждом изменении строки; из версий строятся ETag ответов
+    @Version
+    private Long version;
 }
\ No newline at end of file
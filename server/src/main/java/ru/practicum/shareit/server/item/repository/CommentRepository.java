@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.server.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
@@ -16,8 +17,11 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     // Альтернативный метод с возможностью сортировки
     List<Comment> findByItem_Id(Long itemId, Sort sort);
 
-    // Метод для получения последних комментариев с помощью пользовательского JPQL-запроса
-    @Query("SELECT c FROM Comment c WHERE c.item.id = :itemId ORDER BY c.created DESC")
+    // Последние комментарии вещи вместе с авторами: имя и версия автора нужны для ответа и ETag
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.item.id = :itemId ORDER BY c.created DESC")
     List<Comment> findLatestByItemId(@Param("itemId") Long itemId);
-}
 
+    // Комментарии сразу для набора вещей вместе с авторами
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.item.id IN :itemIds ORDER BY c.created DESC")
+    List<Comment> findByItemIds(@Param("itemIds") Collection<Long> itemIds);
+}
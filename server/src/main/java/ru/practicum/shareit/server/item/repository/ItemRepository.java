@@ -1,23 +1,47 @@
 package ru.practicum.shareit.server.item.repository;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.server.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
-    // Найти все вещи, принадлежащие конкретному владельцу
-    List<Item> findByOwnerId(Long ownerId);
+    // Найти все вещи, принадлежащие конкретному владельцу.
+    // Владелец и запрос ленивые, а ItemMapper читает у них только id, поэтому JOIN FETCH не нужен
+    @Query("SELECT i FROM Item i WHERE i.owner.id = :ownerId ORDER BY i.id")
+    List<Item> findByOwnerId(@Param("ownerId") Long ownerId);
 
-    @Query("SELECT i FROM Item i LEFT JOIN FETCH i.request WHERE i.request.id = :requestId")
+    // Id вещей владельца: перед удалением пользователя, чтобы убрать их из индексов в памяти
+    @Query("SELECT i.id FROM Item i WHERE i.owner.id = :ownerId")
+    List<Long> findIdsByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query("SELECT i FROM Item i WHERE i.request.id = :requestId")
     List<Item> findByRequest_Id(@Param("requestId") Long requestId);
 
-    @Query("SELECT i FROM Item i " +
-            "WHERE (UPPER(i.name) LIKE UPPER(CONCAT('%', :text, '%')) " +
-            "OR UPPER(i.description) LIKE UPPER(CONCAT('%', :text, '%'))) " +
-            "AND i.available = true")
-    List<Item> search(@Param("text") String text);
+    // Блокировка строки вещи до конца транзакции: сериализует создание бронирований одной вещи
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id = :id")
+    Optional<Item> findByIdForUpdate(@Param("id") Long id);
+
+    // Вещи сразу для нескольких запросов одним SELECT
+    @Query("SELECT i FROM Item i WHERE i.request.id IN :requestIds ORDER BY i.id")
+    List<Item> findByRequestIds(@Param("requestIds") Collection<Long> requestIds);
+
+    // Поиск подстроки в названии или описании: сначала совпадения в названии.
+    // :text приходит с экранированными \, % и _ (см. DatabaseItemSearchEngine), поэтому ищется буквально
+    @Query("SELECT new ru.practicum.shareit.server.item.repository.ItemView(" +
+            "i.id, i.name, i.description, i.available, i.request.id) FROM Item i " +
+            "WHERE (UPPER(i.name) LIKE UPPER(CONCAT('%', :text, '%')) ESCAPE '\\' " +
+            "OR UPPER(i.description) LIKE UPPER(CONCAT('%', :text, '%')) ESCAPE '\\') " +
+            "AND i.available = true " +
+            "ORDER BY CASE WHEN UPPER(i.name) LIKE UPPER(CONCAT('%', :text, '%')) ESCAPE '\\' THEN 0 ELSE 1 END, i.id")
+    List<ItemView> search(@Param("text") String text, Pageable page);
 }
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.server.item.repository;
+
+/**
+ * Вещь в результатах поиска — только поля ItemDto, без владельца и версии.
+ */
+public record ItemView(Long id, String name, String description, Boolean available, Long requestId) {
+}
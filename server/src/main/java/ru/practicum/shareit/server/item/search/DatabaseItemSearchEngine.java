@@ -0,0 +1,51 @@
+package ru.practicum.shareit.server.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.server.item.dto.ItemDto;
+import ru.practicum.shareit.server.item.mapper.ItemMapper;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.item.repository.ItemRepository;
+import ru.practicum.shareit.server.pagination.OffsetPageRequest;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Поиск средствами базы данных. В PostgreSQL запрос обслуживается триграммными GIN-индексами
+ * из {@code schema-postgres.sql}; для запроса короче трёх символов триграмм нет, и база просматривает
+ * все доступные вещи и сортирует совпадения на каждой странице.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "database", matchIfMissing = true)
+public class DatabaseItemSearchEngine implements ItemSearchEngine {
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<ItemDto> search(String text, int from, int size) {
+        return itemRepository.search(escapeLike(text), OffsetPageRequest.of(from, size)).stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
+    }
+
+    // Символы шаблона LIKE ищутся буквально, как во встроенном индексе
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    @Override
+    public void index(Item item) {
+        // Индекс поддерживает сама база данных
+    }
+
+    @Override
+    public void remove(Collection<Long> itemIds) {
+        // Строки и записи индекса удаляет сама база данных
+    }
+}
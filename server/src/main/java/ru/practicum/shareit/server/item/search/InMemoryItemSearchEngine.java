@@ -0,0 +1,181 @@
+package ru.practicum.shareit.server.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.server.item.dto.ItemDto;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.item.repository.ItemRepository;
+import ru.practicum.shareit.server.pagination.OffsetPageRequest;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Встроенный инвертированный индекс по триграммам названия и описания вещей.
+ * Кандидаты отбираются пересечением списков триграмм запроса и затем проверяются на точное
+ * вхождение подстроки, поэтому результат совпадает с поиском в базе данных.
+ * Индекс живёт в памяти одного экземпляра сервера и предназначен для H2 и тестовых профилей.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "memory")
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private final ItemRepository itemRepository;
+
+    private final Map<Long, IndexedItem> items = new ConcurrentHashMap<>();
+
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    // Первичное заполнение индекса из базы
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        itemRepository.findAll().forEach(item -> put(IndexedItem.of(item)));
+    }
+
+    @Override
+    public List<ItemDto> search(String text, int from, int size) {
+        OffsetPageRequest page = OffsetPageRequest.of(from, size);
+        String query = normalize(text);
+
+        return candidates(query).stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .filter(item -> item.available() && item.contains(query))
+                .sorted(Comparator.comparing((IndexedItem item) -> !item.nameContains(query))
+                        .thenComparing(IndexedItem::id))
+                .skip(page.getOffset())
+                .limit(page.getPageSize())
+                .map(IndexedItem::toItemDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void index(Item item) {
+        IndexedItem indexedItem = IndexedItem.of(item);
+        afterCommit(() -> put(indexedItem));
+    }
+
+    @Override
+    public void remove(Collection<Long> itemIds) {
+        List<Long> ids = List.copyOf(itemIds);
+        afterCommit(() -> ids.forEach(this::delete));
+    }
+
+    // Изменения попадают в индекс только после фиксации транзакции
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private Collection<Long> candidates(String query) {
+        if (query.length() < GRAM_LENGTH) {
+            return items.keySet();
+        }
+        Set<Long> result = null;
+        for (String gram : gramsOf(query)) {
+            Set<Long> ids = postings.getOrDefault(gram, Set.of());
+            if (result == null) {
+                result = new HashSet<>(ids);
+            } else {
+                result.retainAll(ids);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private synchronized void put(IndexedItem item) {
+        unlink(items.put(item.id(), item));
+        item.grams().forEach(gram -> postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet())
+                .add(item.id()));
+    }
+
+    private synchronized void delete(Long itemId) {
+        unlink(items.remove(itemId));
+    }
+
+    private void unlink(IndexedItem item) {
+        if (item == null) {
+            return;
+        }
+        item.grams().forEach(gram -> {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(item.id());
+            }
+        });
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toUpperCase(Locale.ROOT);
+    }
+
+    private static Set<String> gramsOf(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private record IndexedItem(Long id, String name, String description, boolean available, Long requestId,
+                               String searchableName, String searchableDescription) {
+
+        static IndexedItem of(Item item) {
+            return new IndexedItem(item.getId(), item.getName(), item.getDescription(),
+                    Boolean.TRUE.equals(item.getAvailable()),
+                    item.getRequest() != null ? item.getRequest().getId() : null,
+                    normalize(item.getName()), normalize(item.getDescription()));
+        }
+
+        boolean nameContains(String query) {
+            return searchableName.contains(query);
+        }
+
+        boolean contains(String query) {
+            return nameContains(query) || searchableDescription.contains(query);
+        }
+
+        Set<String> grams() {
+            Set<String> grams = gramsOf(searchableName);
+            grams.addAll(gramsOf(searchableDescription));
+            return grams;
+        }
+
+        ItemDto toItemDto() {
+            return ItemDto.builder()
+                    .id(id)
+                    .name(name)
+                    .description(description)
+                    .available(available)
+                    .requestId(requestId)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.server.item.search;
+
+import ru.practicum.shareit.server.item.dto.ItemDto;
+import ru.practicum.shareit.server.item.model.Item;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Поиск доступных вещей по подстроке в названии или описании.
+ * Реализация выбирается свойством {@code shareit.search.engine}: {@code database} или {@code memory}.
+ */
+public interface ItemSearchEngine {
+
+    // Результаты упорядочены по релевантности: сначала совпадения в названии, затем в описании
+    List<ItemDto> search(String text, int from, int size);
+
+    // Вызывается после сохранения вещи, чтобы движок мог обновить свой индекс
+    void index(Item item);
+
+    // Вызывается при удалении вещей: в базе они удаляются каскадом вместе с владельцем
+    void remove(Collection<Long> itemIds);
+}
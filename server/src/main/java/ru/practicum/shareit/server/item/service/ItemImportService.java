@@ -0,0 +1,75 @@
+package ru.practicum.shareit.server.item.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.practicum.shareit.server.batch.BatchImportResult;
+import ru.practicum.shareit.server.batch.BatchReader;
+import ru.practicum.shareit.server.batch.BatchRow;
+import ru.practicum.shareit.server.batch.ChunkedImporter;
+import ru.practicum.shareit.server.item.dto.ItemDto;
+import ru.practicum.shareit.server.item.mapper.ItemMapper;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.item.repository.ItemRepository;
+import ru.practicum.shareit.server.item.search.ItemSearchEngine;
+import ru.practicum.shareit.server.request.model.ItemRequest;
+import ru.practicum.shareit.server.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.server.user.model.User;
+import ru.practicum.shareit.server.user.repository.UserRepository;
+import ru.practicum.shareit.server.user.service.UserService;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Пакетный импорт вещей одного владельца (POST /items/batch).
+ * Транзакциями управляет ChunkedImporter, поэтому класс не помечен {@code @Transactional}.
+ * Запросы, на которые ссылаются вещи, загружаются одним SELECT на пачку; неизвестный requestId,
+ * как и в addItem, оставляет вещь без запроса. Ключ импорта действует в пределах владельца.
+ */
+@Service
+@RequiredArgsConstructor
+public class ItemImportService {
+
+    private final ChunkedImporter chunkedImporter;
+    private final ObjectMapper objectMapper;
+    private final UserService userService;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchEngine itemSearchEngine;
+
+    public BatchImportResult importItems(Long ownerId, InputStream input) {
+        return importItems(ownerId, null, 0, input);
+    }
+
+    public BatchImportResult importItems(Long ownerId, String importKey, int firstRow, InputStream input) {
+        if (!userService.existsById(ownerId)) {
+            throw new IllegalArgumentException("User not found");
+        }
+
+        BatchReader<ItemDto> reader = new BatchReader<>(objectMapper, input, ItemDto.class, firstRow);
+        String scopedKey = importKey != null ? "items:" + ownerId + ":" + importKey : null;
+        return chunkedImporter.run(reader, scopedKey, (rows, errors) -> {
+            User owner = userRepository.getReferenceById(ownerId);
+            Map<Long, ItemRequest> requests = itemRequestRepository.findAllById(rows.stream()
+                            .map(row -> row.value().getRequestId())
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toSet())).stream()
+                    .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+
+            List<Item> items = rows.stream()
+                    .map(BatchRow::value)
+                    .map(dto -> ItemMapper.toItem(dto, owner, requests.get(dto.getRequestId())))
+                    .collect(Collectors.toList());
+            // Импорт только добавляет вещи: id из входных данных не должен превратить вставку в обновление
+            items.forEach(item -> item.setId(null));
+            itemRepository.saveAll(items).forEach(itemSearchEngine::index);
+            return items.size();
+        });
+    }
+}
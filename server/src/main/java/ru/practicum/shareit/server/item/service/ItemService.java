@@ -1,19 +1,27 @@
 package ru.practicum.shareit.server.item.service;
 
+import ru.practicum.shareit.server.etag.Tagged;
 import ru.practicum.shareit.server.item.dto.ItemDto;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 
 public interface ItemService {
     ItemDto addItem(Long ownerId, ItemDto itemDto);
 
     ItemDto getItem(Long id, Long userId);
 
+    // Ответ getItem вместе с ETag: у владельца тег учитывает и ближайшие бронирования.
+    // notModified проверяет тег (If-None-Match); при совпадении DTO не собирается
+    Tagged<ItemDto> getTaggedItem(Long id, Long userId, Predicate<String> notModified);
+
     ItemDto updateItem(Long ownerId, Long itemId, ItemDto itemDto);
 
     List<ItemDto> getUserItems(Long ownerId);
 
-    List<ItemDto> searchItems(String text);
+    List<ItemDto> searchItems(String text, int from, int size);
 
-    List<ItemDto> getItemsByRequestId(Long requestId);
+    Map<Long, List<ItemDto>> getItemsByRequestIds(Collection<Long> requestIds);
 }
\ No newline at end of file
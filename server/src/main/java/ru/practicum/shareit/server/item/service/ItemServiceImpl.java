@@ -3,24 +3,38 @@ package ru.practicum.shareit.server.item.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.server.booking.availability.BookingSlot;
+import ru.practicum.shareit.server.booking.availability.ItemAvailabilityIndex;
+import ru.practicum.shareit.server.booking.dto.BookingShortDto;
+import ru.practicum.shareit.server.booking.mapper.BookingMapper;
 import ru.practicum.shareit.server.booking.model.Booking;
 import ru.practicum.shareit.server.booking.repository.BookingRepository;
 import ru.practicum.shareit.server.booking.status.BookingStatus;
+import ru.practicum.shareit.server.etag.ETags;
+import ru.practicum.shareit.server.etag.Tagged;
 import ru.practicum.shareit.server.item.dto.CommentDto;
 import ru.practicum.shareit.server.item.dto.ItemDto;
 import ru.practicum.shareit.server.item.mapper.CommentMapper;
 import ru.practicum.shareit.server.item.mapper.ItemMapper;
+import ru.practicum.shareit.server.item.model.Comment;
 import ru.practicum.shareit.server.item.model.Item;
 import ru.practicum.shareit.server.item.repository.CommentRepository;
 import ru.practicum.shareit.server.item.repository.ItemRepository;
+import ru.practicum.shareit.server.item.search.ItemSearchEngine;
 import ru.practicum.shareit.server.request.model.ItemRequest;
 import ru.practicum.shareit.server.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.server.user.model.User;
 import ru.practicum.shareit.server.user.repository.UserRepository;
+import ru.practicum.shareit.server.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,9 +44,12 @@ public class ItemServiceImpl implements ItemService {
 
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final UserService userService;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final Optional<ItemAvailabilityIndex> availabilityIndex;
 
     @Override
     public ItemDto addItem(Long ownerId, ItemDto itemDto) {
@@ -45,29 +62,46 @@ public class ItemServiceImpl implements ItemService {
 
         Item item = ItemMapper.toItem(itemDto, owner, itemRequest);
         item = itemRepository.save(item);
+        itemSearchEngine.index(item);
         return ItemMapper.toItemDto(item);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ItemDto getItem(Long itemId, Long userId) {
+        return getTaggedItem(itemId, userId, etag -> false).body();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Tagged<ItemDto> getTaggedItem(Long itemId, Long userId, Predicate<String> notModified) {
         Item item = itemRepository.findById(itemId)
                 .orElseThrow(() -> new IllegalArgumentException("Item not found"));
 
         boolean isOwner = item.getOwner().getId().equals(userId);
 
-        Booking lastBooking = isOwner ? bookingRepository
-                .findTopByItem_IdAndStartBeforeAndStatusOrderByEndDesc(itemId, LocalDateTime.now(), BookingStatus.APPROVED)
-                .orElse(null) : null;
+        LocalDateTime now = LocalDateTime.now();
+        BookingShortDto lastBooking = isOwner ? lastBooking(itemId, now) : null;
+        BookingShortDto nextBooking = isOwner ? nextBooking(itemId, now) : null;
 
-        Booking nextBooking = isOwner ? bookingRepository
-                .findTopByItem_IdAndStartAfterAndStatusOrderByStartAsc(itemId, LocalDateTime.now(), BookingStatus.APPROVED)
-                .orElse(null) : null;
+        List<Comment> comments = commentRepository.findLatestByItemId(itemId);
 
-        List<CommentDto> comments = commentRepository.findLatestByItemId(itemId).stream()
-                .map(CommentMapper::toCommentDto)
-                .collect(Collectors.toList());
+        // В ответе комментария есть имя автора, поэтому в теге и его версия
+        String etag = item.getVersion() + "-" + ETags.digest(comments.stream()
+                .map(comment -> comment.getId() + ":" + comment.getAuthor().getId()
+                        + ":" + comment.getAuthor().getVersion()));
+        if (isOwner) {
+            // Владелец видит last/nextBooking: они меняются и со временем, и при подтверждении бронирований
+            etag += "-" + bookingId(lastBooking) + "-" + bookingId(nextBooking);
+        }
+        if (notModified.test(etag)) {
+            return Tagged.notModified(etag);
+        }
 
-        return ItemMapper.toItemDto(item, lastBooking, nextBooking, comments);
+        ItemDto itemDto = ItemMapper.toItemDto(item, lastBooking, nextBooking, comments.stream()
+                .map(CommentMapper::toCommentDto)
+                .collect(Collectors.toList()));
+        return new Tagged<>(itemDto, etag);
     }
 
     @Override
@@ -83,44 +117,102 @@ public class ItemServiceImpl implements ItemService {
         Optional.ofNullable(itemDto.getDescription()).ifPresent(existingItem::setDescription);
         Optional.ofNullable(itemDto.getAvailable()).ifPresent(existingItem::setAvailable);
 
-        return ItemMapper.toItemDto(itemRepository.save(existingItem));
+        Item savedItem = itemRepository.save(existingItem);
+        itemSearchEngine.index(savedItem);
+        return ItemMapper.toItemDto(savedItem);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ItemDto> getUserItems(Long ownerId) {
-        userRepository.findById(ownerId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-        return itemRepository.findByOwnerId(ownerId).stream()
-                .map(item -> {
-                    Booking lastBooking = bookingRepository
-                            .findTopByItem_IdAndStartBeforeAndStatusOrderByEndDesc(item.getId(), LocalDateTime.now(), BookingStatus.APPROVED)
-                            .orElse(null);
-
-                    Booking nextBooking = bookingRepository
-                            .findTopByItem_IdAndStartAfterAndStatusOrderByStartAsc(item.getId(), LocalDateTime.now(), BookingStatus.APPROVED)
-                            .orElse(null);
+        if (!userService.existsById(ownerId)) {
+            throw new IllegalArgumentException("User not found");
+        }
 
-                    List<CommentDto> comments = commentRepository.findLatestByItemId(item.getId()).stream()
-                            .map(CommentMapper::toCommentDto)
-                            .collect(Collectors.toList());
+        List<Item> items = itemRepository.findByOwnerId(ownerId);
+        if (items.isEmpty()) {
+            return List.of();
+        }
 
-                    return ItemMapper.toItemDto(item, lastBooking, nextBooking, comments);
-                }).collect(Collectors.toList());
+        // Бронирования и комментарии загружаются для всех вещей сразу, а не по запросу на каждую вещь
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<Long, BookingShortDto> lastBookings = availabilityIndex.isPresent()
+                ? fromIndex(itemIds, itemId -> availabilityIndex.get().lastBooking(itemId, now))
+                : indexByItemId(bookingRepository.findLastBookingsForItems(itemIds, now, BookingStatus.APPROVED));
+        Map<Long, BookingShortDto> nextBookings = availabilityIndex.isPresent()
+                ? fromIndex(itemIds, itemId -> availabilityIndex.get().nextBooking(itemId, now))
+                : indexByItemId(bookingRepository.findNextBookingsForItems(itemIds, now, BookingStatus.APPROVED));
+        Map<Long, List<CommentDto>> comments = commentRepository.findByItemIds(itemIds).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
+
+        return items.stream()
+                .map(item -> ItemMapper.toItemDto(item,
+                        lastBookings.get(item.getId()),
+                        nextBookings.get(item.getId()),
+                        comments.getOrDefault(item.getId(), List.of())))
+                .collect(Collectors.toList());
     }
 
     @Override
-    public List<ItemDto> searchItems(String text) {
-        return text.isBlank() ? List.of() :
-                itemRepository.search(text).stream()
-                        .map(ItemMapper::toItemDto)
-                        .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<ItemDto> searchItems(String text, int from, int size) {
+        return text.isBlank() ? List.of() : itemSearchEngine.search(text, from, size);
     }
 
     @Override
-    public List<ItemDto> getItemsByRequestId(Long requestId) {
-        return itemRepository.findByRequest_Id(requestId).stream()
-                .map(ItemMapper::toItemDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public Map<Long, List<ItemDto>> getItemsByRequestIds(Collection<Long> requestIds) {
+        if (requestIds.isEmpty()) {
+            return Map.of();
+        }
+        return itemRepository.findByRequestIds(requestIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId(),
+                        Collectors.mapping(ItemMapper::toItemDto, Collectors.toList())));
+    }
+
+    private BookingShortDto lastBooking(Long itemId, LocalDateTime now) {
+        if (availabilityIndex.isPresent()) {
+            return availabilityIndex.get().lastBooking(itemId, now)
+                    .map(BookingMapper::toBookingShortDto)
+                    .orElse(null);
+        }
+        return bookingRepository.findTopByItem_IdAndStartBeforeAndStatusOrderByEndDesc(itemId, now,
+                        BookingStatus.APPROVED)
+                .map(BookingMapper::toBookingShortDto)
+                .orElse(null);
+    }
+
+    private BookingShortDto nextBooking(Long itemId, LocalDateTime now) {
+        if (availabilityIndex.isPresent()) {
+            return availabilityIndex.get().nextBooking(itemId, now)
+                    .map(BookingMapper::toBookingShortDto)
+                    .orElse(null);
+        }
+        return bookingRepository.findTopByItem_IdAndStartAfterAndStatusOrderByStartAsc(itemId, now,
+                        BookingStatus.APPROVED)
+                .map(BookingMapper::toBookingShortDto)
+                .orElse(null);
+    }
+
+    private static long bookingId(BookingShortDto booking) {
+        return booking == null ? 0 : booking.getId();
+    }
+
+    private Map<Long, BookingShortDto> indexByItemId(List<Booking> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), BookingMapper::toBookingShortDto,
+                        (first, second) -> first));
+    }
+
+    private Map<Long, BookingShortDto> fromIndex(List<Long> itemIds, Function<Long, Optional<BookingSlot>> lookup) {
+        Map<Long, BookingShortDto> bookings = new HashMap<>();
+        itemIds.forEach(itemId -> lookup.apply(itemId)
+                .ifPresent(slot -> bookings.put(itemId, BookingMapper.toBookingShortDto(slot))));
+        return bookings;
     }
 }
\ No newline at end of file
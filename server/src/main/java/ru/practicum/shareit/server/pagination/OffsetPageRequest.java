@@ -0,0 +1,35 @@
+package ru.practicum.shareit.server.pagination;
+
+import lombok.EqualsAndHashCode;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Страница, начинающаяся с произвольного смещения {@code from}, а не с номера страницы.
+ * Сортировка задаётся в самих запросах репозиториев.
+ */
+@EqualsAndHashCode(callSuper = true)
+public class OffsetPageRequest extends PageRequest {
+
+    private final long offset;
+
+    private OffsetPageRequest(long offset, int size) {
+        super(0, size, Sort.unsorted());
+        this.offset = offset;
+    }
+
+    public static OffsetPageRequest of(int from, int size) {
+        if (from < 0) {
+            throw new IllegalArgumentException("Parameter 'from' must not be negative");
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("Parameter 'size' must be positive");
+        }
+        return new OffsetPageRequest(from, size);
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+}
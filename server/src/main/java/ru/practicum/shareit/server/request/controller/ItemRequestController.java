@@ -3,6 +3,9 @@ package ru.practicum.shareit.server.request.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.server.etag.Tagged;
+import ru.practicum.shareit.server.pagination.KeysetCursor;
 import ru.practicum.shareit.server.request.dto.ItemRequestDto;
 import ru.practicum.shareit.server.request.service.ItemRequestService;
 
@@ -27,13 +30,30 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<ItemRequestDto>> getAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        return ResponseEntity.ok(itemRequestService.getAllRequests(userId));
+    public ResponseEntity<List<ItemRequestDto>> getAllRequests(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                               @RequestParam(defaultValue = "0") int from,
+                                                               @RequestParam(defaultValue = "10") int size,
+                                                               @RequestParam(required = false) String cursor) {
+        List<ItemRequestDto> requests = itemRequestService.getAllRequests(userId, from, size, cursor);
+        if (requests.size() < size) {
+            return ResponseEntity.ok(requests);
+        }
+        // Страница заполнена: отдаём курсор на следующую
+        ItemRequestDto last = requests.getLast();
+        return ResponseEntity.ok()
+                .header(KeysetCursor.NEXT_CURSOR_HEADER, new KeysetCursor(last.getCreated(), last.getId()).encode())
+                .body(requests);
     }
 
     @GetMapping("/{requestId}")
     public ResponseEntity<ItemRequestDto> getRequestById(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                         @PathVariable("requestId") Long requestId) {
-        return ResponseEntity.ok(itemRequestService.getRequestById(userId, requestId));
+                                                         @PathVariable("requestId") Long requestId,
+                                                         WebRequest request) {
+        Tagged<ItemRequestDto> itemRequest = itemRequestService.getTaggedRequest(userId, requestId,
+                request::checkNotModified);
+        if (itemRequest.isNotModified()) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(itemRequest.etag()).body(itemRequest.body());
     }
 }
\ No newline at end of file
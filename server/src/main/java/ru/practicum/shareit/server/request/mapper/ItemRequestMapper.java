@@ -10,7 +10,6 @@ import java.util.List;
 public class ItemRequestMapper {
 
     public static ItemRequestDto toItemRequestDto(ItemRequest request, List<ItemDto> items) {
-        System.out.println("Mapping request: " + request.getId() + " with " + items.size() + " items");
         return ItemRequestDto.builder()
                 .id(request.getId())
                 .description(request.getDescription())
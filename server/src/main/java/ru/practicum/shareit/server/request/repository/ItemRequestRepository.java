@@ -1,10 +1,12 @@
 package ru.practicum.shareit.server.request.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.server.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
@@ -12,6 +14,13 @@ public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>
     // Все запросы, созданные конкретным пользователем
     List<ItemRequest> findByRequestor_IdOrderByCreatedDesc(Long userId);
 
-    @Query("SELECT r FROM ItemRequest r WHERE r.requestor.id <> :userId ORDER BY r.created DESC")
-    List<ItemRequest> findAllExceptOwn(@Param("userId") Long userId);
+    // Лента чужих запросов; курсор (created, id) продолжает выдачу после последней записи страницы.
+    // Первая страница передаёт KeysetCursor.FIRST, поэтому условие всегда одно и то же сравнение строк
+    @Query("SELECT r FROM ItemRequest r JOIN FETCH r.requestor WHERE r.requestor.id <> :userId " +
+            "AND (r.created, r.id) < (:cursorCreated, :cursorId) " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findAllExceptOwn(@Param("userId") Long userId,
+                                       @Param("cursorCreated") LocalDateTime cursorCreated,
+                                       @Param("cursorId") Long cursorId,
+                                       Pageable page);
 }
\ No newline at end of file
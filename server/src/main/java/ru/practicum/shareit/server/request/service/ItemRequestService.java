@@ -1,8 +1,10 @@
 package ru.practicum.shareit.server.request.service;
 
+import ru.practicum.shareit.server.etag.Tagged;
 import ru.practicum.shareit.server.request.dto.ItemRequestDto;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 public interface ItemRequestService {
     // Создание запроса
@@ -12,8 +14,11 @@ public interface ItemRequestService {
     List<ItemRequestDto> getUserRequests(Long userId);
 
     // Получение всех запросов других пользователей
-    List<ItemRequestDto> getAllRequests(Long userId);
+    List<ItemRequestDto> getAllRequests(Long userId, int from, int size, String cursor);
 
     // Получение конкретного запроса по ID
     ItemRequestDto getRequestById(Long userId, Long requestId);
+
+    // Ответ getRequestById вместе с ETag из версий запроса и вещей, добавленных в ответ на него
+    Tagged<ItemRequestDto> getTaggedRequest(Long userId, Long requestId, Predicate<String> notModified);
 }
@@ -1,22 +1,35 @@
 package ru.practicum.shareit.server.request.service;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.server.etag.ETags;
+import ru.practicum.shareit.server.etag.Tagged;
+import ru.practicum.shareit.server.item.mapper.ItemMapper;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.item.repository.ItemRepository;
 import ru.practicum.shareit.server.item.service.ItemService;
+import ru.practicum.shareit.server.pagination.KeysetCursor;
+import ru.practicum.shareit.server.pagination.OffsetPageRequest;
 import ru.practicum.shareit.server.request.dto.ItemRequestDto;
 import ru.practicum.shareit.server.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.server.request.model.ItemRequest;
 import ru.practicum.shareit.server.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.server.user.model.User;
 import ru.practicum.shareit.server.user.repository.UserRepository;
+import ru.practicum.shareit.server.user.service.UserService;
 import ru.practicum.shareit.server.item.dto.ItemDto;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional
@@ -24,7 +37,9 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     private final ItemRequestRepository itemRequestRepository;
     private final UserRepository userRepository;
+    private final UserService userService;
     private final ItemService itemService;
+    private final ItemRepository itemRepository;
 
     @Override
     public ItemRequestDto createRequest(Long userId, ItemRequestDto itemRequestDto) {
@@ -41,47 +56,72 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ItemRequestDto> getUserRequests(Long userId) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NoSuchElementException("User not found"));
+        if (!userService.existsById(userId)) {
+            throw new NoSuchElementException("User not found");
+        }
 
         List<ItemRequest> requests = itemRequestRepository.findByRequestor_IdOrderByCreatedDesc(userId);
+        log.debug("[getUserRequests] userId={}, requests={}", userId, requests.size());
 
-        return requests.stream()
-                .map(request -> {
-                    List<ItemDto> items = itemService.getItemsByRequestId(request.getId());
-                    System.out.println("[getUserRequests] requestId=" + request.getId() + ", items=" + items);
-                    return ItemRequestMapper.toItemRequestDtoWithItems(request, items);
-                })
-                .collect(Collectors.toList());
+        return withItems(requests);
     }
 
     @Override
-    public List<ItemRequestDto> getAllRequests(Long userId) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NoSuchElementException("User not found"));
-
-        List<ItemRequest> requests = itemRequestRepository.findAllExceptOwn(userId);
-
-        return requests.stream()
-                .map(request -> {
-                    List<ItemDto> items = itemService.getItemsByRequestId(request.getId());
-                    System.out.println("[getAllRequests] requestId=" + request.getId() + ", items=" + items);
-                    return ItemRequestMapper.toItemRequestDtoWithItems(request, items);
-                })
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<ItemRequestDto> getAllRequests(Long userId, int from, int size, String cursor) {
+        if (!userService.existsById(userId)) {
+            throw new NoSuchElementException("User not found");
+        }
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable page = OffsetPageRequest.of(after != null ? 0 : from, size);
+        KeysetCursor position = after != null ? after : KeysetCursor.FIRST;
+        List<ItemRequest> requests = itemRequestRepository.findAllExceptOwn(userId,
+                position.timestamp(), position.id(), page);
+        log.debug("[getAllRequests] userId={}, requests={}", userId, requests.size());
+
+        return withItems(requests);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ItemRequestDto getRequestById(Long userId, Long requestId) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new NoSuchElementException("User not found"));
+        return getTaggedRequest(userId, requestId, etag -> false).body();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Tagged<ItemRequestDto> getTaggedRequest(Long userId, Long requestId, Predicate<String> notModified) {
+        if (!userService.existsById(userId)) {
+            throw new NoSuchElementException("User not found");
+        }
 
         ItemRequest itemRequest = itemRequestRepository.findById(requestId)
                 .orElseThrow(() -> new NoSuchElementException("Request not found"));
 
-        List<ItemDto> items = itemService.getItemsByRequestId(requestId);
+        List<Item> items = itemRepository.findByRequest_Id(requestId);
 
-        return ItemRequestMapper.toItemRequestDtoWithItems(itemRequest, items);
+        String etag = itemRequest.getVersion() + "-" + ETags.digest(items.stream()
+                .map(item -> item.getId() + ":" + item.getVersion()));
+        if (notModified.test(etag)) {
+            return Tagged.notModified(etag);
+        }
+        List<ItemDto> itemDtos = items.stream()
+                .map(ItemMapper::toItemDto)
+                .collect(Collectors.toList());
+        return new Tagged<>(ItemRequestMapper.toItemRequestDtoWithItems(itemRequest, itemDtos), etag);
+    }
+
+    // Вещи для всех запросов страницы загружаются одним запросом
+    private List<ItemRequestDto> withItems(List<ItemRequest> requests) {
+        Map<Long, List<ItemDto>> itemsByRequest = itemService.getItemsByRequestIds(
+                requests.stream().map(ItemRequest::getId).toList());
+
+        return requests.stream()
+                .map(request -> ItemRequestMapper.toItemRequestDtoWithItems(request,
+                        itemsByRequest.getOrDefault(request.getId(), List.of())))
+                .collect(Collectors.toList());
     }
 }
\ No newline at end of file
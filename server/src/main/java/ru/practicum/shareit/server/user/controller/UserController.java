@@ -1,11 +1,18 @@
 package ru.practicum.shareit.server.user.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.server.batch.BatchImportResult;
+import ru.practicum.shareit.server.batch.ChunkedImporter;
+import ru.practicum.shareit.server.etag.Tagged;
 import ru.practicum.shareit.server.user.dto.UserDto;
+import ru.practicum.shareit.server.user.service.UserImportService;
 import ru.practicum.shareit.server.user.service.UserService;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -14,6 +21,7 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final UserImportService userImportService;
 
     /**
      * Создание пользователя
@@ -23,12 +31,30 @@ public class UserController {
         return ResponseEntity.ok(userService.createUser(userDto));
     }
 
+    /**
+     * Пакетное создание пользователей из JSON-массива или NDJSON; с X-Import-Key повтор безопасен
+     */
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchImportResult> importUsers(
+            @RequestHeader(name = ChunkedImporter.IMPORT_KEY_HEADER, required = false) String importKey,
+            @RequestHeader(name = ChunkedImporter.FIRST_ROW_HEADER, defaultValue = "0") int firstRow,
+            InputStream body) {
+        if (firstRow < 0) {
+            throw new IllegalArgumentException("First row must not be negative");
+        }
+        return ResponseEntity.ok(userImportService.importUsers(importKey, firstRow, body));
+    }
+
     /**
      * Получение пользователя по ID
      */
     @GetMapping("/{id}")
-    public ResponseEntity<UserDto> getUser(@PathVariable("id") Long id) {
-        return ResponseEntity.ok(userService.getUser(id));
+    public ResponseEntity<UserDto> getUser(@PathVariable("id") Long id, WebRequest request) {
+        Tagged<UserDto> user = userService.getTaggedUser(id);
+        if (request.checkNotModified(user.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(user.etag()).body(user.body());
     }
 
     /**
@@ -2,6 +2,7 @@ package ru.practicum.shareit.server.user.mapper;
 
 import ru.practicum.shareit.server.user.model.User;
 import ru.practicum.shareit.server.user.dto.UserDto;
+import ru.practicum.shareit.server.user.repository.UserView;
 
 public class UserMapper {
     public static UserDto toUserDto(User user) {
@@ -12,6 +13,10 @@ public class UserMapper {
                 .build();
     }
 
+    public static UserDto toUserDto(UserView user) {
+        return new UserDto(user.id(), user.name(), user.email());
+    }
+
     public static User toUser(UserDto userDto) {
         return User.builder()
                 .id(userDto.getId())
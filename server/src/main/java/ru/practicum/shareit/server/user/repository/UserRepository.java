@@ -1,12 +1,26 @@
 package ru.practicum.shareit.server.user.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.server.user.model.User;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmail(String email);
+
+    // Список пользователей без загрузки сущностей в контекст персистентности
+    @Query("SELECT new ru.practicum.shareit.server.user.repository.UserView(u.id, u.name, u.email) " +
+            "FROM User u ORDER BY u.id")
+    List<UserView> findAllViews();
+
+    // Какие из адресов уже заняты: проверка пачки импорта одним запросом
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
 }
 
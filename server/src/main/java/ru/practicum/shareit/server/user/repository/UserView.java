@@ -0,0 +1,7 @@
+package ru.practicum.shareit.server.user.repository;
+
+/**
+ * Пользователь в списке GET /users.
+ */
+public record UserView(Long id, String name, String email) {
+}
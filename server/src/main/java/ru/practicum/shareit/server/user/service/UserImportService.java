@@ -0,0 +1,76 @@
+package ru.practicum.shareit.server.user.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.server.batch.BatchImportResult;
+import ru.practicum.shareit.server.batch.BatchImportResult.RowError;
+import ru.practicum.shareit.server.batch.BatchReader;
+import ru.practicum.shareit.server.batch.BatchRow;
+import ru.practicum.shareit.server.batch.ChunkedImporter;
+import ru.practicum.shareit.server.user.dto.UserDto;
+import ru.practicum.shareit.server.user.mapper.UserMapper;
+import ru.practicum.shareit.server.user.model.User;
+import ru.practicum.shareit.server.user.repository.UserRepository;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Пакетный импорт пользователей (POST /users/batch).
+ * Занятый email проверяется одним запросом на пачку и по строкам того же импорта: своей пачки
+ * и уже зафиксированных. Email откатившейся пачки не занят, и такой же в следующих строках принимается.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserImportService {
+
+    private final ChunkedImporter chunkedImporter;
+    private final ObjectMapper objectMapper;
+    private final UserRepository userRepository;
+
+    public BatchImportResult importUsers(InputStream input) {
+        return importUsers(null, 0, input);
+    }
+
+    public BatchImportResult importUsers(String importKey, int firstRow, InputStream input) {
+        Set<String> seen = new HashSet<>();
+
+        BatchReader<UserDto> reader = new BatchReader<>(objectMapper, input, UserDto.class, firstRow);
+        String scopedKey = importKey != null ? "users:" + importKey : null;
+        return chunkedImporter.run(reader, scopedKey, (rows, errors) -> {
+            Set<String> existing = userRepository.findExistingEmails(rows.stream()
+                    .map(row -> row.value().getEmail())
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet()));
+
+            Set<String> chunkEmails = new HashSet<>();
+            List<User> users = new ArrayList<>();
+            for (BatchRow<UserDto> row : rows) {
+                String email = row.value().getEmail();
+                if (existing.contains(email) || seen.contains(email) || !chunkEmails.add(email)) {
+                    errors.add(new RowError(row.index(), "Email is already in use"));
+                    continue;
+                }
+                User user = UserMapper.toUser(row.value());
+                user.setId(null);
+                users.add(user);
+            }
+            userRepository.saveAll(users);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    seen.addAll(chunkEmails);
+                }
+            });
+            return users.size();
+        });
+    }
+}
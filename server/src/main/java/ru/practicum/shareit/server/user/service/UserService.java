@@ -1,5 +1,6 @@
 package ru.practicum.shareit.server.user.service;
 
+import ru.practicum.shareit.server.etag.Tagged;
 import ru.practicum.shareit.server.user.dto.UserDto;
 
 import java.util.List;
@@ -9,6 +10,12 @@ public interface UserService {
 
     UserDto getUser(Long id);
 
+    // Пользователь из базы вместе с ETag по его версии
+    Tagged<UserDto> getTaggedUser(Long id);
+
+    // Проверка пользователя из заголовка X-Sharer-User-Id; обычно отвечает из кэша
+    boolean existsById(Long id);
+
     List<UserDto> getAllUsers();
 
     UserDto updateUser(Long id, UserDto userDto);
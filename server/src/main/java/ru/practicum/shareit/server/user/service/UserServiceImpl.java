@@ -1,8 +1,16 @@
 package ru.practicum.shareit.server.user.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.server.booking.availability.ItemAvailabilityIndex;
+import ru.practicum.shareit.server.datasource.ReplicaRoutingDataSource;
+import ru.practicum.shareit.server.etag.Tagged;
+import ru.practicum.shareit.server.item.repository.ItemRepository;
+import ru.practicum.shareit.server.item.search.ItemSearchEngine;
 import ru.practicum.shareit.server.user.dto.UserDto;
 import ru.practicum.shareit.server.user.mapper.UserMapper;
 import ru.practicum.shareit.server.user.model.User;
@@ -10,6 +18,8 @@ import ru.practicum.shareit.server.user.repository.UserRepository;
 
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,7 +27,15 @@ import java.util.stream.Collectors;
 @Transactional
 public class UserServiceImpl implements UserService {
 
+    private static final int GENERATION_STRIPES = 64;
+
     private final UserRepository userRepository;
+    private final Cache<Long, UserDto> userCache;
+    private final ItemRepository itemRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final Optional<ItemAvailabilityIndex> availabilityIndex;
+    // Счётчики сбросов кэша по полосам id: чтение, во время которого прошёл сброс, не оставляет запись в кэше
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
 
     @Override
     public UserDto createUser(UserDto userDto) {
@@ -29,15 +47,30 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDto getUser(Long id) {
-        return userRepository.findById(id)
-                .map(UserMapper::toUserDto)
+        return findUser(id)
+                .orElseThrow(() -> new NoSuchElementException("User not found"));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Tagged<UserDto> getTaggedUser(Long id) {
+        User user = userRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("User not found"));
+        return new Tagged<>(UserMapper.toUserDto(user), String.valueOf(user.getVersion()));
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public boolean existsById(Long id) {
+        return findUser(id).isPresent();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<UserDto> getAllUsers() {
-        return userRepository.findAll().stream()
+        return userRepository.findAllViews().stream()
                 .map(UserMapper::toUserDto)
                 .collect(Collectors.toList());
     }
@@ -46,6 +79,7 @@ public class UserServiceImpl implements UserService {
     public UserDto updateUser(Long id, UserDto userDto) {
         User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("User not found"));
+        evict(id);
 
         if (userDto.getEmail() != null && !userDto.getEmail().equals(existingUser.getEmail())) {
             if (userRepository.findByEmail(userDto.getEmail()).isPresent()) {
@@ -63,6 +97,59 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public void deleteUser(Long id) {
+        evict(id);
+        // Вещи и бронирования пользователя база удаляет каскадом, индексы в памяти об этом не знают
+        List<Long> itemIds = itemRepository.findIdsByOwnerId(id);
         userRepository.deleteById(id);
+        itemSearchEngine.remove(itemIds);
+        availabilityIndex.ifPresent(index -> index.removeUser(id, itemIds));
+    }
+
+    // Кэшируются только найденные пользователи, поэтому только что созданный виден сразу
+    private Optional<UserDto> findUser(Long id) {
+        UserDto cached = userCache.getIfPresent(id);
+        if (cached == null) {
+            long generation = generations.get(stripe(id));
+            cached = userRepository.findById(id)
+                    .map(UserMapper::toUserDto)
+                    .orElse(null);
+            if (cached == null) {
+                return Optional.empty();
+            }
+            // Ответ реплики мог отстать от записи: в кэше он пережил бы и окно read-your-writes
+            if (!ReplicaRoutingDataSource.isReadingReplica()) {
+                userCache.put(id, cached);
+                // Сброс после чтения строки, но до put: прочитанное могло устареть. Проверка идёт после put,
+                // а evict увеличивает счётчик до invalidate, поэтому устаревшую запись удалит одна из сторон
+                if (generations.get(stripe(id)) != generation) {
+                    userCache.invalidate(id);
+                }
+            }
+        }
+        // DTO изменяемый, наружу отдаётся копия
+        return Optional.of(new UserDto(cached.getId(), cached.getName(), cached.getEmail()));
+    }
+
+    // Запись удаляется сразу и ещё раз по завершении транзакции: чтение внутри неё могло
+    // положить в кэш незафиксированное состояние
+    private void evict(Long id) {
+        invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(id);
+                }
+            });
+        }
+    }
+
+    private void invalidate(Long id) {
+        generations.incrementAndGet(stripe(id));
+        userCache.invalidate(id);
+    }
+
+    private static int stripe(Long id) {
+        return Long.hashCode(id) & (GENERATION_STRIPES - 1);
     }
 }
\ No newline at end of file
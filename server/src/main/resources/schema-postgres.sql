@@ -0,0 +1,13 @@
+-- Объекты, специфичные для PostgreSQL. Выполняется после schema.sql
+
+-- Триграммные индексы для поиска подстроки в ItemRepository.search
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_items_name_trgm ON items USING gin (UPPER(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_items_description_trgm ON items USING gin (UPPER(description) gin_trgm_ops);
+
+-- Активные бронирования одной вещи (WAITING/APPROVED) не могут пересекаться по времени.
+-- Проверку выполняет сама база, поэтому она действует и между репликами сервера
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+ALTER TABLE bookings ADD CONSTRAINT excl_bookings_item_period
+    EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&)
+    WHERE (status IN ('WAITING', 'APPROVED'));
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.server.benchmark;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Данные и статистика для бенчмарков. Строки вставляются пачками через JDBC в обход сервисов,
+ * чтобы подготовка не занимала больше времени, чем сами замеры.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    // Владелец с items вещами и bookings подтверждёнными бронированиями от одного арендатора;
+    // у каждой вещи бронирования идут подряд без пересечений, половина из них в прошлом
+    static long seedOwner(JdbcTemplate jdbcTemplate, String email, int items, int bookings) {
+        long ownerId = insertUser(jdbcTemplate, "Owner", "owner-" + email);
+        long bookerId = insertUser(jdbcTemplate, "Booker", "booker-" + email);
+
+        List<Object[]> itemRows = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            itemRows.add(new Object[]{"Item " + i, "Description of item " + i + " for the benchmark", ownerId});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO items (name, description, is_available, owner_id) VALUES (?, ?, TRUE, ?)", itemRows);
+        List<Long> itemIds = jdbcTemplate.queryForList(
+                "SELECT id FROM items WHERE owner_id = ? ORDER BY id", Long.class, ownerId);
+
+        int rounds = (bookings + items - 1) / items;
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> bookingRows = new ArrayList<>(bookings);
+        for (int k = 0; k < bookings; k++) {
+            LocalDateTime start = now.plusDays(2L * (k / items) - rounds);
+            bookingRows.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(1)),
+                    itemIds.get(k % items), bookerId, ownerId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (start_date, end_date, item_id, booker_id, owner_id, status) "
+                + "VALUES (?, ?, ?, ?, ?, 'APPROVED')", bookingRows);
+        return ownerId;
+    }
+
+    static long insertUser(JdbcTemplate jdbcTemplate, String name, String email) {
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES (?, ?)", name, email);
+        return jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, email);
+    }
+
+    // Процентиль по возрастанию, в миллисекундах
+    static double percentileMillis(long[] nanos, int percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,130 @@
+package ru.practicum.shareit.server.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.server.batch.BatchImportResult;
+import ru.practicum.shareit.server.item.service.ItemImportService;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Скорость пакетного импорта вещей (ItemImportService) до и после перехода на последовательности
+ * и JDBC-пачки. «До» воспроизводится в отдельном контексте: id вещей через IDENTITY
+ * (benchmark/identity-ids.orm.xml) и без hibernate.jdbc.batch_size. У каждого контекста своя база.
+ * Запуск: SHAREIT_BENCHMARK=true mvn -pl server test -Dgroups=benchmark
+ */
+@Slf4j
+@Tag("benchmark")
+@EnabledIfEnvironmentVariable(named = "SHAREIT_BENCHMARK", matches = "true")
+class ItemImportBenchmarkTest {
+
+    private static final int WARM_UP_ROWS = 2_000;
+    private static final int ROWS = 10_000;
+    private static final int RUNS = 3;
+
+    private static Result before;
+    private static Result after;
+
+    @AfterAll
+    static void compare() {
+        log.info("Import of {} items\n{}\n{}", ROWS, before, after);
+        if (before != null && after != null) {
+            assertThat(after.statementsPerThousand()).isLessThan(before.statementsPerThousand() / 10);
+        }
+    }
+
+    @Nested
+    @ActiveProfiles("test")
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:h2:mem:importbefore;LOCK_TIMEOUT=10000",
+            "spring.jpa.show-sql=false",
+            "spring.jpa.properties.hibernate.generate_statistics=true",
+            "spring.jpa.mapping-resources=benchmark/identity-ids.orm.xml",
+            "spring.jpa.properties.hibernate.jdbc.batch_size=0",
+            "spring.jpa.properties.hibernate.order_inserts=false",
+            "spring.jpa.properties.hibernate.order_updates=false"
+    })
+    class IdentityWithoutBatching extends Measurement {
+
+        @Test
+        void importItems() {
+            before = measure("IDENTITY, no JDBC batching");
+        }
+    }
+
+    @Nested
+    @ActiveProfiles("test")
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:h2:mem:importafter;LOCK_TIMEOUT=10000",
+            "spring.jpa.show-sql=false",
+            "spring.jpa.properties.hibernate.generate_statistics=true"
+    })
+    class SequenceWithBatching extends Measurement {
+
+        @Test
+        void importItems() {
+            after = measure("sequence, batch_size=50");
+        }
+    }
+
+    abstract static class Measurement {
+
+        @Autowired
+        private ItemImportService itemImportService;
+
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        Result measure(String name) {
+            long ownerId = BenchmarkData.insertUser(jdbcTemplate, "Owner", "import-benchmark@mail.com");
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            importRows(ownerId, WARM_UP_ROWS);
+
+            statistics.clear();
+            long started = System.nanoTime();
+            for (int i = 0; i < RUNS; i++) {
+                importRows(ownerId, ROWS);
+            }
+            long elapsed = System.nanoTime() - started;
+            return new Result(name, RUNS * ROWS * 1_000_000_000.0 / elapsed,
+                    statistics.getPrepareStatementCount() * 1_000 / (RUNS * ROWS));
+        }
+
+        private void importRows(long ownerId, int rows) {
+            StringBuilder ndjson = new StringBuilder(rows * 80);
+            for (int i = 0; i < rows; i++) {
+                ndjson.append("{\"name\":\"Item ").append(i)
+                        .append("\",\"description\":\"Imported by the benchmark\",\"available\":true}\n");
+            }
+            BatchImportResult result = itemImportService.importItems(ownerId,
+                    new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)));
+            assertThat(result.imported()).isEqualTo(rows);
+        }
+    }
+
+    private record Result(String name, double itemsPerSecond, long statementsPerThousand) {
+
+        @Override
+        public String toString() {
+            return String.format("%-28s %8.0f items/s  %5d statements per 1000 items",
+                    name, itemsPerSecond, statementsPerThousand);
+        }
+    }
+}
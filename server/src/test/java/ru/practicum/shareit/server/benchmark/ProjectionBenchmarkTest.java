@@ -0,0 +1,119 @@
+package ru.practicum.shareit.server.benchmark;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.server.booking.dto.BookingDto;
+import ru.practicum.shareit.server.booking.mapper.BookingMapper;
+import ru.practicum.shareit.server.booking.model.Booking;
+import ru.practicum.shareit.server.booking.service.BookingService;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Память и процессорное время одного ответа на 10 000 бронирований владельца:
+ * сущности с JOIN FETCH в транзакции на запись (как было до BookingView) против
+ * BookingView в транзакции readOnly. Вызов идёт в потоке теста, поэтому счётчики потока
+ * учитывают и Hibernate, и преобразование в DTO.
+ * Запуск: SHAREIT_BENCHMARK=true mvn -pl server test -Dgroups=benchmark
+ */
+@Slf4j
+@Tag("benchmark")
+@EnabledIfEnvironmentVariable(named = "SHAREIT_BENCHMARK", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:projectionbenchmark;LOCK_TIMEOUT=10000",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=false"
+})
+class ProjectionBenchmarkTest {
+
+    private static final int ITEMS = 1_000;
+    private static final int BOOKINGS = 10_000;
+    private static final int WARM_UP = 10;
+    private static final int RUNS = 10;
+
+    // Запрос списка до BookingView: управляемые сущности со снимками для проверки изменений
+    private static final String ENTITY_QUERY = "SELECT b FROM Booking b JOIN FETCH b.item JOIN FETCH b.booker "
+            + "WHERE b.ownerId = :ownerId ORDER BY b.start DESC, b.id DESC";
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long ownerId;
+
+    @BeforeAll
+    void seed() {
+        ownerId = BenchmarkData.seedOwner(jdbcTemplate, "projection@mail.com", ITEMS, BOOKINGS);
+    }
+
+    @Test
+    void ownerBookings() {
+        Result entities = measure("entities, read-write", () -> transactionTemplate.execute(status ->
+                entityManager.createQuery(ENTITY_QUERY, Booking.class)
+                        .setParameter("ownerId", ownerId)
+                        .getResultList()
+                        .stream()
+                        .map(BookingMapper::toBookingDto)
+                        .toList()));
+        Result views = measure("BookingView, readOnly", () ->
+                bookingService.getOwnerBookings(ownerId, "ALL", 0, BOOKINGS, null));
+
+        log.info("{} owner bookings\n{}\n{}", BOOKINGS, entities, views);
+        assertThat(views.bytesPerCall()).isLessThan(entities.bytesPerCall());
+    }
+
+    private Result measure(String name, Supplier<List<BookingDto>> call) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARM_UP; i++) {
+            assertThat(call.get()).hasSize(BOOKINGS);
+        }
+
+        long threadId = Thread.currentThread().threadId();
+        long bytes = threads.getThreadAllocatedBytes(threadId);
+        long cpu = threads.getCurrentThreadCpuTime();
+        long[] nanos = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long started = System.nanoTime();
+            call.get();
+            nanos[i] = System.nanoTime() - started;
+        }
+        return new Result(name,
+                (threads.getThreadAllocatedBytes(threadId) - bytes) / RUNS,
+                (threads.getCurrentThreadCpuTime() - cpu) / RUNS / 1_000_000.0,
+                BenchmarkData.percentileMillis(nanos, 50));
+    }
+
+    private record Result(String name, long bytesPerCall, double cpuMillis, double p50Millis) {
+
+        @Override
+        public String toString() {
+            return String.format("%-22s %6.1f MB allocated  %6.1f ms CPU  p50 %6.1f ms",
+                    name, bytesPerCall / 1_048_576.0, cpuMillis, p50Millis);
+        }
+    }
+}
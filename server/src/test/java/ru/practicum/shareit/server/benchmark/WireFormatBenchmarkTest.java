@@ -0,0 +1,123 @@
+package ru.practicum.shareit.server.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Байты тела ответа и задержка самых больших списков (вещи владельца, страница бронирований
+ * владельца) при обращении к серверу напрямую: HTTP/1.1 и h2c, без сжатия и с gzip. Гейтвей в замере
+ * не участвует — его место занимает отдельный JDK HttpClient с теми же версиями протокола, что
+ * и shareit-server.http-client.protocol гейтвея, поэтому обработка ответа в гейтвее в цифры не входит.
+ * JDK HttpClient не распаковывает gzip, поэтому длина тела равна числу байт тела на проводе.
+ * Выигрыш gzip — только в байтах: на loopback задержка не падает, а растёт на время сжатия
+ * (HTTP/1.1, вещи владельца: p50 41 → 42 мс).
+ * Запуск: SHAREIT_BENCHMARK=true mvn -pl server test -Dgroups=benchmark
+ */
+@Slf4j
+@Tag("benchmark")
+@EnabledIfEnvironmentVariable(named = "SHAREIT_BENCHMARK", matches = "true")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:wirebenchmark;LOCK_TIMEOUT=10000",
+        "spring.jpa.show-sql=false"
+})
+class WireFormatBenchmarkTest {
+
+    private static final int ITEMS = 1_000;
+    private static final int BOOKINGS = 5_000;
+    private static final int PAGE = 1_000;
+    private static final int WARM_UP = 20;
+    private static final int RUNS = 50;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long ownerId;
+
+    @BeforeAll
+    void seed() {
+        ownerId = BenchmarkData.seedOwner(jdbcTemplate, "wire@mail.com", ITEMS, BOOKINGS);
+    }
+
+    @Test
+    void ownerItems() throws Exception {
+        compare("/items");
+    }
+
+    @Test
+    void ownerBookings() throws Exception {
+        compare("/bookings/owner?state=ALL&from=0&size=" + PAGE);
+    }
+
+    private void compare(String path) throws Exception {
+        Result http1 = measure(path, HttpClient.Version.HTTP_1_1, false);
+        Result http1Gzip = measure(path, HttpClient.Version.HTTP_1_1, true);
+        Result h2c = measure(path, HttpClient.Version.HTTP_2, false);
+        Result h2cGzip = measure(path, HttpClient.Version.HTTP_2, true);
+
+        log.info("{}\n{}\n{}\n{}\n{}", path, http1, http1Gzip, h2c, h2cGzip);
+        assertThat(h2c.version()).isEqualTo(HttpClient.Version.HTTP_2);
+        assertThat(http1Gzip.bytes()).isLessThan(http1.bytes() / 5);
+        assertThat(h2cGzip.bytes()).isLessThan(h2c.bytes() / 5);
+    }
+
+    private Result measure(String path, HttpClient.Version version, boolean gzip)
+            throws IOException, InterruptedException {
+        try (HttpClient client = HttpClient.newBuilder().version(version).build()) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .header("X-Sharer-User-Id", String.valueOf(ownerId))
+                    .GET();
+            if (gzip) {
+                builder.header("Accept-Encoding", "gzip");
+            }
+            HttpRequest request = builder.build();
+
+            HttpResponse<byte[]> response = null;
+            for (int i = 0; i < WARM_UP; i++) {
+                response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            }
+            long[] nanos = new long[RUNS];
+            for (int i = 0; i < RUNS; i++) {
+                long started = System.nanoTime();
+                response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                nanos[i] = System.nanoTime() - started;
+            }
+
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.headers().firstValue("Content-Encoding").isPresent()).isEqualTo(gzip);
+            return new Result(version, gzip, response.version(), response.body().length,
+                    BenchmarkData.percentileMillis(nanos, 50), BenchmarkData.percentileMillis(nanos, 95));
+        }
+    }
+
+    private record Result(HttpClient.Version requested, boolean gzip, HttpClient.Version version, int bytes,
+                          double p50Millis, double p95Millis) {
+
+        @Override
+        public String toString() {
+            return String.format("%-8s %-4s -> %-8s %9d bytes  p50 %7.2f ms  p95 %7.2f ms",
+                    requested, gzip ? "gzip" : "", version, bytes, p50Millis, p95Millis);
+        }
+    }
+}
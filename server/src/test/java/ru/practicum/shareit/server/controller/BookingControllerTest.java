@@ -13,6 +13,8 @@ import ru.practicum.shareit.server.booking.controller.BookingController;
 import ru.practicum.shareit.server.booking.dto.BookingDto;
 import ru.practicum.shareit.server.booking.service.BookingService;
 import ru.practicum.shareit.server.booking.status.BookingStatus;
+import ru.practicum.shareit.server.etag.Tagged;
+import ru.practicum.shareit.server.pagination.KeysetCursor;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -89,7 +91,7 @@ class BookingControllerTest {
         bookingDto.setItemId(1L);
         bookingDto.setStatus(BookingStatus.APPROVED);
 
-        when(bookingService.getBooking(anyLong(), anyLong())).thenReturn(bookingDto);
+        when(bookingService.getTaggedBooking(anyLong(), anyLong())).thenReturn(new Tagged<>(bookingDto, "0-0-0"));
 
         mockMvc.perform(get("/bookings/1")
                         .header("X-Sharer-User-Id", 1L))
@@ -114,7 +116,7 @@ class BookingControllerTest {
 
         List<BookingDto> bookings = List.of(firstBooking, secondBooking);
 
-        when(bookingService.getUserBookings(anyLong(), anyString())).thenReturn(bookings);
+        when(bookingService.getUserBookings(anyLong(), anyString(), anyInt(), anyInt(), any())).thenReturn(bookings);
 
         mockMvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", 1L)
@@ -135,7 +137,8 @@ class BookingControllerTest {
 
         List<BookingDto> ownerBookings = List.of(ownerBooking);
 
-        when(bookingService.getOwnerBookings(anyLong(), anyString())).thenReturn(ownerBookings);
+        when(bookingService.getOwnerBookings(anyLong(), anyString(), anyInt(), anyInt(), any()))
+                .thenReturn(ownerBookings);
 
         mockMvc.perform(get("/bookings/owner")
                         .header("X-Sharer-User-Id", 1L)
@@ -145,4 +148,69 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[0].id", is(1)))
                 .andExpect(jsonPath("$[0].status", is("APPROVED")));
     }
+
+    @Test
+    void getUserBookings_shouldReturnNextCursorForFullPage() throws Exception {
+
+        BookingDto booking = new BookingDto();
+        booking.setId(7L);
+        booking.setItemId(1L);
+        booking.setStatus(BookingStatus.WAITING);
+        booking.setStart(LocalDateTime.of(2025, 3, 10, 14, 0));
+
+        when(bookingService.getUserBookings(anyLong(), anyString(), eq(0), eq(1), isNull()))
+                .thenReturn(List.of(booking));
+
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("from", "0")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(header().string(KeysetCursor.NEXT_CURSOR_HEADER,
+                        new KeysetCursor(booking.getStart(), booking.getId()).encode()));
+    }
+
+    @Test
+    void getOwnerBookings_shouldNotReturnCursorForLastPage() throws Exception {
+
+        when(bookingService.getOwnerBookings(anyLong(), anyString(), anyInt(), anyInt(), any()))
+                .thenReturn(List.of());
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(KeysetCursor.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getBooking_shouldReturnETag() throws Exception {
+
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setId(1L);
+
+        when(bookingService.getTaggedBooking(anyLong(), anyLong())).thenReturn(new Tagged<>(bookingDto, "2-0-0"));
+
+        mockMvc.perform(get("/bookings/1")
+                        .header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2-0-0\""));
+    }
+
+    @Test
+    void getBooking_shouldReturnNotModifiedWithoutBody() throws Exception {
+
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setId(1L);
+
+        when(bookingService.getTaggedBooking(anyLong(), anyLong())).thenReturn(new Tagged<>(bookingDto, "2-0-0"));
+
+        mockMvc.perform(get("/bookings/1")
+                        .header("X-Sharer-User-Id", 1L)
+                        .header("If-None-Match", "\"2-0-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"2-0-0\""))
+                .andExpect(content().string(""));
+    }
 }
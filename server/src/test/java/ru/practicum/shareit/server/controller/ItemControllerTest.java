@@ -9,16 +9,19 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.server.etag.Tagged;
 import ru.practicum.shareit.server.item.controller.ItemController;
 import ru.practicum.shareit.server.item.dto.CommentDto;
 import ru.practicum.shareit.server.item.dto.ItemDto;
 import ru.practicum.shareit.server.item.service.CommentService;
+import ru.practicum.shareit.server.item.service.ItemImportService;
 import ru.practicum.shareit.server.item.service.ItemService;
 
 import java.util.List;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -40,6 +43,9 @@ class ItemControllerTest {
     @MockBean
     private CommentService commentService;
 
+    @MockBean
+    private ItemImportService itemImportService;
+
     @Test
     void addItem_shouldReturnCreatedItem() throws Exception {
 
@@ -101,15 +107,18 @@ class ItemControllerTest {
         itemDto.setName("Drill");
         itemDto.setDescription("Powerful drill");
         itemDto.setAvailable(true);
+        itemDto.setOwnerId(2L);
 
-        when(itemService.getItem(anyLong(), anyLong())).thenReturn(itemDto);
+        when(itemService.getTaggedItem(anyLong(), anyLong(), any())).thenReturn(new Tagged<>(itemDto, "0-0-0"));
 
         mockMvc.perform(get("/items/1")
                         .header("X-Sharer-User-Id", 1L))
                 .andExpect(status().isOk())
+                .andExpect(header().string("X-Item-Owner", "2"))
                 .andExpect(jsonPath("$.id", is(1)))
                 .andExpect(jsonPath("$.name", is("Drill")))
-                .andExpect(jsonPath("$.description", is("Powerful drill")));
+                .andExpect(jsonPath("$.description", is("Powerful drill")))
+                .andExpect(jsonPath("$.ownerId").doesNotExist());
     }
 
     @Test
@@ -152,7 +161,7 @@ class ItemControllerTest {
 
         List<ItemDto> searchResults = List.of(foundItem);
 
-        when(itemService.searchItems(any())).thenReturn(searchResults);
+        when(itemService.searchItems(any(), anyInt(), anyInt())).thenReturn(searchResults);
 
         mockMvc.perform(get("/items/search")
                         .param("text", "drill"))
@@ -9,6 +9,8 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.server.etag.Tagged;
+import ru.practicum.shareit.server.pagination.KeysetCursor;
 import ru.practicum.shareit.server.request.controller.ItemRequestController;
 import ru.practicum.shareit.server.request.dto.ItemRequestDto;
 import ru.practicum.shareit.server.request.service.ItemRequestService;
@@ -95,7 +97,7 @@ class ItemRequestControllerTest {
 
         List<ItemRequestDto> requests = List.of(request1);
 
-        when(itemRequestService.getAllRequests(anyLong())).thenReturn(requests);
+        when(itemRequestService.getAllRequests(anyLong(), anyInt(), anyInt(), any())).thenReturn(requests);
 
         mockMvc.perform(get("/requests/all")
                         .header("X-Sharer-User-Id", 1L))
@@ -105,6 +107,26 @@ class ItemRequestControllerTest {
                 .andExpect(jsonPath("$[0].description", is("Need a drill")));
     }
 
+    @Test
+    void getAllRequests_shouldReturnNextCursorForFullPage() throws Exception {
+
+        ItemRequestDto request = new ItemRequestDto();
+        request.setId(3L);
+        request.setDescription("Need a saw");
+        request.setCreated(LocalDateTime.of(2025, 3, 10, 14, 0));
+
+        when(itemRequestService.getAllRequests(eq(1L), eq(0), eq(1), isNull())).thenReturn(List.of(request));
+
+        mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("from", "0")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(header().string(KeysetCursor.NEXT_CURSOR_HEADER,
+                        new KeysetCursor(request.getCreated(), request.getId()).encode()));
+    }
+
     @Test
     void getRequestById_shouldReturnRequest() throws Exception {
 
@@ -113,7 +135,7 @@ class ItemRequestControllerTest {
         requestDto.setDescription("Need a drill");
         requestDto.setCreated(LocalDateTime.now());
 
-        when(itemRequestService.getRequestById(anyLong(), anyLong())).thenReturn(requestDto);
+        when(itemRequestService.getTaggedRequest(anyLong(), anyLong(), any())).thenReturn(new Tagged<>(requestDto, "0-0-0"));
 
         mockMvc.perform(get("/requests/1")
                         .header("X-Sharer-User-Id", 1L))
@@ -10,8 +10,10 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.server.etag.Tagged;
 import ru.practicum.shareit.server.user.controller.UserController;
 import ru.practicum.shareit.server.user.dto.UserDto;
+import ru.practicum.shareit.server.user.service.UserImportService;
 import ru.practicum.shareit.server.user.service.UserService;
 
 import java.util.List;
@@ -36,6 +38,9 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserImportService userImportService;
+
     @Test
     void createUser_shouldReturnCreatedUser() throws Exception {
         UserDto userDto = new UserDto(null, "John Doe", "john.doe@mail.com");
@@ -56,10 +61,11 @@ class UserControllerTest {
     void getUser_shouldReturnUser() throws Exception {
         UserDto userDto = new UserDto(1L, "John Doe", "john.doe@mail.com");
 
-        when(userService.getUser(anyLong())).thenReturn(userDto);
+        when(userService.getTaggedUser(anyLong())).thenReturn(new Tagged<>(userDto, "3"));
 
         mockMvc.perform(get("/users/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
                 .andExpect(jsonPath("$.id", is(1)))
                 .andExpect(jsonPath("$.name", is("John Doe")))
                 .andExpect(jsonPath("$.email", is("john.doe@mail.com")));
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.server.mapper;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.server.item.dto.ItemDto;
+import ru.practicum.shareit.server.item.mapper.ItemMapper;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.request.model.ItemRequest;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ItemMapperAllocationTest {
+
+    private static final int ITERATIONS = 100_000;
+
+    // Запас на сам ItemDto и его builder; строковое представление DTO в лог сюда уже не помещается
+    private static final long MAX_BYTES_PER_CALL = 160;
+
+    @Test
+    void toItemDto_shouldAllocateOnlyTheDto() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        Item item = Item.builder()
+                .id(1L)
+                .name("Дрель")
+                .description("Ударная дрель с набором свёрл для бетона и дерева")
+                .available(true)
+                .request(ItemRequest.builder().id(7L).build())
+                .build();
+
+        ItemDto sink = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = ItemMapper.toItemDto(item);
+        }
+
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = ItemMapper.toItemDto(item);
+        }
+        long perCall = (threads.getThreadAllocatedBytes(threadId) - before) / ITERATIONS;
+
+        assertEquals(7L, sink.getRequestId());
+        assertTrue(perCall <= MAX_BYTES_PER_CALL, "toItemDto allocates " + perCall + " bytes per call");
+    }
+}
@@ -0,0 +1,186 @@
+package ru.practicum.shareit.server.repository;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.server.booking.model.Booking;
+import ru.practicum.shareit.server.booking.repository.BookingRepository;
+import ru.practicum.shareit.server.booking.status.BookingStatus;
+import ru.practicum.shareit.server.item.model.Comment;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.item.repository.CommentRepository;
+import ru.practicum.shareit.server.item.repository.ItemRepository;
+import ru.practicum.shareit.server.pagination.KeysetCursor;
+import ru.practicum.shareit.server.pagination.OffsetPageRequest;
+import ru.practicum.shareit.server.request.model.ItemRequest;
+import ru.practicum.shareit.server.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.server.user.model.User;
+import ru.practicum.shareit.server.user.repository.UserRepository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет планы запросов репозиториев на заполненной базе: ни один поиск не должен
+ * сводиться к полному сканированию таблицы.
+ * Не проверяются {@code ItemRepository.search} (поиск подстроки) и
+ * {@code ItemRequestRepository.findAllExceptOwn} (лента чужих запросов: условие {@code <> userId}
+ * выбирает почти всю таблицу, страницу ограничивает порядок по индексу {@code idx_requests_created}).
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+@Transactional
+class QueryPlanIntegrationTest {
+
+    private static final List<String> EXECUTED_SQL = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class StatementRecordingConfig {
+        @Bean
+        HibernatePropertiesCustomizer statementRecorder() {
+            StatementInspector inspector = sql -> {
+                EXECUTED_SQL.add(sql);
+                return sql;
+            };
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+        }
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private ItemRequest request;
+
+    @BeforeEach
+    void seed() {
+        LocalDateTime now = LocalDateTime.now();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            users.add(userRepository.save(new User(null, "User" + i, "plan" + i + "@mail.com", null)));
+        }
+        owner = users.get(0);
+        booker = users.get(1);
+
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            User requestor = users.get(i % users.size());
+            ItemRequest itemRequest = itemRequestRepository.save(
+                    new ItemRequest(null, "Request" + i, requestor, now.minusHours(i), null));
+            items.add(itemRepository.save(new Item(null, "Item" + i, "Description" + i, true,
+                    users.get(i % users.size()), i % 2 == 0 ? itemRequest : null, null)));
+            request = itemRequest;
+        }
+        item = items.get(0);
+
+        for (int i = 0; i < 400; i++) {
+            LocalDateTime start = now.plusDays(i % 20 - 10);
+            Booking booking = bookingRepository.save(new Booking(null, start, start.plusDays(1),
+                    items.get(i % items.size()), users.get((i + 1) % users.size()), null,
+                    i % 3 == 0 ? BookingStatus.WAITING : BookingStatus.APPROVED, null));
+            if (i % 5 == 0) {
+                commentRepository.save(new Comment(null, "Comment" + i, booking.getItem(), booking.getBooker(), now));
+            }
+        }
+        bookingRepository.flush();
+        jdbcTemplate.execute("ANALYZE");
+        EXECUTED_SQL.clear();
+    }
+
+    @Test
+    void repositoryFinders_shouldNotUseFullTableScans() {
+        LocalDateTime now = LocalDateTime.now();
+        OffsetPageRequest page = OffsetPageRequest.of(0, 10);
+        Long ownerId = owner.getId();
+        Long bookerId = booker.getId();
+        LocalDateTime first = KeysetCursor.FIRST.timestamp();
+        Long firstId = KeysetCursor.FIRST.id();
+
+        bookingRepository.findByBookerId(bookerId, now, 1L, page);
+        bookingRepository.findByOwnerId(ownerId, first, firstId, page);
+        bookingRepository.findByBookerIdAndStatus(bookerId, BookingStatus.WAITING, first, firstId, page);
+        bookingRepository.findByOwnerIdAndStatus(ownerId, BookingStatus.WAITING, first, firstId, page);
+        bookingRepository.findPastBookingsForUser(bookerId, now, first, firstId, page);
+        bookingRepository.findFutureBookingsForUser(bookerId, now, first, firstId, page);
+        bookingRepository.findCurrentBookingsForUser(bookerId, now, first, firstId, page);
+        bookingRepository.findPastBookingsForOwner(ownerId, now, first, firstId, page);
+        bookingRepository.findFutureBookingsForOwner(ownerId, now, first, firstId, page);
+        bookingRepository.findCurrentBookingsForOwner(ownerId, now, first, firstId, page);
+        bookingRepository.existsByBookerIdAndItemIdAndEndBefore(bookerId, item.getId(), now);
+        bookingRepository.findTopByItem_IdAndStartBeforeAndStatusOrderByEndDesc(item.getId(), now,
+                BookingStatus.APPROVED);
+        bookingRepository.findTopByItem_IdAndStartAfterAndStatusOrderByStartAsc(item.getId(), now,
+                BookingStatus.APPROVED);
+        bookingRepository.findLastBookingsForItems(List.of(item.getId()), now, BookingStatus.APPROVED);
+        bookingRepository.findNextBookingsForItems(List.of(item.getId()), now, BookingStatus.APPROVED);
+
+        itemRepository.findByOwnerId(ownerId);
+        itemRepository.findByRequest_Id(request.getId());
+
+        commentRepository.findByItem_IdOrderByCreatedDesc(item.getId());
+        commentRepository.findByItem_Id(item.getId(), Sort.by("created"));
+        commentRepository.findLatestByItemId(item.getId());
+        commentRepository.findByItemIds(List.of(item.getId()));
+
+        itemRequestRepository.findByRequestor_IdOrderByCreatedDesc(bookerId);
+        userRepository.findByEmail(owner.getEmail());
+
+        List<String> queries = EXECUTED_SQL.stream()
+                .filter(sql -> sql.trim().toLowerCase().startsWith("select"))
+                .distinct()
+                .toList();
+        assertThat(queries).isNotEmpty();
+
+        for (String sql : queries) {
+            String plan = explain(sql);
+            assertThat(plan)
+                    .as("Query plan uses a full table scan:%n%s", plan)
+                    .doesNotContainIgnoringCase("tableScan");
+        }
+    }
+
+    // План строится при подготовке запроса, поэтому параметры не привязываются
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql);
+                 ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        });
+    }
+}
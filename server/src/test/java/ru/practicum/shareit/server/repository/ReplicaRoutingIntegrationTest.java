@@ -0,0 +1,131 @@
+package ru.practicum.shareit.server.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.server.config.MdcLoggingFilter;
+import ru.practicum.shareit.server.user.dto.UserDto;
+import ru.practicum.shareit.server.user.service.UserService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Маршрутизация между основной базой и репликой на двух экземплярах H2. Реплика не получает
+ * изменений основной базы, поэтому по содержимому ответа видно, откуда он прочитан.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "shareit.datasource.replica.enabled=true",
+        "shareit.datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+        "shareit.datasource.replica.username=sa",
+        "shareit.datasource.replica.password=",
+        "shareit.datasource.replica.read-your-writes=1h"
+})
+class ReplicaRoutingIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Cache<Long, UserDto> userCache;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+
+    private UserDto writer;
+
+    @BeforeEach
+    void setUp() {
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(replicaDataSource);
+        new JdbcTemplate(replicaDataSource)
+                .update("INSERT INTO users (name, email) VALUES ('Replica', 'replica@mail.com')");
+
+        writer = userService.createUser(new UserDto(null, "Writer", "writer@mail.com"));
+        userService.createUser(new UserDto(null, "Primary", "primary@mail.com"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        jdbcTemplate.update("DELETE FROM users WHERE email IN ('writer@mail.com', 'primary@mail.com')");
+    }
+
+    @Test
+    void readOnlyTransaction_shouldReadFromReplica() {
+        assertThat(userService.getAllUsers()).extracting(UserDto::getName).containsExactly("Replica");
+    }
+
+    @Test
+    void writeTransaction_shouldGoToPrimary() {
+        // Запись видна основной базе и не попала в реплику
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE email = 'writer@mail.com'",
+                Integer.class)).isEqualTo(1);
+        assertThat(new JdbcTemplate(replicaDataSource).queryForObject(
+                "SELECT COUNT(*) FROM users WHERE email = 'writer@mail.com'", Integer.class)).isZero();
+    }
+
+    @Test
+    void readAfterOwnWrite_shouldStayOnPrimary() {
+        actAs(writer.getId());
+        userService.updateUser(writer.getId(), new UserDto(null, "Writer2", null));
+
+        assertThat(userService.getAllUsers()).extracting(UserDto::getName).contains("Writer2", "Primary");
+
+        // Другие пользователи по-прежнему читают с реплики
+        actAs(writer.getId() + 1000);
+        assertThat(userService.getAllUsers()).extracting(UserDto::getName).containsExactly("Replica");
+    }
+
+    @Test
+    void readAfterWriteByUserPath_shouldStayOnPrimary() {
+        // Эндпоинты /users не получают X-Sharer-User-Id: пользователь берётся из пути
+        onPath("PATCH", "/users/" + writer.getId());
+        userService.updateUser(writer.getId(), new UserDto(null, "Writer2", null));
+
+        onPath("GET", "/users/" + writer.getId());
+        assertThat(userService.getUser(writer.getId()).getName()).isEqualTo("Writer2");
+    }
+
+    @Test
+    void replicaRead_shouldNotFillUserCache() {
+        Long replicaUserId = new JdbcTemplate(replicaDataSource)
+                .queryForObject("SELECT id FROM users WHERE email = 'replica@mail.com'", Long.class);
+        userCache.invalidate(replicaUserId);
+
+        assertThat(userService.existsById(replicaUserId)).isTrue();
+        assertThat(userCache.getIfPresent(replicaUserId)).isNull();
+
+        // Чтение с основной базы в транзакции на запись кэшируется как раньше
+        actAs(writer.getId());
+        userService.updateUser(writer.getId(), new UserDto(null, "Writer2", null));
+        assertThat(userService.getUser(writer.getId()).getName()).isEqualTo("Writer2");
+        assertThat(userCache.getIfPresent(writer.getId())).isNotNull();
+    }
+
+    private static void onPath(String method, String path) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(
+                new MockHttpServletRequest(method, path)));
+    }
+
+    private static void actAs(Long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(MdcLoggingFilter.USER_HEADER, String.valueOf(userId));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}
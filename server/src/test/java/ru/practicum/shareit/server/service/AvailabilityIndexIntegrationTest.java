@@ -0,0 +1,117 @@
+package ru.practicum.shareit.server.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.server.booking.availability.ItemAvailabilityIndex;
+import ru.practicum.shareit.server.booking.dto.BookingDto;
+import ru.practicum.shareit.server.booking.repository.BookingRepository;
+import ru.practicum.shareit.server.booking.service.BookingService;
+import ru.practicum.shareit.server.item.dto.ItemDto;
+import ru.practicum.shareit.server.item.repository.ItemRepository;
+import ru.practicum.shareit.server.item.service.ItemService;
+import ru.practicum.shareit.server.user.dto.UserDto;
+import ru.practicum.shareit.server.user.repository.UserRepository;
+import ru.practicum.shareit.server.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Создание бронирования при включённом индексе занятости.
+ * Индекс обновляется после фиксации транзакции, поэтому класс не транзакционный и удаляет данные сам.
+ * Своя база: schema.sql нового контекста пересоздал бы таблицы и последовательности общего контекста тестов.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "shareit.booking.availability-index=true",
+        "spring.datasource.url=jdbc:h2:mem:availabilityindex;LOCK_TIMEOUT=10000"
+})
+class AvailabilityIndexIntegrationTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @SpyBean
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private UserDto owner;
+    private UserDto booker;
+    private ItemDto item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.createUser(new UserDto(null, "Owner", "index-owner@mail.com"));
+        booker = userService.createUser(new UserDto(null, "Booker", "index-booker@mail.com"));
+
+        ItemDto itemDto = new ItemDto();
+        itemDto.setName("Kayak");
+        itemDto.setDescription("Two-seat kayak");
+        itemDto.setAvailable(true);
+        item = itemService.addItem(owner.getId(), itemDto);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll(bookingRepository.findAll().stream()
+                .filter(booking -> booking.getItem().getId().equals(item.getId()))
+                .toList());
+        itemRepository.deleteById(item.getId());
+        userRepository.deleteAllById(List.of(owner.getId(), booker.getId()));
+    }
+
+    @Test
+    void createBooking_shouldRejectBookedDatesWithoutLockingItem() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        bookingService.createBooking(booker.getId(), booking(start, start.plusDays(2)));
+        clearInvocations(itemRepository);
+
+        assertThatThrownBy(() -> bookingService.createBooking(booker.getId(),
+                booking(start.plusDays(1), start.plusDays(3))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Item is already booked for these dates");
+        // Отказ по индексу приходит до блокировки строки вещи
+        verify(itemRepository, never()).findByIdForUpdate(any());
+        verify(itemRepository, never()).findById(any());
+
+        // Соседний интервал свободен
+        assertThat(bookingService.createBooking(booker.getId(),
+                booking(start.plusDays(2), start.plusDays(3))).getId()).isNotNull();
+        assertThat(availabilityIndex.verify().consistent()).isTrue();
+    }
+
+    private BookingDto booking(LocalDateTime start, LocalDateTime end) {
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(item.getId());
+        bookingDto.setStart(start);
+        bookingDto.setEnd(end);
+        return bookingDto;
+    }
+}
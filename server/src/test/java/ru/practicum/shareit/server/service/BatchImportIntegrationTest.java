@@ -0,0 +1,233 @@
+package ru.practicum.shareit.server.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.server.batch.BatchImportResult;
+import ru.practicum.shareit.server.batch.BatchImportResult.RowError;
+import ru.practicum.shareit.server.batch.ChunkedImporter;
+import ru.practicum.shareit.server.item.service.ItemImportService;
+import ru.practicum.shareit.server.request.model.ItemRequest;
+import ru.practicum.shareit.server.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.server.user.dto.UserDto;
+import ru.practicum.shareit.server.user.model.User;
+import ru.practicum.shareit.server.user.repository.UserRepository;
+import ru.practicum.shareit.server.user.service.UserImportService;
+import ru.practicum.shareit.server.user.service.UserService;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Импорт фиксируется по пачкам в собственных транзакциях, поэтому тест не откатывается
+ * и удаляет свои данные сам. Размер пачки уменьшен, чтобы строки попадали в несколько пачек.
+ * Отдельный контекст получает свою базу: иначе schema.sql пересоздал бы таблицы под общим контекстом тестов.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "shareit.batch.chunk-size=2",
+        "spring.datasource.url=jdbc:h2:mem:batchimport;LOCK_TIMEOUT=10000"
+})
+class BatchImportIntegrationTest {
+
+    @Autowired
+    private ItemImportService itemImportService;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private ChunkedImporter chunkedImporter;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UserDto owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = userService.createUser(new UserDto(null, "Owner", "import-owner@mail.com"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE 'import-%'");
+        jdbcTemplate.update("DELETE FROM batch_import_chunks");
+    }
+
+    @Test
+    void importItems_shouldSaveJsonArrayInChunks() {
+        User requestor = userRepository.findById(owner.getId()).orElseThrow();
+        ItemRequest request = itemRequestRepository.save(
+                new ItemRequest(null, "Need a drill", requestor, LocalDateTime.now(), null));
+
+        BatchImportResult result = itemImportService.importItems(owner.getId(), input(
+                "[{\"name\": \"Drill\", \"description\": \"Powerful\", \"available\": true, \"requestId\": "
+                        + request.getId() + "},",
+                "{\"name\": \"Saw\", \"description\": \"Sharp\", \"available\": true},",
+                "{\"id\": 999, \"name\": \"Hammer\", \"description\": \"Heavy\", \"available\": false},",
+                "{\"name\": \"Ladder\", \"description\": \"Tall\", \"available\": true}]"));
+
+        assertThat(result.received()).isEqualTo(4);
+        assertThat(result.imported()).isEqualTo(4);
+        assertThat(result.errors()).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items WHERE owner_id = ?",
+                Integer.class, owner.getId())).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items WHERE request_id = ?",
+                Integer.class, request.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void importItems_shouldRollBackOnlyFailedChunk() {
+        // Имя длиннее столбца items.name: ошибку даёт база при вставке, и откатывается вся вторая пачка
+        BatchImportResult result = itemImportService.importItems(owner.getId(), input(
+                "{\"name\": \"Drill\", \"description\": \"Powerful\", \"available\": true}",
+                "{\"name\": \"Saw\", \"description\": \"Sharp\", \"available\": true}",
+                "{\"name\": \"Hammer\", \"description\": \"Heavy\", \"available\": true}",
+                "{\"name\": \"" + "x".repeat(300) + "\", \"description\": \"Long\", \"available\": true}",
+                "{\"name\": \"Ladder\", \"description\": \"Tall\", \"available\": true}"));
+
+        assertThat(result.received()).isEqualTo(5);
+        assertThat(result.imported()).isEqualTo(3);
+        assertThat(result.errors()).extracting(RowError::row).containsExactly(2, 3);
+        assertThat(result.errors()).allSatisfy(error -> assertThat(error.message()).startsWith("Chunk rolled back"));
+        assertThat(jdbcTemplate.queryForList("SELECT name FROM items WHERE owner_id = ? ORDER BY id",
+                String.class, owner.getId())).containsExactly("Drill", "Saw", "Ladder");
+    }
+
+    @Test
+    void importItems_shouldSkipCommittedChunksWhenRetriedWithImportKey() {
+        String[] rows = {
+                "{\"name\": \"Drill\", \"description\": \"Powerful\", \"available\": true}",
+                "{\"name\": \"Saw\", \"description\": \"Sharp\", \"available\": true}",
+                "{\"name\": \"Hammer\", \"description\": \"Heavy\", \"available\": true}",
+                "{\"name\": \"Ladder\", \"description\": \"Tall\", \"available\": true}"};
+        // Первая попытка оборвалась после первой пачки; повтор присылает весь вход
+        itemImportService.importItems(owner.getId(), "import-1", 0, input(rows[0], rows[1]));
+
+        BatchImportResult retry = itemImportService.importItems(owner.getId(), "import-1", 0, input(rows));
+        BatchImportResult again = itemImportService.importItems(owner.getId(), "import-1", 0, input(rows));
+
+        assertThat(retry.imported()).isEqualTo(4);
+        assertThat(again.imported()).isEqualTo(4);
+        assertThat(jdbcTemplate.queryForList("SELECT name FROM items WHERE owner_id = ? ORDER BY id",
+                String.class, owner.getId())).containsExactly("Drill", "Saw", "Hammer", "Ladder");
+
+        // Без ключа и с другим ключом строки добавляются заново
+        itemImportService.importItems(owner.getId(), "import-2", 0, input(rows[0]));
+        itemImportService.importItems(owner.getId(), input(rows[0]));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items WHERE owner_id = ?",
+                Integer.class, owner.getId())).isEqualTo(6);
+    }
+
+    @Test
+    void importItems_shouldRejectUnknownOwner() {
+        assertThatThrownBy(() -> itemImportService.importItems(999_999L, input("[]")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("User not found");
+    }
+
+    @Test
+    void importUsers_shouldReportRowErrorsAndKeepValidRows() {
+        BatchImportResult result = userImportService.importUsers(input(
+                "{\"name\": \"First\", \"email\": \"import-first@mail.com\"}",
+                "{\"name\": \"Taken\", \"email\": \"import-owner@mail.com\"}",
+                "null",
+                "{\"name\": \"Twice\", \"email\": \"import-first@mail.com\"}",
+                "{\"name\": [\"not\", \"a\", \"string\"], \"email\": \"import-bad@mail.com\"}",
+                "{\"name\": \"Second\", \"email\": \"import-second@mail.com\"}"));
+
+        assertThat(result.received()).isEqualTo(6);
+        assertThat(result.imported()).isEqualTo(2);
+        assertThat(result.errors()).extracting(RowError::row).containsExactly(1, 3, 4);
+        assertThat(result.errors().getFirst().message()).isEqualTo("Email is already in use");
+        assertThat(jdbcTemplate.queryForList("SELECT name FROM users WHERE email LIKE 'import-%' ORDER BY id",
+                String.class)).containsExactly("Owner", "First", "Second");
+    }
+
+    @Test
+    void importUsers_shouldAcceptEmailOfRolledBackChunk() {
+        // Первая пачка откатывается из-за слишком длинного имени, её email остаётся свободным
+        BatchImportResult result = userImportService.importUsers(input(
+                "{\"name\": \"First\", \"email\": \"import-first@mail.com\"}",
+                "{\"name\": \"" + "x".repeat(300) + "\", \"email\": \"import-long@mail.com\"}",
+                "{\"name\": \"Again\", \"email\": \"import-first@mail.com\"}",
+                "{\"name\": \"Twice\", \"email\": \"import-first@mail.com\"}"));
+
+        assertThat(result.imported()).isEqualTo(1);
+        assertThat(result.errors()).extracting(RowError::row).containsExactly(0, 1, 3);
+        assertThat(result.errors().getLast().message()).isEqualTo("Email is already in use");
+        assertThat(jdbcTemplate.queryForList("SELECT name FROM users WHERE email = 'import-first@mail.com'",
+                String.class)).containsExactly("Again");
+    }
+
+    @Test
+    void importUsers_shouldRejectRetryWithDifferentChunkSize() {
+        String[] rows = {
+                "{\"name\": \"First\", \"email\": \"import-first@mail.com\"}",
+                "{\"name\": \"Second\", \"email\": \"import-second@mail.com\"}",
+                "{\"name\": \"Third\", \"email\": \"import-third@mail.com\"}"};
+        userImportService.importUsers("import-1", 0, input(rows[0], rows[1]));
+
+        ReflectionTestUtils.setField(chunkedImporter, "chunkSize", 3);
+        try {
+            // С другим размером пачка 0 покрывала бы строки 0-2, а сохранены только 0-1
+            assertThatThrownBy(() -> userImportService.importUsers("import-1", 0, input(rows)))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("Import key was used with a different chunk size");
+        } finally {
+            ReflectionTestUtils.setField(chunkedImporter, "chunkSize", 2);
+        }
+
+        assertThat(userImportService.importUsers("import-1", 0, input(rows)).imported()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE email LIKE 'import-%'",
+                Integer.class)).isEqualTo(4);
+    }
+
+    @Test
+    void importUsers_shouldStopAtMalformedJson() {
+        BatchImportResult result = userImportService.importUsers(input(
+                "{\"name\": \"First\", \"email\": \"import-first@mail.com\"}",
+                "{\"name\": \"Broken\", \"email\":"));
+
+        assertThat(result.imported()).isEqualTo(1);
+        assertThat(result.errors()).singleElement()
+                .satisfies(error -> {
+                    assertThat(error.row()).isEqualTo(1);
+                    assertThat(error.message()).startsWith("Malformed JSON");
+                });
+    }
+
+    @Test
+    void importUsers_shouldNumberRowsFromFirstRow() {
+        BatchImportResult result = userImportService.importUsers(null, 10_000, input(
+                "{\"name\": \"First\", \"email\": \"import-first@mail.com\"}",
+                "{\"name\": \"Taken\", \"email\": \"import-owner@mail.com\"}"));
+
+        assertThat(result.received()).isEqualTo(2);
+        assertThat(result.errors()).extracting(RowError::row).containsExactly(10_001);
+    }
+
+    private static InputStream input(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,155 @@
+package ru.practicum.shareit.server.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.server.booking.dto.BookingDto;
+import ru.practicum.shareit.server.booking.repository.BookingRepository;
+import ru.practicum.shareit.server.booking.service.BookingService;
+import ru.practicum.shareit.server.booking.status.BookingStatus;
+import ru.practicum.shareit.server.item.dto.ItemDto;
+import ru.practicum.shareit.server.item.repository.ItemRepository;
+import ru.practicum.shareit.server.item.service.ItemService;
+import ru.practicum.shareit.server.user.dto.UserDto;
+import ru.practicum.shareit.server.user.repository.UserRepository;
+import ru.practicum.shareit.server.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Пересекающиеся бронирования одной вещи: одновременное создание и повторное одобрение отклонённого.
+ * Класс не транзакционный: каждый вызов сервиса фиксируется в своей транзакции,
+ * поэтому созданные данные удаляются вручную.
+ * На H2 пересечения отсекает блокировка вещи, на PostgreSQL — см. {@link PostgresConcurrentBookingIntegrationTest}.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+class ConcurrentBookingIntegrationTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<Long> userIds = new ArrayList<>();
+    private ItemDto item;
+
+    @BeforeEach
+    void setUp() {
+        UserDto owner = userService.createUser(new UserDto(null, "Owner", "concurrent-owner@mail.com"));
+        userIds.add(owner.getId());
+        for (int i = 0; i < THREADS; i++) {
+            userIds.add(userService.createUser(
+                    new UserDto(null, "Booker" + i, "concurrent-booker" + i + "@mail.com")).getId());
+        }
+
+        ItemDto itemDto = new ItemDto();
+        itemDto.setName("Tent");
+        itemDto.setDescription("Four-person tent");
+        itemDto.setAvailable(true);
+        item = itemService.addItem(owner.getId(), itemDto);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll(bookingRepository.findAll().stream()
+                .filter(booking -> booking.getItem().getId().equals(item.getId()))
+                .toList());
+        itemRepository.deleteById(item.getId());
+        userRepository.deleteAllById(userIds);
+        userIds.clear();
+    }
+
+    @Test
+    void createBooking_shouldAcceptOnlyOneOfConcurrentOverlappingBookings() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        AtomicInteger conflicts = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<BookingDto>> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                Long bookerId = userIds.get(i + 1);
+                // Интервалы сдвинуты на час: каждый пересекается со всеми остальными
+                BookingDto bookingDto = new BookingDto();
+                bookingDto.setItemId(item.getId());
+                bookingDto.setStart(start.plusHours(i));
+                bookingDto.setEnd(start.plusDays(1).plusHours(i));
+
+                results.add(executor.submit(() -> {
+                    startSignal.await();
+                    try {
+                        return bookingService.createBooking(bookerId, bookingDto);
+                    } catch (IllegalStateException e) {
+                        conflicts.incrementAndGet();
+                        return null;
+                    }
+                }));
+            }
+            startSignal.countDown();
+
+            List<BookingDto> created = new ArrayList<>();
+            for (Future<BookingDto> result : results) {
+                BookingDto booking = result.get(30, TimeUnit.SECONDS);
+                if (booking != null) {
+                    created.add(booking);
+                }
+            }
+
+            assertThat(created).hasSize(1);
+            assertThat(conflicts.get()).isEqualTo(THREADS - 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void approveBooking_shouldRejectReactivationIntoTakenSlot() {
+        Long ownerId = userIds.getFirst();
+        BookingDto bookingDto = new BookingDto();
+        bookingDto.setItemId(item.getId());
+        bookingDto.setStart(LocalDateTime.now().plusDays(1));
+        bookingDto.setEnd(LocalDateTime.now().plusDays(2));
+
+        // Отклонённое бронирование освобождает интервал, и его занимает другой арендатор
+        BookingDto rejected = bookingService.createBooking(userIds.get(1), bookingDto);
+        bookingService.approveBooking(ownerId, rejected.getId(), false);
+        bookingService.createBooking(userIds.get(2), bookingDto);
+
+        assertThatThrownBy(() -> bookingService.approveBooking(ownerId, rejected.getId(), true))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Item is already booked for these dates");
+        assertThat(bookingService.getBooking(ownerId, rejected.getId()).getStatus())
+                .isEqualTo(BookingStatus.REJECTED);
+    }
+}
@@ -0,0 +1,190 @@
+package ru.practicum.shareit.server.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.server.booking.dto.BookingDto;
+import ru.practicum.shareit.server.booking.model.Booking;
+import ru.practicum.shareit.server.booking.repository.BookingRepository;
+import ru.practicum.shareit.server.booking.service.BookingService;
+import ru.practicum.shareit.server.booking.status.BookingStatus;
+import ru.practicum.shareit.server.item.dto.ItemDto;
+import ru.practicum.shareit.server.item.model.Comment;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.item.repository.CommentRepository;
+import ru.practicum.shareit.server.item.repository.ItemRepository;
+import ru.practicum.shareit.server.item.service.ItemService;
+import ru.practicum.shareit.server.request.model.ItemRequest;
+import ru.practicum.shareit.server.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.server.user.model.User;
+import ru.practicum.shareit.server.user.repository.UserRepository;
+import ru.practicum.shareit.server.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Число SQL-запросов на чтение бронирований и вещей. Связи ManyToOne ленивые,
+ * поэтому лишние запросы к владельцам, запросам и пользователям здесь сразу видны.
+ * Статистику Hibernate включают только тесты, которые считают запросы; у их контекста своя база.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:statistics;LOCK_TIMEOUT=10000"
+})
+@Transactional
+class FetchPlanIntegrationTest {
+
+    private static final int ITEM_COUNT = 10;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        owner = userRepository.save(new User(null, "Owner", "fetch-owner@mail.com", null));
+        booker = userRepository.save(new User(null, "Booker", "fetch-booker@mail.com", null));
+
+        // У каждой вещи свой запрос со своим автором: при жадной загрузке это давало запросы на каждую строку
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            User requestor = userRepository.save(new User(null, "Requestor" + i, "fetch" + i + "@mail.com", null));
+            ItemRequest request = itemRequestRepository.save(
+                    new ItemRequest(null, "Request" + i, requestor, now, null));
+            items.add(itemRepository.save(new Item(null, "Item" + i, "Description" + i, true,
+                    owner, request, null)));
+        }
+        item = items.getFirst();
+
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            LocalDateTime start = now.plusDays(i + 1);
+            booking = bookingRepository.save(new Booking(null, start, start.plusHours(1), items.get(i), booker,
+                    null, BookingStatus.APPROVED, null));
+        }
+        entityManager.flush();
+
+        // Пользователи попадают в кэш до замеров, чтобы проверка существования не влияла на счёт
+        userService.existsById(owner.getId());
+        userService.existsById(booker.getId());
+    }
+
+    @Test
+    void getBooking_shouldLoadBookingItemAndBookerInOneStatement() {
+        long statements = countStatements(() -> bookingService.getBooking(booker.getId(), booking.getId()));
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    void getUserBookings_shouldLoadPageInOneStatement() {
+        List<BookingDto> bookings = new ArrayList<>();
+        long statements = countStatements(() ->
+                bookings.addAll(bookingService.getUserBookings(booker.getId(), "ALL", 0, 20, null)));
+
+        assertThat(bookings).hasSize(ITEM_COUNT);
+        assertThat(bookings).allSatisfy(dto -> {
+            assertThat(dto.getItem().getRequestId()).isNotNull();
+            assertThat(dto.getBooker().getName()).isEqualTo("Booker");
+        });
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    void getOwnerBookings_shouldLoadPageInOneStatement() {
+        List<BookingDto> bookings = new ArrayList<>();
+        long statements = countStatements(() ->
+                bookings.addAll(bookingService.getOwnerBookings(owner.getId(), "FUTURE", 0, 20, null)));
+
+        assertThat(bookings).hasSize(ITEM_COUNT);
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    void getItem_shouldNotLoadOwnerOrRequest() {
+        // Вещь и её комментарии
+        long statements = countStatements(() -> itemService.getItem(item.getId(), booker.getId()));
+
+        assertThat(statements).isEqualTo(2);
+    }
+
+    @Test
+    void getTaggedItem_shouldLoadCommentAuthorsWithComments() {
+        for (int i = 0; i < 3; i++) {
+            User author = userRepository.save(new User(null, "Author" + i, "fetch-author" + i + "@mail.com", null));
+            commentRepository.save(Comment.builder().text("Comment" + i).item(item).author(author)
+                    .created(LocalDateTime.now()).build());
+        }
+        entityManager.flush();
+
+        // ETag считается по тем же вещи и авторам, отдельного запроса версий нет
+        long statements = countStatements(() -> itemService.getTaggedItem(item.getId(), booker.getId(), etag -> false));
+
+        assertThat(statements).isEqualTo(2);
+    }
+
+    @Test
+    void getUserItems_shouldNotLoadRequestsOrRequestors() {
+        List<ItemDto> items = new ArrayList<>();
+        // Вещи, последние и следующие бронирования, комментарии
+        long statements = countStatements(() -> items.addAll(itemService.getUserItems(owner.getId())));
+
+        assertThat(items).hasSize(ITEM_COUNT);
+        assertThat(items).allSatisfy(dto -> assertThat(dto.getRequestId()).isNotNull());
+        assertThat(statements).isEqualTo(4);
+    }
+
+    private long countStatements(Supplier<?> call) {
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        call.get();
+
+        return statistics.getPrepareStatementCount();
+    }
+}
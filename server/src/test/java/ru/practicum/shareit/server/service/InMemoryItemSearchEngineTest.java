@@ -0,0 +1,89 @@
+package ru.practicum.shareit.server.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.server.item.dto.ItemDto;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.item.repository.ItemRepository;
+import ru.practicum.shareit.server.item.search.InMemoryItemSearchEngine;
+import ru.practicum.shareit.server.request.model.ItemRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InMemoryItemSearchEngineTest {
+
+    private ItemRepository itemRepository;
+    private InMemoryItemSearchEngine searchEngine;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = mock(ItemRepository.class);
+        searchEngine = new InMemoryItemSearchEngine(itemRepository);
+    }
+
+    @Test
+    void warmUp_shouldIndexAllItemsFromRepository() {
+        ItemRequest request = ItemRequest.builder().id(7L).build();
+        when(itemRepository.findAll()).thenReturn(List.of(
+                item(1L, "Дрель", "Ударная дрель", true),
+                Item.builder().id(2L).name("Отвёртка").description("Крестовая").available(true).request(request).build()));
+
+        searchEngine.warmUp();
+
+        // Регистр не учитывается, в том числе для кириллицы
+        assertThat(searchEngine.search("дРЕЛ", 0, 10)).extracting(ItemDto::getId).containsExactly(1L);
+        assertThat(searchEngine.search("крест", 0, 10))
+                .singleElement()
+                .satisfies(item -> assertThat(item.getRequestId()).isEqualTo(7L));
+    }
+
+    @Test
+    void search_shouldMatchSubstringsAndRankNameMatchesFirst() {
+        searchEngine.index(item(1L, "Screwdriver", "Works like a drill", true));
+        searchEngine.index(item(2L, "Drill", "Powerful tool", true));
+        searchEngine.index(item(3L, "Saw", "Sharp", true));
+
+        assertThat(searchEngine.search("rill", 0, 10)).extracting(ItemDto::getId).containsExactly(2L, 1L);
+        assertThat(searchEngine.search("rill", 1, 10)).extracting(ItemDto::getId).containsExactly(1L);
+        assertThat(searchEngine.search("sa", 0, 10)).extracting(ItemDto::getId).containsExactly(3L);
+        assertThat(searchEngine.search("hammer", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void index_shouldReplacePreviousVersionOfItem() {
+        searchEngine.index(item(1L, "Drill", "Powerful tool", true));
+        searchEngine.index(item(1L, "Hammer", "Heavy tool", true));
+        searchEngine.index(item(2L, "Drill", "Broken", false));
+
+        // Устаревшие триграммы удалены, недоступные вещи не находятся
+        assertThat(searchEngine.search("drill", 0, 10)).isEmpty();
+        assertThat(searchEngine.search("hammer", 0, 10)).extracting(ItemDto::getName).containsExactly("Hammer");
+    }
+
+    @Test
+    void remove_shouldDropItemsAndTheirTrigrams() {
+        searchEngine.index(item(1L, "Drill", "Powerful tool", true));
+        searchEngine.index(item(2L, "Drill press", "Bench tool", true));
+
+        searchEngine.remove(List.of(1L, 99L));
+
+        assertThat(searchEngine.search("drill", 0, 10)).extracting(ItemDto::getId).containsExactly(2L);
+        assertThat(searchEngine.search("powerful", 0, 10)).isEmpty();
+        assertThat(searchEngine.search("to", 0, 10)).extracting(ItemDto::getId).containsExactly(2L);
+    }
+
+    @Test
+    void search_shouldRejectInvalidPaging() {
+        assertThatThrownBy(() -> searchEngine.search("drill", -1, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Item item(Long id, String name, String description, boolean available) {
+        return Item.builder().id(id).name(name).description(description).available(available).build();
+    }
+}
@@ -0,0 +1,162 @@
+package ru.practicum.shareit.server.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.server.booking.availability.BookingSlot;
+import ru.practicum.shareit.server.booking.availability.ItemAvailabilityIndex;
+import ru.practicum.shareit.server.booking.model.Booking;
+import ru.practicum.shareit.server.booking.repository.BookingRepository;
+import ru.practicum.shareit.server.booking.status.BookingStatus;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.user.model.User;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ItemAvailabilityIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    private BookingRepository bookingRepository;
+    private ItemAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        index = new ItemAvailabilityIndex(bookingRepository,
+                Clock.fixed(NOW.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault()));
+    }
+
+    @Test
+    void warmUp_shouldAnswerLastAndNextApprovedBookings() {
+        when(bookingRepository.findActiveSlots()).thenReturn(List.of(
+                slot(1L, 10L, -10, -8, BookingStatus.APPROVED),
+                slot(2L, 10L, -5, -3, BookingStatus.APPROVED),
+                slot(3L, 10L, 2, 4, BookingStatus.WAITING),
+                slot(4L, 10L, 5, 6, BookingStatus.APPROVED),
+                slot(5L, 20L, 1, 2, BookingStatus.APPROVED)));
+
+        index.warmUp();
+
+        assertThat(index.lastBooking(10L, NOW)).map(BookingSlot::id).contains(2L);
+        // Ожидающее подтверждения бронирование не считается следующим
+        assertThat(index.nextBooking(10L, NOW)).map(BookingSlot::id).contains(4L);
+        assertThat(index.lastBooking(20L, NOW)).isEmpty();
+        assertThat(index.nextBooking(30L, NOW)).isEmpty();
+    }
+
+    @Test
+    void isFree_shouldDetectOverlapsWithActiveBookings() {
+        index.update(booking(1L, 10L, 1, 3, BookingStatus.WAITING));
+        index.update(booking(2L, 10L, 5, 7, BookingStatus.APPROVED));
+
+        assertThat(index.isFree(10L, NOW.plusDays(3), NOW.plusDays(5))).isTrue();
+        assertThat(index.isFree(10L, NOW.plusDays(2), NOW.plusDays(4))).isFalse();
+        assertThat(index.isFree(10L, NOW.plusDays(6), NOW.plusDays(8))).isFalse();
+        assertThat(index.isFree(10L, NOW, NOW.plusDays(10))).isFalse();
+        assertThat(index.isFree(20L, NOW, NOW.plusDays(10))).isTrue();
+    }
+
+    @Test
+    void update_shouldMoveBookingBetweenStatuses() {
+        index.update(booking(1L, 10L, 1, 3, BookingStatus.WAITING));
+        assertThat(index.nextBooking(10L, NOW)).isEmpty();
+
+        index.update(booking(1L, 10L, 1, 3, BookingStatus.APPROVED));
+        assertThat(index.nextBooking(10L, NOW)).map(BookingSlot::status).contains(BookingStatus.APPROVED);
+
+        // Отклонённое бронирование освобождает даты
+        index.update(booking(1L, 10L, 1, 3, BookingStatus.REJECTED));
+        assertThat(index.nextBooking(10L, NOW)).isEmpty();
+        assertThat(index.isFree(10L, NOW.plusDays(1), NOW.plusDays(3))).isTrue();
+    }
+
+    @Test
+    void removeUser_shouldDropBookingsRemovedByCascade() {
+        BookingSlot ownBooking = new BookingSlot(1L, 10L, 200L, NOW.plusDays(1), NOW.plusDays(2),
+                BookingStatus.APPROVED);
+        BookingSlot onOwnedItem = slot(2L, 20L, 1, 2, BookingStatus.APPROVED);
+        BookingSlot unrelated = slot(3L, 10L, 3, 4, BookingStatus.APPROVED);
+        when(bookingRepository.findActiveSlots()).thenReturn(List.of(ownBooking, onOwnedItem, unrelated));
+        index.warmUp();
+
+        // Пользователь 200 бронировал вещь 10 и владел вещью 20
+        index.removeUser(200L, List.of(20L));
+
+        assertThat(index.isFree(10L, NOW.plusDays(1), NOW.plusDays(2))).isTrue();
+        assertThat(index.nextBooking(10L, NOW)).map(BookingSlot::id).contains(3L);
+        assertThat(index.nextBooking(20L, NOW)).isEmpty();
+        when(bookingRepository.findActiveSlots()).thenReturn(List.of(unrelated));
+        assertThat(index.verify().consistent()).isTrue();
+    }
+
+    @Test
+    void verify_shouldReportMissingAndStaleBookings() {
+        index.update(booking(1L, 10L, 1, 3, BookingStatus.WAITING));
+        index.update(booking(2L, 10L, 5, 7, BookingStatus.APPROVED));
+        when(bookingRepository.findActiveSlots()).thenReturn(List.of(
+                slot(1L, 10L, 1, 3, BookingStatus.APPROVED),
+                slot(3L, 20L, 1, 2, BookingStatus.WAITING)));
+
+        ItemAvailabilityIndex.ConsistencyReport report = index.verify();
+
+        assertThat(report.consistent()).isFalse();
+        assertThat(report.missing()).containsExactly(3L);
+        assertThat(report.stale()).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void verify_shouldBeConsistentAfterWarmUp() {
+        List<BookingSlot> slots = List.of(slot(1L, 10L, 1, 3, BookingStatus.WAITING));
+        when(bookingRepository.findActiveSlots()).thenReturn(slots);
+        index.warmUp();
+
+        assertThat(index.verify().consistent()).isTrue();
+    }
+
+    @Test
+    void warmUp_shouldPruneEndedBookingsExceptLastApproved() {
+        when(bookingRepository.findActiveSlots()).thenReturn(List.of(
+                slot(1L, 10L, -10, -8, BookingStatus.APPROVED),
+                slot(2L, 10L, -8, -6, BookingStatus.WAITING),
+                slot(3L, 10L, -5, -3, BookingStatus.APPROVED),
+                slot(4L, 20L, -5, -3, BookingStatus.WAITING)));
+
+        index.warmUp();
+
+        // Последнее завершённое одобренное бронирование нужно для lastBooking, остальные отброшены
+        assertThat(index.lastBooking(10L, NOW)).map(BookingSlot::id).contains(3L);
+        assertThat(index.isFree(10L, NOW.minusDays(10), NOW.minusDays(8))).isTrue();
+        assertThat(index.isFree(10L, NOW.minusDays(8), NOW.minusDays(6))).isTrue();
+        assertThat(index.isFree(20L, NOW.minusDays(5), NOW.minusDays(3))).isTrue();
+        assertThat(index.verify().consistent()).isTrue();
+    }
+
+    @Test
+    void update_shouldPruneBookingReplacedByNewerEndedOne() {
+        index.update(booking(1L, 10L, -10, -8, BookingStatus.APPROVED));
+        index.update(booking(2L, 10L, -5, -3, BookingStatus.APPROVED));
+
+        assertThat(index.lastBooking(10L, NOW)).map(BookingSlot::id).contains(2L);
+        assertThat(index.isFree(10L, NOW.minusDays(10), NOW.minusDays(8))).isTrue();
+        when(bookingRepository.findActiveSlots()).thenReturn(List.of(
+                slot(1L, 10L, -10, -8, BookingStatus.APPROVED),
+                slot(2L, 10L, -5, -3, BookingStatus.APPROVED)));
+        assertThat(index.verify().consistent()).isTrue();
+    }
+
+    private static BookingSlot slot(Long id, Long itemId, int startDays, int endDays, BookingStatus status) {
+        return new BookingSlot(id, itemId, 100L, NOW.plusDays(startDays), NOW.plusDays(endDays), status);
+    }
+
+    private static Booking booking(Long id, Long itemId, int startDays, int endDays, BookingStatus status) {
+        return new Booking(id, NOW.plusDays(startDays), NOW.plusDays(endDays),
+                Item.builder().id(itemId).build(), new User(100L, "Booker", "booker@mail.com", null), null, status, null);
+    }
+}
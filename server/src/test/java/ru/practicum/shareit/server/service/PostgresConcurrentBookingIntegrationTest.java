@@ -0,0 +1,33 @@
+package ru.practicum.shareit.server.service;
+
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.Objects;
+
+/**
+ * Те же сценарии, что в {@link ConcurrentBookingIntegrationTest}, на PostgreSQL без блокировки вещи:
+ * пересечения отклоняет только exclusion-ограничение excl_bookings_item_period.
+ * Запускается, если задана переменная SHAREIT_TEST_POSTGRES_URL. База должна быть отдельной:
+ * schema.sql при старте пересоздаёт таблицы.
+ */
+@EnabledIfEnvironmentVariable(named = "SHAREIT_TEST_POSTGRES_URL", matches = ".+")
+@SpringBootTest(properties = {
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.sql.init.platform=postgres",
+        "shareit.booking.lock-item-on-create=false"
+})
+class PostgresConcurrentBookingIntegrationTest extends ConcurrentBookingIntegrationTest {
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("SHAREIT_TEST_POSTGRES_URL"));
+        registry.add("spring.datasource.username",
+                () -> Objects.requireNonNullElse(System.getenv("SHAREIT_TEST_POSTGRES_USER"), "postgres"));
+        registry.add("spring.datasource.password",
+                () -> Objects.requireNonNullElse(System.getenv("SHAREIT_TEST_POSTGRES_PASSWORD"), "shareit"));
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.server.service;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,10 +12,12 @@ import ru.practicum.shareit.server.booking.service.BookingService;
 import ru.practicum.shareit.server.booking.status.BookingStatus;
 import ru.practicum.shareit.server.item.dto.ItemDto;
 import ru.practicum.shareit.server.item.service.ItemService;
+import ru.practicum.shareit.server.pagination.KeysetCursor;
 import ru.practicum.shareit.server.user.dto.UserDto;
 import ru.practicum.shareit.server.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -35,6 +38,9 @@ class ServiceBookingIntegrationTest {
     @Autowired
     private ItemService itemService;
 
+    @Autowired
+    private EntityManager entityManager;
+
     private UserDto owner;
     private UserDto booker;
     private ItemDto item;
@@ -84,6 +90,39 @@ class ServiceBookingIntegrationTest {
                 .hasMessage("Item is not available for booking");
     }
 
+    @Test
+    void createBooking_shouldRejectOverlappingBooking() {
+        bookingService.createBooking(booker.getId(), bookingDto);
+
+        BookingDto overlapping = new BookingDto();
+        overlapping.setItemId(bookingDto.getItemId());
+        overlapping.setStart(bookingDto.getStart().plusHours(12));
+        overlapping.setEnd(bookingDto.getEnd().plusHours(12));
+
+        assertThatThrownBy(() -> bookingService.createBooking(booker.getId(), overlapping))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Item is already booked for these dates");
+    }
+
+    @Test
+    void createBooking_shouldIgnoreRejectedBookingsWhenCheckingOverlap() {
+        BookingDto rejected = bookingService.createBooking(booker.getId(), bookingDto);
+        bookingService.approveBooking(owner.getId(), rejected.getId(), false);
+
+        BookingDto createdBooking = bookingService.createBooking(booker.getId(), bookingDto);
+
+        assertThat(createdBooking.getStatus()).isEqualTo(BookingStatus.WAITING);
+    }
+
+    @Test
+    void createBooking_shouldRejectEndBeforeStart() {
+        bookingDto.setEnd(bookingDto.getStart().minusHours(1));
+
+        assertThatThrownBy(() -> bookingService.createBooking(booker.getId(), bookingDto))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Booking end must be after start");
+    }
+
     @Test
     void approveBooking_shouldUpdateStatusToApproved() {
 
@@ -134,14 +173,47 @@ class ServiceBookingIntegrationTest {
                 .hasMessage("Access denied");
     }
 
+    @Test
+    void getTaggedBooking_shouldChangeWhenBookingOrItemChanges() {
+        BookingDto createdBooking = bookingService.createBooking(booker.getId(), bookingDto);
+        String created = bookingService.getTaggedBooking(booker.getId(), createdBooking.getId()).etag();
+
+        // Повторное чтение без изменений даёт ту же версию
+        assertThat(bookingService.getTaggedBooking(owner.getId(), createdBooking.getId()).etag()).isEqualTo(created);
+
+        bookingService.approveBooking(owner.getId(), createdBooking.getId(), true);
+        String approved = bookingService.getTaggedBooking(booker.getId(), createdBooking.getId()).etag();
+        assertThat(approved).isNotEqualTo(created);
+
+        // Название вещи входит в ответ, поэтому меняет и версию бронирования
+        ItemDto update = new ItemDto();
+        update.setName("Hammer drill");
+        itemService.updateItem(owner.getId(), item.getId(), update);
+        // Версия увеличивается при flush; в отдельном запросе это делает коммит транзакции
+        entityManager.flush();
+        assertThat(bookingService.getTaggedBooking(booker.getId(), createdBooking.getId()).etag()).isNotEqualTo(approved);
+    }
+
+    @Test
+    void getTaggedBooking_shouldThrowExceptionForUnauthorizedUser() {
+        BookingDto createdBooking = bookingService.createBooking(booker.getId(), bookingDto);
+        UserDto otherUser = userService.createUser(new UserDto(null, "Other", "other@mail.com"));
+
+        assertThatThrownBy(() -> bookingService.getTaggedBooking(otherUser.getId(), createdBooking.getId()))
+                .isInstanceOf(NoSuchElementException.class)
+                .hasMessage("Access denied");
+    }
+
     @Test
     void getUserBookings_shouldReturnUserBookings() {
         // Создание нескольких бронирований
         bookingService.createBooking(booker.getId(), bookingDto);
+        bookingDto.setStart(bookingDto.getStart().plusDays(2));
+        bookingDto.setEnd(bookingDto.getEnd().plusDays(2));
         bookingService.createBooking(booker.getId(), bookingDto);
 
         // Получение бронирования пользователя
-        List<BookingDto> bookings = bookingService.getUserBookings(booker.getId(), "ALL");
+        List<BookingDto> bookings = bookingService.getUserBookings(booker.getId(), "ALL", 0, 10, null);
 
         // Проверка
         assertThat(bookings).hasSize(2);
@@ -151,10 +223,12 @@ class ServiceBookingIntegrationTest {
     void getOwnerBookings_shouldReturnOwnerBookings() {
         // Создание нескольких бронирований
         bookingService.createBooking(booker.getId(), bookingDto);
+        bookingDto.setStart(bookingDto.getStart().plusDays(2));
+        bookingDto.setEnd(bookingDto.getEnd().plusDays(2));
         bookingService.createBooking(booker.getId(), bookingDto);
 
         // Получение бронирования владельца
-        List<BookingDto> bookings = bookingService.getOwnerBookings(owner.getId(), "ALL");
+        List<BookingDto> bookings = bookingService.getOwnerBookings(owner.getId(), "ALL", 0, 10, null);
 
         // Проверка
         assertThat(bookings).hasSize(2);
@@ -171,7 +245,7 @@ class ServiceBookingIntegrationTest {
         bookingService.approveBooking(owner.getId(), pastBooking.getId(), true);
 
         // Запрос PAST бронирований
-        List<BookingDto> pastBookings = bookingService.getUserBookings(booker.getId(), "PAST");
+        List<BookingDto> pastBookings = bookingService.getUserBookings(booker.getId(), "PAST", 0, 10, null);
 
         // Проверка
         assertThat(pastBookings).hasSize(1);
@@ -186,7 +260,7 @@ class ServiceBookingIntegrationTest {
         BookingDto futureBooking = bookingService.createBooking(booker.getId(), bookingDto);
 
         // Запрос FUTURE бронирований
-        List<BookingDto> futureBookings = bookingService.getUserBookings(booker.getId(), "FUTURE");
+        List<BookingDto> futureBookings = bookingService.getUserBookings(booker.getId(), "FUTURE", 0, 10, null);
 
         // Проверка
         assertThat(futureBookings).hasSize(1);
@@ -204,7 +278,7 @@ class ServiceBookingIntegrationTest {
         bookingService.approveBooking(owner.getId(), currentBooking.getId(), true);
 
         // Запрос CURRENT бронирований
-        List<BookingDto> currentBookings = bookingService.getUserBookings(booker.getId(), "CURRENT");
+        List<BookingDto> currentBookings = bookingService.getUserBookings(booker.getId(), "CURRENT", 0, 10, null);
 
         // Проверка
         assertThat(currentBookings).hasSize(1);
@@ -217,7 +291,7 @@ class ServiceBookingIntegrationTest {
         BookingDto waitingBooking = bookingService.createBooking(booker.getId(), bookingDto);
 
         // Запрос WAITING бронирований
-        List<BookingDto> waitingBookings = bookingService.getUserBookings(booker.getId(), "WAITING");
+        List<BookingDto> waitingBookings = bookingService.getUserBookings(booker.getId(), "WAITING", 0, 10, null);
 
         // Проверка
         assertThat(waitingBookings).hasSize(1);
@@ -234,7 +308,7 @@ class ServiceBookingIntegrationTest {
         bookingService.approveBooking(owner.getId(), booking.getId(), false);
 
         // Запрос REJECTED бронирований
-        List<BookingDto> rejectedBookings = bookingService.getUserBookings(booker.getId(), "REJECTED");
+        List<BookingDto> rejectedBookings = bookingService.getUserBookings(booker.getId(), "REJECTED", 0, 10, null);
 
         // Проверка
         assertThat(rejectedBookings).hasSize(1);
@@ -253,7 +327,7 @@ class ServiceBookingIntegrationTest {
         bookingService.approveBooking(owner.getId(), pastBooking.getId(), true);
 
         // Запрос PAST бронирований владельцем
-        List<BookingDto> pastBookings = bookingService.getOwnerBookings(owner.getId(), "PAST");
+        List<BookingDto> pastBookings = bookingService.getOwnerBookings(owner.getId(), "PAST", 0, 10, null);
 
         // Проверка
         assertThat(pastBookings).hasSize(1);
@@ -268,7 +342,7 @@ class ServiceBookingIntegrationTest {
         BookingDto futureBooking = bookingService.createBooking(booker.getId(), bookingDto);
 
         // Запрос FUTURE бронирований владельцем
-        List<BookingDto> futureBookings = bookingService.getOwnerBookings(owner.getId(), "FUTURE");
+        List<BookingDto> futureBookings = bookingService.getOwnerBookings(owner.getId(), "FUTURE", 0, 10, null);
 
         // Проверка
         assertThat(futureBookings).hasSize(1);
@@ -286,7 +360,7 @@ class ServiceBookingIntegrationTest {
         bookingService.approveBooking(owner.getId(), currentBooking.getId(), true);
 
         // Запрос CURRENT бронирований владельцем
-        List<BookingDto> currentBookings = bookingService.getOwnerBookings(owner.getId(), "CURRENT");
+        List<BookingDto> currentBookings = bookingService.getOwnerBookings(owner.getId(), "CURRENT", 0, 10, null);
 
         // Проверка
         assertThat(currentBookings).hasSize(1);
@@ -299,7 +373,7 @@ class ServiceBookingIntegrationTest {
         BookingDto waitingBooking = bookingService.createBooking(booker.getId(), bookingDto);
 
         // Запрос неподтвержденных бронирований владельцем
-        List<BookingDto> waitingBookings = bookingService.getOwnerBookings(owner.getId(), "WAITING");
+        List<BookingDto> waitingBookings = bookingService.getOwnerBookings(owner.getId(), "WAITING", 0, 10, null);
 
         // Проверка
         assertThat(waitingBookings).hasSize(1);
@@ -314,11 +388,82 @@ class ServiceBookingIntegrationTest {
 
         bookingService.approveBooking(owner.getId(), booking.getId(), false);
 
-        List<BookingDto> rejectedBookings = bookingService.getOwnerBookings(owner.getId(), "REJECTED");
+        List<BookingDto> rejectedBookings = bookingService.getOwnerBookings(owner.getId(), "REJECTED", 0, 10, null);
 
         // Проверка запроса REJECTED
         assertThat(rejectedBookings).hasSize(1);
         assertThat(rejectedBookings.get(0).getId()).isEqualTo(booking.getId());
         assertThat(rejectedBookings.get(0).getStatus()).isEqualTo(BookingStatus.REJECTED);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getUserBookings_shouldPageThroughBookingsWithCursor() {
+        // Создание трёх бронирований с разными датами
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            bookingDto.setStart(LocalDateTime.now().plusDays(i * 10L));
+            bookingDto.setEnd(LocalDateTime.now().plusDays(i * 10L + 1));
+            bookingIds.add(bookingService.createBooking(booker.getId(), bookingDto).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // Первая страница начинается с самого позднего бронирования
+        List<BookingDto> firstPage = bookingService.getUserBookings(booker.getId(), "ALL", 0, 2, null);
+        assertThat(firstPage).extracting(BookingDto::getId).containsExactly(bookingIds.get(2), bookingIds.get(1));
+
+        // Следующая страница запрашивается по курсору последней записи
+        BookingDto last = firstPage.getLast();
+        String cursor = new KeysetCursor(last.getStart(), last.getId()).encode();
+        List<BookingDto> secondPage = bookingService.getUserBookings(booker.getId(), "ALL", 0, 2, cursor);
+        assertThat(secondPage).extracting(BookingDto::getId).containsExactly(bookingIds.get(0));
+
+        // Смещение from без курсора
+        List<BookingDto> offsetPage = bookingService.getOwnerBookings(owner.getId(), "FUTURE", 1, 10, null);
+        assertThat(offsetPage).extracting(BookingDto::getId).containsExactly(bookingIds.get(1), bookingIds.get(0));
+    }
+
+    @Test
+    void getOwnerBookings_shouldPageThroughBookingsWithCursor() {
+        ItemDto secondItemDto = new ItemDto();
+        secondItemDto.setName("Saw");
+        secondItemDto.setDescription("Sharp saw");
+        secondItemDto.setAvailable(true);
+        ItemDto secondItem = itemService.addItem(owner.getId(), secondItemDto);
+        UserDto otherOwner = userService.createUser(new UserDto(null, "Other", "other-owner@mail.com"));
+        ItemDto foreignItem = itemService.addItem(otherOwner.getId(), secondItemDto);
+
+        // Два бронирования с одинаковым началом: порядок между ними задаёт id
+        LocalDateTime start = LocalDateTime.now().plusDays(5);
+        List<Long> bookingIds = new ArrayList<>();
+        for (ItemDto bookedItem : List.of(item, secondItem, foreignItem)) {
+            bookingDto.setItemId(bookedItem.getId());
+            bookingDto.setStart(start);
+            bookingDto.setEnd(start.plusDays(1));
+            bookingIds.add(bookingService.createBooking(booker.getId(), bookingDto).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<BookingDto> firstPage = bookingService.getOwnerBookings(owner.getId(), "ALL", 0, 1, null);
+        BookingDto last = firstPage.getLast();
+        String cursor = new KeysetCursor(last.getStart(), last.getId()).encode();
+        List<BookingDto> secondPage = bookingService.getOwnerBookings(owner.getId(), "ALL", 0, 1, cursor);
+        cursor = new KeysetCursor(secondPage.getLast().getStart(), secondPage.getLast().getId()).encode();
+
+        assertThat(firstPage).extracting(BookingDto::getId).containsExactly(bookingIds.get(1));
+        assertThat(secondPage).extracting(BookingDto::getId).containsExactly(bookingIds.get(0));
+        assertThat(bookingService.getOwnerBookings(owner.getId(), "ALL", 0, 1, cursor)).isEmpty();
+    }
+
+    @Test
+    void getUserBookings_shouldRejectInvalidPaging() {
+        assertThatThrownBy(() -> bookingService.getUserBookings(booker.getId(), "ALL", -1, 10, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> bookingService.getUserBookings(booker.getId(), "ALL", 0, 0, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> bookingService.getUserBookings(booker.getId(), "ALL", 0, 10, "broken"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor: broken");
+    }
+}
@@ -1,23 +1,42 @@
 package ru.practicum.shareit.server.service;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.server.booking.model.Booking;
+import ru.practicum.shareit.server.booking.repository.BookingRepository;
+import ru.practicum.shareit.server.booking.status.BookingStatus;
+import ru.practicum.shareit.server.etag.Tagged;
 import ru.practicum.shareit.server.item.dto.ItemDto;
+import ru.practicum.shareit.server.item.model.Comment;
+import ru.practicum.shareit.server.item.model.Item;
+import ru.practicum.shareit.server.item.repository.CommentRepository;
+import ru.practicum.shareit.server.item.repository.ItemRepository;
 import ru.practicum.shareit.server.item.service.ItemService;
 import ru.practicum.shareit.server.user.dto.UserDto;
+import ru.practicum.shareit.server.user.model.User;
+import ru.practicum.shareit.server.user.repository.UserRepository;
 import ru.practicum.shareit.server.user.service.UserService;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @ActiveProfiles("test")
-@SpringBootTest
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:statistics;LOCK_TIMEOUT=10000"
+})
 @Transactional
 class ServiceItemIntegrationTest {
 
@@ -27,6 +46,24 @@ class ServiceItemIntegrationTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private UserDto owner;
     private UserDto otherUser;
     private ItemDto itemDto;
@@ -77,6 +114,62 @@ class ServiceItemIntegrationTest {
                 .hasMessage("Item not found");
     }
 
+    @Test
+    void getTaggedItem_shouldChangeWithItemCommentsAndAuthors() {
+        ItemDto createdItem = itemService.addItem(owner.getId(), itemDto);
+        Item item = itemRepository.findById(createdItem.getId()).orElseThrow();
+        User author = userRepository.findById(otherUser.getId()).orElseThrow();
+        String created = itemService.getTaggedItem(createdItem.getId(), otherUser.getId(), etag -> false).etag();
+
+        saveComment(item, author);
+        String commented = itemService.getTaggedItem(createdItem.getId(), otherUser.getId(), etag -> false).etag();
+        assertThat(commented).isNotEqualTo(created);
+
+        // Имя автора показывается в комментарии
+        userService.updateUser(otherUser.getId(), new UserDto(null, "Renamed", null));
+        assertThat(itemService.getTaggedItem(createdItem.getId(), otherUser.getId(), etag -> false).etag()).isNotEqualTo(commented);
+    }
+
+    @Test
+    void getTaggedItem_shouldChangeWhenCommentIsReplaced() {
+        ItemDto createdItem = itemService.addItem(owner.getId(), itemDto);
+        Item item = itemRepository.findById(createdItem.getId()).orElseThrow();
+        User author = userRepository.findById(otherUser.getId()).orElseThrow();
+        Comment first = saveComment(item, author);
+        String before = itemService.getTaggedItem(createdItem.getId(), otherUser.getId(), etag -> false).etag();
+
+        // Число комментариев и версия автора те же, поменялся только сам комментарий
+        commentRepository.delete(first);
+        saveComment(item, author);
+
+        assertThat(itemService.getTaggedItem(createdItem.getId(), otherUser.getId(), etag -> false).etag())
+                .isNotEqualTo(before);
+    }
+
+    @Test
+    void getTaggedItem_shouldNotBuildBodyWhenNotModified() {
+        ItemDto createdItem = itemService.addItem(owner.getId(), itemDto);
+        String etag = itemService.getTaggedItem(createdItem.getId(), owner.getId(), tag -> false).etag();
+
+        Tagged<ItemDto> notModified = itemService.getTaggedItem(createdItem.getId(), owner.getId(), etag::equals);
+
+        assertThat(notModified.isNotModified()).isTrue();
+        assertThat(notModified.etag()).isEqualTo(etag);
+    }
+
+    @Test
+    void getTaggedItem_shouldIncludeBookingsForOwnerOnly() {
+        ItemDto createdItem = itemService.addItem(owner.getId(), itemDto);
+        String ownerVersion = itemService.getTaggedItem(createdItem.getId(), owner.getId(), etag -> false).etag();
+        String otherVersion = itemService.getTaggedItem(createdItem.getId(), otherUser.getId(), etag -> false).etag();
+
+        saveBooking(itemRepository.findById(createdItem.getId()).orElseThrow(),
+                userRepository.findById(otherUser.getId()).orElseThrow(), LocalDateTime.now().plusDays(1));
+
+        assertThat(itemService.getTaggedItem(createdItem.getId(), owner.getId(), etag -> false).etag()).isNotEqualTo(ownerVersion);
+        assertThat(itemService.getTaggedItem(createdItem.getId(), otherUser.getId(), etag -> false).etag()).isEqualTo(otherVersion);
+    }
+
     @Test
     void updateItem_shouldUpdateItemDetails() {
 
@@ -132,6 +225,55 @@ class ServiceItemIntegrationTest {
         assertThat(items).hasSize(2);
     }
 
+    @Test
+    void getUserItems_shouldReturnBookingsAndCommentsForEachItem() {
+        ItemDto createdItem = itemService.addItem(owner.getId(), itemDto);
+        Item item = itemRepository.findById(createdItem.getId()).orElseThrow();
+        User booker = userRepository.findById(otherUser.getId()).orElseThrow();
+
+        Booking lastBooking = saveBooking(item, booker, LocalDateTime.now().minusDays(3));
+        Booking nextBooking = saveBooking(item, booker, LocalDateTime.now().plusDays(3));
+        saveBooking(item, booker, LocalDateTime.now().plusDays(10));
+        saveComment(item, booker);
+
+        List<ItemDto> items = itemService.getUserItems(owner.getId());
+
+        // Проверка
+        assertThat(items).hasSize(1);
+        assertThat(items.getFirst().getLastBooking().getId()).isEqualTo(lastBooking.getId());
+        assertThat(items.getFirst().getNextBooking().getId()).isEqualTo(nextBooking.getId());
+        assertThat(items.getFirst().getComments()).hasSize(1);
+    }
+
+    @Test
+    void saveAll_shouldInsertItemsInJdbcBatches() {
+        User itemOwner = userRepository.findById(owner.getId()).orElseThrow();
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            items.add(new Item(null, "Batch" + i, "Description" + i, true, itemOwner, null, null));
+        }
+        entityManager.flush();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        itemRepository.saveAll(items);
+        entityManager.flush();
+
+        // 120 строк: три пачки INSERT по 50 и несколько обращений к последовательности вместо 120 запросов
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(120);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(6);
+    }
+
+    @Test
+    void getUserItems_shouldUseFixedNumberOfQueriesRegardlessOfItemCount() {
+        long queriesForFewItems = countQueriesForUserItems(2);
+        long queriesForManyItems = countQueriesForUserItems(20);
+
+        // Количество запросов не зависит от количества вещей владельца
+        assertThat(queriesForManyItems).isEqualTo(queriesForFewItems);
+        assertThat(queriesForManyItems).isLessThanOrEqualTo(5);
+    }
+
     @Test
     void searchItems_shouldReturnMatchingItems() {
 
@@ -147,7 +289,7 @@ class ServiceItemIntegrationTest {
         secondItem.setAvailable(true);
         itemService.addItem(owner.getId(), secondItem);
 
-        List<ItemDto> results = itemService.searchItems("Drill");
+        List<ItemDto> results = itemService.searchItems("Drill", 0, 10);
 
         // Проверка поиска предметов
         assertThat(results).hasSize(1);
@@ -155,16 +297,85 @@ class ServiceItemIntegrationTest {
     }
 
 
+    @Test
+    void searchItems_shouldRankNameMatchesFirstAndPaginate() {
+        ItemDto descriptionMatch = new ItemDto(null, "Screwdriver", "Works like a drill", true,
+                null, null, null, null, null);
+        ItemDto nameMatch = new ItemDto(null, "Drill", "Powerful tool", true, null, null, null, null, null);
+        ItemDto unavailable = new ItemDto(null, "Old drill", "Broken", false, null, null, null, null, null);
+        ItemDto first = itemService.addItem(owner.getId(), descriptionMatch);
+        ItemDto second = itemService.addItem(owner.getId(), nameMatch);
+        itemService.addItem(owner.getId(), unavailable);
+
+        List<ItemDto> results = itemService.searchItems("dRiLl", 0, 10);
+        List<ItemDto> secondPage = itemService.searchItems("drill", 1, 1);
+
+        // Совпадение в названии выше совпадения в описании, недоступные вещи не возвращаются
+        assertThat(results).extracting(ItemDto::getId).containsExactly(second.getId(), first.getId());
+        assertThat(secondPage).extracting(ItemDto::getId).containsExactly(first.getId());
+    }
+
+    @Test
+    void searchItems_shouldMatchLikeWildcardsLiterally() {
+        ItemDto percent = itemService.addItem(owner.getId(),
+                new ItemDto(null, "Discount", "Sale 50% off", true, null, null, null, null, null));
+        ItemDto underscore = itemService.addItem(owner.getId(),
+                new ItemDto(null, "snake_case", "Naming guide", true, null, null, null, null, null));
+        ItemDto backslash = itemService.addItem(owner.getId(),
+                new ItemDto(null, "Path", "C:\\tools", true, null, null, null, null, null));
+        itemService.addItem(owner.getId(), itemDto);
+
+        // Без экранирования % и _ совпали бы со всеми вещами
+        assertThat(itemService.searchItems("%", 0, 10)).extracting(ItemDto::getId).containsExactly(percent.getId());
+        assertThat(itemService.searchItems("_", 0, 10)).extracting(ItemDto::getId)
+                .containsExactly(underscore.getId());
+        assertThat(itemService.searchItems("e_c", 0, 10)).extracting(ItemDto::getId)
+                .containsExactly(underscore.getId());
+        assertThat(itemService.searchItems(":\\t", 0, 10)).extracting(ItemDto::getId)
+                .containsExactly(backslash.getId());
+        assertThat(itemService.searchItems("0_", 0, 10)).isEmpty();
+    }
+
     @Test
     void searchItems_shouldReturnEmptyListIfNoMatch() {
         // Создание предмета
         itemService.addItem(owner.getId(), itemDto);
 
         // Поиск предметов по несуществующему запросу
-        List<ItemDto> results = itemService.searchItems("Nonexistent");
+        List<ItemDto> results = itemService.searchItems("Nonexistent", 0, 10);
 
         // Проверка
         assertThat(results).isEmpty();
     }
-}
 
+    private long countQueriesForUserItems(int itemCount) {
+        User itemOwner = userRepository.save(new User(null, "Owner" + itemCount, "owner" + itemCount + "@mail.com", null));
+        User booker = userRepository.findById(otherUser.getId()).orElseThrow();
+
+        for (int i = 0; i < itemCount; i++) {
+            Item item = itemRepository.save(new Item(null, "Item" + i, "Description" + i, true, itemOwner, null, null));
+            saveBooking(item, booker, LocalDateTime.now().minusDays(3));
+            saveBooking(item, booker, LocalDateTime.now().plusDays(3));
+            saveComment(item, booker);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ItemDto> items = itemService.getUserItems(itemOwner.getId());
+
+        assertThat(items).hasSize(itemCount);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Booking saveBooking(Item item, User booker, LocalDateTime start) {
+        return bookingRepository.save(new Booking(null, start, start.plusDays(1), item, booker,
+                null, BookingStatus.APPROVED, null));
+    }
+
+    private Comment saveComment(Item item, User author) {
+        return commentRepository.save(new Comment(null, "Great item!", item, author, LocalDateTime.now()));
+    }
+}
@@ -1,17 +1,25 @@
 package ru.practicum.shareit.server.service;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.server.item.dto.ItemDto;
+import ru.practicum.shareit.server.item.repository.ItemRepository;
 import ru.practicum.shareit.server.item.service.ItemService;
+import ru.practicum.shareit.server.pagination.KeysetCursor;
 import ru.practicum.shareit.server.request.dto.ItemRequestDto;
 import ru.practicum.shareit.server.request.service.ItemRequestService;
 import ru.practicum.shareit.server.user.dto.UserDto;
 import ru.practicum.shareit.server.user.service.UserService;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -19,7 +27,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @ActiveProfiles("test")
-@SpringBootTest
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:statistics;LOCK_TIMEOUT=10000"
+})
 @Transactional
 class ServiceItemRequestIntegrationTest {
 
@@ -32,6 +43,15 @@ class ServiceItemRequestIntegrationTest {
     @Autowired
     private ItemService itemService;
 
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private UserDto requestor;
     private UserDto otherUser;
     private ItemRequestDto itemRequestDto;
@@ -80,7 +100,7 @@ class ServiceItemRequestIntegrationTest {
         itemRequestService.createRequest(requestor.getId(), itemRequestDto);
 
         // Получение запроса для другого пользователя
-        List<ItemRequestDto> requests = itemRequestService.getAllRequests(otherUser.getId());
+        List<ItemRequestDto> requests = itemRequestService.getAllRequests(otherUser.getId(), 0, 10, null);
 
         // Проверка
         assertThat(requests).hasSize(1);
@@ -106,5 +126,110 @@ class ServiceItemRequestIntegrationTest {
                 .isInstanceOf(NoSuchElementException.class)
                 .hasMessage("Request not found");
     }
-}
 
+    @Test
+    void getAllRequests_shouldReturnItemsForEachRequest() {
+        ItemRequestDto drillRequest = itemRequestService.createRequest(requestor.getId(), itemRequestDto);
+        ItemRequestDto emptyRequest = itemRequestService.createRequest(requestor.getId(), itemRequestDto);
+        addItemForRequest(otherUser.getId(), drillRequest.getId(), "Drill");
+        addItemForRequest(otherUser.getId(), drillRequest.getId(), "Hammer drill");
+
+        UserDto viewer = userService.createUser(new UserDto(null, "Viewer", "viewer@mail.com"));
+        List<ItemRequestDto> requests = itemRequestService.getAllRequests(viewer.getId(), 0, 10, null);
+
+        assertThat(requests).extracting(ItemRequestDto::getId)
+                .containsExactlyInAnyOrder(drillRequest.getId(), emptyRequest.getId());
+        assertThat(requests).filteredOn(request -> request.getId().equals(drillRequest.getId()))
+                .singleElement()
+                .satisfies(request -> assertThat(request.getItems()).extracting(ItemDto::getName)
+                        .containsExactly("Drill", "Hammer drill"));
+        assertThat(requests).filteredOn(request -> request.getId().equals(emptyRequest.getId()))
+                .singleElement()
+                .satisfies(request -> assertThat(request.getItems()).isEmpty());
+    }
+
+    @Test
+    void getAllRequests_shouldPageWithCursorAndOffset() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(itemRequestService.createRequest(requestor.getId(), itemRequestDto).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        // Новые запросы идут первыми
+        List<Long> expected = ids.reversed();
+
+        List<ItemRequestDto> firstPage = itemRequestService.getAllRequests(otherUser.getId(), 0, 2, null);
+        ItemRequestDto last = firstPage.getLast();
+        String cursor = new KeysetCursor(last.getCreated(), last.getId()).encode();
+        List<ItemRequestDto> secondPage = itemRequestService.getAllRequests(otherUser.getId(), 0, 2, cursor);
+        List<ItemRequestDto> byOffset = itemRequestService.getAllRequests(otherUser.getId(), 4, 2, null);
+
+        assertThat(firstPage).extracting(ItemRequestDto::getId).isEqualTo(expected.subList(0, 2));
+        assertThat(secondPage).extracting(ItemRequestDto::getId).isEqualTo(expected.subList(2, 4));
+        assertThat(byOffset).extracting(ItemRequestDto::getId).isEqualTo(expected.subList(4, 5));
+    }
+
+    @Test
+    void getTaggedRequest_shouldChangeWhenItemIsReplaced() {
+        ItemRequestDto request = itemRequestService.createRequest(requestor.getId(), itemRequestDto);
+        addItemForRequest(otherUser.getId(), request.getId(), "Drill");
+        String before = itemRequestService.getTaggedRequest(requestor.getId(), request.getId(), etag -> false).etag();
+
+        // Новая вещь тоже в версии 0: число вещей и сумма версий не меняются
+        itemRepository.deleteAll(itemRepository.findByRequest_Id(request.getId()));
+        addItemForRequest(otherUser.getId(), request.getId(), "Another drill");
+
+        assertThat(itemRequestService.getTaggedRequest(requestor.getId(), request.getId(), etag -> false).etag())
+                .isNotEqualTo(before);
+    }
+
+    @Test
+    void getAllRequests_shouldRejectInvalidCursor() {
+        assertThatThrownBy(() -> itemRequestService.getAllRequests(otherUser.getId(), 0, 10, "not-a-cursor"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void getAllRequests_shouldIssueFixedNumberOfQueries() {
+        long queriesForFewRequests = countQueriesForAllRequests(2);
+        long queriesForManyRequests = countQueriesForAllRequests(20);
+
+        // Количество запросов к БД не зависит от количества запросов на вещи
+        assertThat(queriesForManyRequests).isEqualTo(queriesForFewRequests);
+        assertThat(queriesForManyRequests).isLessThanOrEqualTo(3);
+    }
+
+    private long countQueriesForAllRequests(int requestCount) {
+        UserDto viewer = userService.createUser(
+                new UserDto(null, "Viewer" + requestCount, "viewer" + requestCount + "@mail.com"));
+        for (int i = 0; i < requestCount; i++) {
+            UserDto author = userService.createUser(
+                    new UserDto(null, "Author" + i, "author" + requestCount + "_" + i + "@mail.com"));
+            UserDto owner = userService.createUser(
+                    new UserDto(null, "Owner" + i, "owner" + requestCount + "_" + i + "@mail.com"));
+            ItemRequestDto request = itemRequestService.createRequest(author.getId(), itemRequestDto);
+            addItemForRequest(owner.getId(), request.getId(), "Item" + i);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ItemRequestDto> requests = itemRequestService.getAllRequests(viewer.getId(), 0, 100, null);
+
+        assertThat(requests).hasSizeGreaterThanOrEqualTo(requestCount);
+        assertThat(requests).allSatisfy(request -> assertThat(request.getItems()).hasSize(1));
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void addItemForRequest(Long ownerId, Long requestId, String name) {
+        ItemDto item = new ItemDto();
+        item.setName(name);
+        item.setDescription(name + " for request");
+        item.setAvailable(true);
+        item.setRequestId(requestId);
+        itemService.addItem(ownerId, item);
+    }
+}
@@ -1,5 +1,8 @@
 package ru.practicum.shareit.server.service;
 
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,13 +19,19 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @ActiveProfiles("test")
-@SpringBootTest
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.datasource.url=jdbc:h2:mem:statistics;LOCK_TIMEOUT=10000"
+})
 @Transactional
 class ServiceUserIntegrationTest {
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private UserDto userDto;
 
     @BeforeEach
@@ -121,4 +130,48 @@ class ServiceUserIntegrationTest {
                 .isInstanceOf(NoSuchElementException.class)
                 .hasMessage("User not found");
     }
-}
\ No newline at end of file
+
+    @Test
+    void getUser_shouldServeRepeatedReadsFromCache() {
+        UserDto createdUser = userService.createUser(userDto);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        userService.getUser(createdUser.getId());
+        long queriesAfterFirstRead = statistics.getPrepareStatementCount();
+        userService.getUser(createdUser.getId());
+        assertThat(userService.existsById(createdUser.getId())).isTrue();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(queriesAfterFirstRead);
+    }
+
+    @Test
+    void updateUser_shouldEvictCachedUser() {
+        UserDto createdUser = userService.createUser(userDto);
+        userService.getUser(createdUser.getId());
+
+        userService.updateUser(createdUser.getId(), new UserDto(null, "updated", null));
+
+        assertThat(userService.getUser(createdUser.getId()).getName()).isEqualTo("updated");
+    }
+
+    @Test
+    void deleteUser_shouldEvictCachedUser() {
+        UserDto createdUser = userService.createUser(userDto);
+        assertThat(userService.existsById(createdUser.getId())).isTrue();
+
+        userService.deleteUser(createdUser.getId());
+
+        assertThat(userService.existsById(createdUser.getId())).isFalse();
+        assertThatThrownBy(() -> userService.getUser(createdUser.getId()))
+                .isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void getUser_shouldNotExposeCachedInstance() {
+        UserDto createdUser = userService.createUser(userDto);
+        userService.getUser(createdUser.getId()).setName("changed by caller");
+
+        assertThat(userService.getUser(createdUser.getId()).getName()).isEqualTo(userDto.getName());
+    }
+}
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.server.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.server.item.repository.ItemRepository;
+import ru.practicum.shareit.server.item.search.ItemSearchEngine;
+import ru.practicum.shareit.server.user.dto.UserDto;
+import ru.practicum.shareit.server.user.model.User;
+import ru.practicum.shareit.server.user.repository.UserRepository;
+import ru.practicum.shareit.server.user.service.UserServiceImpl;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Чтение пользователя, которое прочитало строку до удаления, а положило её в кэш уже после сброса,
+ * не должно оставить удалённого пользователя в кэше.
+ */
+class UserCacheRaceTest {
+
+    private UserRepository userRepository;
+    private ItemRepository itemRepository;
+    private Cache<Long, UserDto> userCache;
+    private UserServiceImpl userService;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        itemRepository = mock(ItemRepository.class);
+        userCache = Caffeine.newBuilder().build();
+        userService = new UserServiceImpl(userRepository, userCache, itemRepository,
+                mock(ItemSearchEngine.class), Optional.empty());
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void existsById_shouldNotCacheUserDeletedWhileReading() throws Exception {
+        CountDownLatch read = new CountDownLatch(1);
+        CountDownLatch deleted = new CountDownLatch(1);
+        User user = new User(1L, "User", "user@mail.com", 0L);
+        when(userRepository.findById(1L)).thenAnswer(invocation -> {
+            // Строка прочитана, удаление проходит до того, как чтение положит её в кэш
+            read.countDown();
+            deleted.await(5, TimeUnit.SECONDS);
+            return Optional.of(user);
+        }).thenReturn(Optional.empty());
+        when(itemRepository.findIdsByOwnerId(1L)).thenReturn(List.of());
+
+        Future<Boolean> reader = executor.submit(() -> userService.existsById(1L));
+        assertThat(read.await(5, TimeUnit.SECONDS)).isTrue();
+        userService.deleteUser(1L);
+        deleted.countDown();
+
+        assertThat(reader.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(userCache.getIfPresent(1L)).isNull();
+        assertThat(userService.existsById(1L)).isFalse();
+    }
+
+    @Test
+    void existsById_shouldCacheUserWithoutConcurrentInvalidation() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User(1L, "User", "user@mail.com", 0L)));
+
+        assertThat(userService.existsById(1L)).isTrue();
+
+        assertThat(userCache.getIfPresent(1L)).isNotNull();
+    }
+}